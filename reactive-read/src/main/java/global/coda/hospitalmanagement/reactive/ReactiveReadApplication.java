@@ -0,0 +1,26 @@
+package global.coda.hospitalmanagement.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Non-blocking read API for high concurrency clients. It serves the same
+ * responses as the read endpoints of the servlet application from a small
+ * number of event loop threads, reading through R2DBC.
+ *
+ * @author Vishal
+ *
+ */
+@SpringBootApplication
+public class ReactiveReadApplication {
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveReadApplication.class, args);
+	}
+
+}
@@ -0,0 +1,73 @@
+package global.coda.hospitalmanagement.reactive.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+
+import global.coda.hospitalmanagement.config.JacksonConfiguration;
+import global.coda.hospitalmanagement.exceptionhandler.HospitalManagementExceptionHandler;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * The R2DBC connection pool and database client. The Jackson set up and the
+ * exception handler of the servlet application are reused, so responses and
+ * errors look the same.
+ *
+ * @author Vishal
+ *
+ */
+@Configuration
+@Import({ JacksonConfiguration.class, HospitalManagementExceptionHandler.class })
+public class R2dbcConfiguration {
+
+	/** The R2DBC url. */
+	@Value("${hms.r2dbc.url}")
+	private String url;
+
+	/** The username. */
+	@Value("${hms.r2dbc.username}")
+	private String username;
+
+	/** The password. */
+	@Value("${hms.r2dbc.password}")
+	private String password;
+
+	/** The number of connections opened at start up. */
+	@Value("${hms.r2dbc.pool.initial-size:4}")
+	private int initialSize;
+
+	/** The maximum number of connections. */
+	@Value("${hms.r2dbc.pool.max-size:16}")
+	private int maxSize;
+
+	/**
+	 * Connection factory, a pool over the driver the url names.
+	 *
+	 * @return the connection pool
+	 */
+	@Bean(destroyMethod = "dispose")
+	public ConnectionPool connectionFactory() {
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate().option(ConnectionFactoryOptions.USER, username)
+				.option(ConnectionFactoryOptions.PASSWORD, password).build();
+		return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options)).initialSize(initialSize)
+				.maxSize(maxSize).build());
+	}
+
+	/**
+	 * Database client.
+	 *
+	 * @param connectionFactory the connection factory
+	 * @return the database client
+	 */
+	@Bean
+	public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+		return DatabaseClient.create(connectionFactory);
+	}
+
+}
@@ -0,0 +1,108 @@
+package global.coda.hospitalmanagement.reactive.controller;
+
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.NotFoundException;
+import global.coda.hospitalmanagement.model.CustomResponseBody;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.DoctorPatientMapping;
+import global.coda.hospitalmanagement.model.PatientRecordDetails;
+import global.coda.hospitalmanagement.model.RecordData;
+import global.coda.hospitalmanagement.reactive.mapper.ReactiveReadMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+@RestController
+@RequestMapping("/hms/doctor")
+public class ReactiveDoctorController {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(ReactiveDoctorController.class);
+
+	/** The reactive read mapper. */
+	@Autowired
+	private ReactiveReadMapper reactiveReadMapper;
+
+	/**
+	 * Read doctor by id.
+	 *
+	 * @param id the id
+	 * @return the custom response body
+	 */
+	@GetMapping("/read/{id}")
+	public Mono<CustomResponseBody<Doctor>> readDoctorById(@PathVariable("id") int id) {
+		logger.entry(id);
+		return reactiveReadMapper.readDoctorById(id).switchIfEmpty(Mono.error(NotFoundException.DOCTOR)).map(doctor -> {
+			CustomResponseBody<Doctor> response = new CustomResponseBody<Doctor>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(doctor);
+			return logger.traceExit(response);
+		});
+	}
+
+	/**
+	 * Read record by id.
+	 *
+	 * @param id the id
+	 * @return the custom response body
+	 */
+	@GetMapping("/{param}/patient")
+	public Mono<CustomResponseBody<DoctorPatientMapping>> readRecordById(@PathVariable("param") int id) {
+		logger.entry(id);
+		return reactiveReadMapper.readRecordById(id).collectList().filter(records -> !records.isEmpty())
+				.switchIfEmpty(Mono.error(NotFoundException.RECORD)).map(records -> {
+					DoctorPatientMapping doctorPatientMapping = new DoctorPatientMapping();
+					doctorPatientMapping.setDoctorId(id);
+					doctorPatientMapping.setDoctorName(records.get(records.size() - 1).getDoctorName());
+					doctorPatientMapping.setListOfPatients(records.stream().map(this::toPatientRecordDetails).collect(Collectors.toList()));
+					CustomResponseBody<DoctorPatientMapping> response = new CustomResponseBody<DoctorPatientMapping>();
+					response.setStatus(HttpStatusConstant.OK);
+					response.setMessage(doctorPatientMapping);
+					return logger.traceExit(response);
+				});
+	}
+
+	/**
+	 * Stream the patients of a doctor one JSON document per line, as the client
+	 * reads them. Rows are fetched from the database only as fast as they are
+	 * written out.
+	 *
+	 * @param id the id
+	 * @return the patient record details
+	 */
+	@GetMapping(value = "/{param}/patient", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+	public Flux<PatientRecordDetails> streamRecordById(@PathVariable("param") int id) {
+		logger.entry(id);
+		return reactiveReadMapper.readRecordById(id).switchIfEmpty(Flux.error(NotFoundException.RECORD)).map(this::toPatientRecordDetails);
+	}
+
+	/**
+	 * Copy the patient fields of a record.
+	 *
+	 * @param record the record
+	 * @return the patient record details
+	 */
+	private PatientRecordDetails toPatientRecordDetails(RecordData record) {
+		PatientRecordDetails recordDetails = new PatientRecordDetails();
+		recordDetails.setPatientId(record.getPatientId());
+		recordDetails.setPatientName(record.getPatientName());
+		recordDetails.setDisease(record.getDisease());
+		return recordDetails;
+	}
+
+}
@@ -0,0 +1,51 @@
+package global.coda.hospitalmanagement.reactive.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.NotFoundException;
+import global.coda.hospitalmanagement.model.CustomResponseBody;
+import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.reactive.mapper.ReactiveReadMapper;
+import reactor.core.publisher.Mono;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+@RestController
+@RequestMapping("/hms/patient")
+public class ReactivePatientController {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(ReactivePatientController.class);
+
+	/** The reactive read mapper. */
+	@Autowired
+	private ReactiveReadMapper reactiveReadMapper;
+
+	/**
+	 * Read patient by id.
+	 *
+	 * @param id the id
+	 * @return the response body
+	 */
+	@GetMapping("/read/{id}")
+	public Mono<CustomResponseBody<Patient>> readPatientById(@PathVariable("id") int id) {
+		logger.entry(id);
+		return reactiveReadMapper.readPatientById(id).switchIfEmpty(Mono.error(NotFoundException.PATIENT)).map(patient -> {
+			CustomResponseBody<Patient> response = new CustomResponseBody<Patient>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(patient);
+			return logger.traceExit(response);
+		});
+	}
+
+}
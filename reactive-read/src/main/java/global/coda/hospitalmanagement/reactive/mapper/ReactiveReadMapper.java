@@ -0,0 +1,206 @@
+package global.coda.hospitalmanagement.reactive.mapper;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import global.coda.hospitalmanagement.constant.DoctorSqlQueryConstant;
+import global.coda.hospitalmanagement.constant.PatientSqlQueryConstant;
+import global.coda.hospitalmanagement.constant.RecordDetailsSqlQueryConstant;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.model.RecordData;
+import global.coda.hospitalmanagement.model.UserDetails;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the read queries of the servlet application through R2DBC. The SQL is
+ * taken from the query constants, with the MyBatis parameters rewritten as
+ * named parameters, and rows are mapped the way the MyBatis result maps do.
+ *
+ * @author Vishal
+ *
+ */
+@Repository
+public class ReactiveReadMapper {
+
+	/** A MyBatis parameter, #{name}. */
+	private static final Pattern MYBATIS_PARAMETER = Pattern.compile("#\\{(\\w+)\\}");
+
+	/** The patient by id query. */
+	private static final String PATIENT_SELECT_BY_ID = named(PatientSqlQueryConstant.PATIENT_SELECT_BY_ID);
+
+	/** The doctor by id query. */
+	private static final String DOCTOR_SELECT_BY_ID = named(DoctorSqlQueryConstant.DOCTOR_SELECT_BY_ID);
+
+	/** The records of a doctor query. */
+	private static final String READ_RECORD_BY_DOCTOR_ID = named(RecordDetailsSqlQueryConstant.READ_RECORD_BY_DOCTOR_ID);
+
+	/** The id parameter. */
+	private static final String ID = "id";
+
+	/** The database client. */
+	@Autowired
+	private DatabaseClient databaseClient;
+
+	/**
+	 * Read patient by id.
+	 *
+	 * @param id the id
+	 * @return the patient, empty if there is no active patient
+	 */
+	public Mono<Patient> readPatientById(int id) {
+		return databaseClient.execute(PATIENT_SELECT_BY_ID).bind(ID, id).map((row, metadata) -> toPatient(row)).one();
+	}
+
+	/**
+	 * Read doctor by id.
+	 *
+	 * @param id the id
+	 * @return the doctor, empty if there is no active doctor
+	 */
+	public Mono<Doctor> readDoctorById(int id) {
+		return databaseClient.execute(DOCTOR_SELECT_BY_ID).bind(ID, id).map((row, metadata) -> toDoctor(row)).one();
+	}
+
+	/**
+	 * Read the records of a doctor. Rows are fetched as the subscriber asks for
+	 * them.
+	 *
+	 * @param id the doctor id
+	 * @return the records, empty if there is no active doctor
+	 */
+	public Flux<RecordData> readRecordById(int id) {
+		return databaseClient.execute(READ_RECORD_BY_DOCTOR_ID).bind(ID, id).map((row, metadata) -> toRecordData(row, id)).all();
+	}
+
+	/**
+	 * Rewrite the MyBatis parameters of a query as named parameters.
+	 *
+	 * @param sql the MyBatis sql
+	 * @return the sql with named parameters
+	 */
+	static String named(String sql) {
+		return MYBATIS_PARAMETER.matcher(sql).replaceAll(":$1");
+	}
+
+	/**
+	 * Map a patient row, like the patientResult map.
+	 *
+	 * @param row the row
+	 * @return the patient
+	 */
+	private static Patient toPatient(Row row) {
+		Patient patient = new Patient();
+		mapUser(row, patient);
+		patient.setUserId(intValue(row, "fk_user_id"));
+		patient.setPatientId(intValue(row, "pk_patient_id"));
+		patient.setBloodGroup(row.get("blood_group", String.class));
+		patient.setWeight(intValue(row, "weight"));
+		patient.setCreatedDate(sqlDate(row, "created_date"));
+		patient.setUpdatedDate(sqlDate(row, "updated_date"));
+		return patient;
+	}
+
+	/**
+	 * Map a doctor row, like the doctorResult map.
+	 *
+	 * @param row the row
+	 * @return the doctor
+	 */
+	private static Doctor toDoctor(Row row) {
+		Doctor doctor = new Doctor();
+		mapUser(row, doctor);
+		doctor.setUserId(intValue(row, "fk_user_id"));
+		doctor.setDoctorId(intValue(row, "pk_doctor_id"));
+		doctor.setSpecilization(row.get("doctor_specialization", String.class));
+		doctor.setCreatedTime(timestamp(row, "created_time"));
+		doctor.setUpdatedTime(timestamp(row, "updated_time"));
+		return doctor;
+	}
+
+	/**
+	 * Map the user columns shared by patients and doctors.
+	 *
+	 * @param row  the row
+	 * @param user the user
+	 */
+	private static void mapUser(Row row, UserDetails user) {
+		user.setId(intValue(row, "pk_user_id"));
+		user.setUsername(row.get("username", String.class));
+		user.setPassword(row.get("password", String.class));
+		user.setPhoneNumber(row.get("phone_number", String.class));
+		user.setRoleId(intValue(row, "fk_role_id"));
+		user.setFirstName(row.get("firstname", String.class));
+		user.setLastName(row.get("lastname", String.class));
+		user.setCity(row.get("city", String.class));
+		user.setState(row.get("state", String.class));
+		user.setIsActive(intValue(row, "is_active"));
+		user.setCreatedDate(timestamp(row, "created_date"));
+		user.setUpdatedDate(timestamp(row, "updated_date"));
+		user.setLastModified(timestamp(row, "last_modified"));
+	}
+
+	/**
+	 * Map a record row.
+	 *
+	 * @param row      the row
+	 * @param doctorId the doctor id
+	 * @return the record data
+	 */
+	private static RecordData toRecordData(Row row, int doctorId) {
+		RecordData record = new RecordData();
+		record.setDoctorId(doctorId);
+		record.setDoctorName(row.get("doctor_name", String.class));
+		Number patientId = row.get("patient_id", Number.class);
+		record.setPatientId(patientId == null ? null : patientId.intValue());
+		record.setPatientName(row.get("patient_name", String.class));
+		record.setDisease(row.get("disease", String.class));
+		return record;
+	}
+
+	/**
+	 * Gets an int column, zero when null like MyBatis.
+	 *
+	 * @param row    the row
+	 * @param column the column
+	 * @return the value
+	 */
+	private static int intValue(Row row, String column) {
+		Number value = row.get(column, Number.class);
+		return value == null ? 0 : value.intValue();
+	}
+
+	/**
+	 * Gets a date time column as a timestamp.
+	 *
+	 * @param row    the row
+	 * @param column the column
+	 * @return the timestamp, or null
+	 */
+	private static Timestamp timestamp(Row row, String column) {
+		LocalDateTime value = row.get(column, LocalDateTime.class);
+		return value == null ? null : Timestamp.valueOf(value);
+	}
+
+	/**
+	 * Gets a date time column as a date.
+	 *
+	 * @param row    the row
+	 * @param column the column
+	 * @return the date, or null
+	 */
+	private static Date sqlDate(Row row, String column) {
+		LocalDateTime value = row.get(column, LocalDateTime.class);
+		return value == null ? null : Date.valueOf(LocalDate.from(value));
+	}
+
+}
@@ -0,0 +1,91 @@
+package global.coda.hospitalmanagement.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import global.coda.hospitalmanagement.model.PatientRecordDetails;
+
+/**
+ * Serves the read endpoints from an embedded database migrated with the
+ * servlet application's schema.
+ *
+ * @author Vishal
+ */
+@SpringBootTest(properties = { "hms.r2dbc.url=r2dbc:h2:mem:///reactive?options=MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"hms.r2dbc.username=sa", "hms.r2dbc.password=" })
+@AutoConfigureWebTestClient
+class ReactiveReadApplicationTests {
+
+	private static final String URL = "jdbc:h2:mem:reactive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private static final String USER = "sa";
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@BeforeAll
+	static void migrate() throws SQLException {
+		Flyway.configure().dataSource(URL, USER, "").schemas("hms").load().migrate();
+		try (Connection connection = DriverManager.getConnection(URL, USER, ""); Statement statement = connection.createStatement()) {
+			connection.setSchema("hms");
+			statement.executeUpdate("insert into t_user_details (pk_user_id, username, password, fk_role_id) values"
+					+ " (1, 'doctor1', 'secret', 3), (2, 'doctor2', 'secret', 3), (10, 'patient10', 'secret', 4), (11, 'patient11', 'secret', 4)");
+			statement.executeUpdate("insert into t_doctor (fk_user_id, doctor_specialization) values (1, 'cardio'), (2, 'neuro')");
+			statement.executeUpdate("insert into t_patient (fk_user_id, blood_group, weight) values (10, 'O+', 70), (11, 'A+', 60)");
+			statement.executeUpdate("insert into t_record (fk_doctor_id, fk_patient_id, disease) values (1, 10, 'flu'), (1, 11, 'fever')");
+		}
+	}
+
+	@Test
+	void readPatientById() {
+		webTestClient.get().uri("/hms/patient/read/10").exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.status").isEqualTo(200)
+				.jsonPath("$.message.id").isEqualTo(10)
+				.jsonPath("$.message.username").isEqualTo("patient10")
+				.jsonPath("$.message.bloodGroup").isEqualTo("O+")
+				.jsonPath("$.message.weight").isEqualTo(70);
+	}
+
+	@Test
+	void readMissingPatientIsNotFound() {
+		webTestClient.get().uri("/hms/patient/read/1").exchange().expectStatus().isNotFound().expectBody()
+				.jsonPath("$.message").isEqualTo("400 PATIENT NOT FOUND!!!");
+	}
+
+	@Test
+	void readDoctorById() {
+		webTestClient.get().uri("/hms/doctor/read/1").exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.message.username").isEqualTo("doctor1")
+				.jsonPath("$.message.specilization").isEqualTo("cardio");
+	}
+
+	@Test
+	void readRecordById() {
+		webTestClient.get().uri("/hms/doctor/1/patient").exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.message.doctorName").isEqualTo("doctor1")
+				.jsonPath("$.message.listOfPatients.length()").isEqualTo(2)
+				.jsonPath("$.message.listOfPatients[0].patientId").doesNotExist();
+	}
+
+	@Test
+	void streamRecordById() {
+		List<PatientRecordDetails> patients = webTestClient.get().uri("/hms/doctor/1/patient").accept(MediaType.APPLICATION_STREAM_JSON)
+				.exchange().expectStatus().isOk().returnResult(PatientRecordDetails.class).getResponseBody().collectList().block();
+		assertEquals(2, patients.size());
+	}
+
+}
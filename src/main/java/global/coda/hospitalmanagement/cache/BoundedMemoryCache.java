@@ -0,0 +1,176 @@
+package global.coda.hospitalmanagement.cache;
+
+import java.util.Collection;
+
+import org.apache.ibatis.cache.Cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import global.coda.hospitalmanagement.constant.CacheConstant;
+import global.coda.hospitalmanagement.constant.NumericConstants;
+
+/**
+ * MyBatis second level cache bounded by an estimate of the memory its results
+ * take. Every cached result is weighed as its row count times an estimated row
+ * size, and Caffeine evicts by frequency and recency (W-TinyLFU) once the total
+ * weight exceeds the configured bytes. Caffeine is safe for concurrent readers,
+ * so MyBatis does not need to serialize access.
+ *
+ * @author Vishal
+ */
+public class BoundedMemoryCache implements Cache {
+
+	/** The namespace id. */
+	private final String id;
+
+	/** The maximum bytes. */
+	private long maxBytes = CacheConstant.DEFAULT_MAX_BYTES;
+
+	/** The estimated bytes of one row. */
+	private int rowBytes = CacheConstant.DEFAULT_ROW_BYTES;
+
+	/** The cache. */
+	private com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
+
+	/**
+	 * Instantiates a new bounded memory cache.
+	 *
+	 * @param id the namespace id
+	 */
+	public BoundedMemoryCache(String id) {
+		this.id = id;
+		this.cache = build();
+	}
+
+	/**
+	 * Sets the maximum bytes, called by MyBatis while the mapper is parsed.
+	 *
+	 * @param maxBytes the new maximum bytes
+	 */
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		this.cache = build();
+	}
+
+	/**
+	 * Sets the estimated bytes of one row, called by MyBatis while the mapper is
+	 * parsed.
+	 *
+	 * @param rowBytes the new row bytes
+	 */
+	public void setRowBytes(int rowBytes) {
+		this.rowBytes = rowBytes;
+		this.cache = build();
+	}
+
+	/**
+	 * Builds the underlying cache.
+	 *
+	 * @return the cache
+	 */
+	private com.github.benmanes.caffeine.cache.Cache<Object, Object> build() {
+		return Caffeine.newBuilder().maximumWeight(maxBytes).weigher(this::weigh).build();
+	}
+
+	/**
+	 * Estimate the bytes a cached result takes.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 * @return the weight
+	 */
+	private int weigh(Object key, Object value) {
+		int rows = NumericConstants.ONE;
+		if (value instanceof Collection) {
+			rows = Math.max(((Collection<?>) value).size(), NumericConstants.ONE);
+		}
+		return (int) Math.min((long) rows * rowBytes, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return the id
+	 */
+	@Override
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Put object. MyBatis puts null for queries that missed, those are not kept.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 */
+	@Override
+	public void putObject(Object key, Object value) {
+		if (value == null) {
+			cache.invalidate(key);
+		} else {
+			cache.put(key, value);
+		}
+	}
+
+	/**
+	 * Gets the object.
+	 *
+	 * @param key the key
+	 * @return the object
+	 */
+	@Override
+	public Object getObject(Object key) {
+		return cache.getIfPresent(key);
+	}
+
+	/**
+	 * Removes the object.
+	 *
+	 * @param key the key
+	 * @return the removed object
+	 */
+	@Override
+	public Object removeObject(Object key) {
+		return cache.asMap().remove(key);
+	}
+
+	/**
+	 * Clear, called when a statement of the namespace flushes the cache.
+	 */
+	@Override
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Gets the size.
+	 *
+	 * @return the size
+	 */
+	@Override
+	public int getSize() {
+		return (int) Math.min(cache.estimatedSize(), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Equals, MyBatis compares caches by namespace id.
+	 *
+	 * @param other the other
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Cache && id.equals(((Cache) other).getId());
+	}
+
+	/**
+	 * Hash code.
+	 *
+	 * @return the int
+	 */
+	@Override
+	public int hashCode() {
+		return id.hashCode();
+	}
+
+}
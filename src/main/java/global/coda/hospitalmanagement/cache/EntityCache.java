@@ -0,0 +1,220 @@
+package global.coda.hospitalmanagement.cache;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import global.coda.hospitalmanagement.datasource.RoutingContext;
+import global.coda.hospitalmanagement.model.CacheStatistics;
+
+/**
+ * A bounded read-through cache of entities by id. Eviction is size based
+ * (Caffeine's W-TinyLFU) and every entry expires a fixed time after it was
+ * loaded, so rows changed outside this application are picked up eventually.
+ * Ids that were not found are remembered too, for a shorter time, so probing
+ * missing ids does not reach the database on every request. Writes that can
+ * make an id appear have to invalidate it.
+ *
+ * Only rows read from the primary are cached. Rows read from a replica may lag
+ * behind, so they are returned without being kept, and requests that have to
+ * read from the primary after a write do not use the cache at all.
+ *
+ * @author Vishal
+ *
+ * @param <V> the cached entity
+ */
+public class EntityCache<V> {
+
+	/** The cache name. */
+	private final String name;
+
+	/** The cache. */
+	private final Cache<Integer, Optional<V>> cache;
+
+	/**
+	 * Instantiates a new entity cache.
+	 *
+	 * @param name              the name
+	 * @param maximumSize       the maximum number of entries
+	 * @param ttlSeconds        the time to live of an entry in seconds
+	 * @param missingTtlSeconds the time to live of a missing id in seconds
+	 */
+	public EntityCache(String name, long maximumSize, long ttlSeconds, long missingTtlSeconds) {
+		this.name = name;
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize)
+				.expireAfter(new TimeToLive<V>(TimeUnit.SECONDS.toNanos(ttlSeconds), TimeUnit.SECONDS.toNanos(missingTtlSeconds)))
+				.recordStats().build();
+	}
+
+	/**
+	 * Get the entity, loading it on a miss. Concurrent misses for the same id
+	 * share one load, unless it read from a replica.
+	 *
+	 * @param id     the id
+	 * @param loader the loader
+	 * @return the entity, or null if the loader found none
+	 */
+	public V get(int id, Function<Integer, V> loader) {
+		if (RoutingContext.isSticky()) {
+			return loader.apply(id);
+		}
+		AtomicReference<V> replicaRow = new AtomicReference<V>();
+		Optional<V> value = cache.get(id, key -> {
+			long replicaReads = RoutingContext.getReplicaReads();
+			V loaded = loader.apply(key);
+			if (RoutingContext.getReplicaReads() == replicaReads) {
+				return Optional.ofNullable(loaded);
+			}
+			replicaRow.set(loaded);
+			return null;
+		});
+		return value == null ? replicaRow.get() : value.orElse(null);
+	}
+
+	/**
+	 * Drop the entity with the given id. Inside a transaction it is dropped
+	 * again when the transaction completes, so a concurrent read cannot cache
+	 * the row as it was before the commit.
+	 *
+	 * @param id the id
+	 */
+	public void invalidate(int id) {
+		nowAndAfterCompletion(() -> cache.invalidate(id));
+	}
+
+	/**
+	 * Drop every cached entity that matches the filter. Inside a transaction the
+	 * matching entities are dropped again when the transaction completes.
+	 *
+	 * @param filter the filter
+	 */
+	public void invalidateIf(Predicate<V> filter) {
+		nowAndAfterCompletion(() -> cache.asMap().values().removeIf(value -> value.isPresent() && filter.test(value.get())));
+	}
+
+	/**
+	 * Replace every cached entity with the result of the update. Each entry is
+	 * replaced atomically; returning the same instance leaves it untouched.
+	 * Inside a transaction the update is applied again when the transaction
+	 * completes, so it has to be idempotent.
+	 *
+	 * @param update the update
+	 */
+	public void updateAll(UnaryOperator<V> update) {
+		nowAndAfterCompletion(() -> cache.asMap().replaceAll((id, value) -> value.map(update)));
+	}
+
+	/**
+	 * Run a cache change now and, inside a transaction, once more after it
+	 * committed or rolled back.
+	 *
+	 * @param change the change
+	 */
+	private void nowAndAfterCompletion(Runnable change) {
+		change.run();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					change.run();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Gets the statistics.
+	 *
+	 * @return the statistics
+	 */
+	public CacheStatistics getStatistics() {
+		CacheStats stats = cache.stats();
+		CacheStatistics statistics = new CacheStatistics();
+		statistics.setName(name);
+		statistics.setSize(cache.estimatedSize());
+		statistics.setHitCount(stats.hitCount());
+		statistics.setMissCount(stats.missCount());
+		statistics.setEvictionCount(stats.evictionCount());
+		statistics.setHitRate(stats.hitRate());
+		return statistics;
+	}
+
+	/**
+	 * Expires entities and missing ids after their own time to live.
+	 *
+	 * @param <V> the cached entity
+	 */
+	private static final class TimeToLive<V> implements Expiry<Integer, Optional<V>> {
+
+		/** The time to live of an entity in nanoseconds. */
+		private final long ttlNanos;
+
+		/** The time to live of a missing id in nanoseconds. */
+		private final long missingTtlNanos;
+
+		/**
+		 * Instantiates a new time to live.
+		 *
+		 * @param ttlNanos        the time to live of an entity
+		 * @param missingTtlNanos the time to live of a missing id
+		 */
+		TimeToLive(long ttlNanos, long missingTtlNanos) {
+			this.ttlNanos = ttlNanos;
+			this.missingTtlNanos = missingTtlNanos;
+		}
+
+		/**
+		 * Expire after create.
+		 *
+		 * @param id              the id
+		 * @param value           the value
+		 * @param currentTime     the current time
+		 * @return the nanoseconds until the entry expires
+		 */
+		@Override
+		public long expireAfterCreate(Integer id, Optional<V> value, long currentTime) {
+			return value.isPresent() ? ttlNanos : missingTtlNanos;
+		}
+
+		/**
+		 * Expire after update.
+		 *
+		 * @param id              the id
+		 * @param value           the value
+		 * @param currentTime     the current time
+		 * @param currentDuration the current duration
+		 * @return the nanoseconds until the entry expires
+		 */
+		@Override
+		public long expireAfterUpdate(Integer id, Optional<V> value, long currentTime, long currentDuration) {
+			return value.isPresent() ? ttlNanos : missingTtlNanos;
+		}
+
+		/**
+		 * Expire after read, reads do not extend the time to live.
+		 *
+		 * @param id              the id
+		 * @param value           the value
+		 * @param currentTime     the current time
+		 * @param currentDuration the current duration
+		 * @return the nanoseconds until the entry expires
+		 */
+		@Override
+		public long expireAfterRead(Integer id, Optional<V> value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
+
+	}
+
+}
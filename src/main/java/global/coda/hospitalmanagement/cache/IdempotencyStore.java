@@ -0,0 +1,239 @@
+package global.coda.hospitalmanagement.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.SystemException;
+
+/**
+ * Deduplicates requests that carry an Idempotency-Key header. The first
+ * request with a key runs and its outcome is kept until the time to live
+ * passes; retries get that outcome without running again and duplicates that
+ * arrive while it runs wait for it. Business errors are outcomes too, system
+ * exceptions and errors are not kept so a retry runs again. A key is bound to
+ * the request body it was first used with.
+ *
+ * @author Vishal
+ *
+ */
+@Component
+public class IdempotencyStore {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(IdempotencyStore.class);
+
+	/** The object mapper, serializes request bodies. */
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/** How long an outcome is kept. */
+	@Value("${hms.idempotency.ttl-minutes:60}")
+	private long ttlMinutes;
+
+	/** The maximum number of keys kept. */
+	@Value("${hms.idempotency.maximum-size:100000}")
+	private long maximumSize;
+
+	/** The number of lock stripes. */
+	@Value("${hms.idempotency.stripes:64}")
+	private int stripes;
+
+	/** How long a duplicate waits for the first request. */
+	@Value("${hms.idempotency.wait-seconds:30}")
+	private long waitSeconds;
+
+	/** The maximum length of a key. */
+	@Value("${hms.idempotency.max-key-length:255}")
+	private int maxKeyLength;
+
+	/** The outcomes by scoped key. */
+	private Cache<String, Outcome> outcomes;
+
+	/** The locks, a key is claimed under the lock of its stripe. */
+	private Striped<Lock> locks;
+
+	/**
+	 * Creates the store.
+	 */
+	@PostConstruct
+	public void init() {
+		outcomes = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttlMinutes, TimeUnit.MINUTES).build();
+		locks = Striped.lock(stripes);
+	}
+
+	/**
+	 * Run the action once per key within a scope.
+	 *
+	 * @param <T>     the result type
+	 * @param scope   the scope, keys of different endpoints never match
+	 * @param key     the idempotency key, null to always run
+	 * @param request the request body the key is bound to
+	 * @param action  the action
+	 * @return the result of the first request with the key
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public <T> T execute(String scope, String key, Object request, Action<T> action) throws BusinessException, SystemException {
+		if (key == null) {
+			return action.run();
+		}
+		if (key.isEmpty() || key.length() > maxKeyLength) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.IDEMPOTENCY_KEY_INVALID);
+		}
+		String scopedKey = scope + ApplicationConstant.SCOPE_SEPARATOR + key;
+		String fingerprint = fingerprint(request);
+		Outcome outcome;
+		boolean first = false;
+		Lock lock = locks.get(scopedKey);
+		lock.lock();
+		try {
+			outcome = outcomes.getIfPresent(scopedKey);
+			if (outcome == null) {
+				outcome = new Outcome(fingerprint);
+				outcomes.put(scopedKey, outcome);
+				first = true;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (!outcome.fingerprint.equals(fingerprint)) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.IDEMPOTENCY_KEY_REUSED);
+		}
+		return first ? run(scopedKey, outcome, action) : await(scopedKey, outcome);
+	}
+
+	/**
+	 * Run the action of the first request and publish its outcome.
+	 *
+	 * @param <T>       the result type
+	 * @param scopedKey the scoped key
+	 * @param outcome   the outcome
+	 * @param action    the action
+	 * @return the result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private <T> T run(String scopedKey, Outcome outcome, Action<T> action) throws BusinessException, SystemException {
+		try {
+			T result = action.run();
+			outcome.result.complete(result);
+			return result;
+		} catch (BusinessException error) {
+			outcome.result.completeExceptionally(error);
+			throw error;
+		} catch (SystemException | RuntimeException | Error error) {
+			outcomes.invalidate(scopedKey);
+			outcome.result.completeExceptionally(error);
+			throw error;
+		}
+	}
+
+	/**
+	 * Wait for the outcome of the first request.
+	 *
+	 * @param <T>       the result type
+	 * @param scopedKey the scoped key
+	 * @param outcome   the outcome
+	 * @return the result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T await(String scopedKey, Outcome outcome) throws BusinessException, SystemException {
+		logger.debug("Replaying {}", scopedKey);
+		try {
+			return (T) outcome.result.get(waitSeconds, TimeUnit.SECONDS);
+		} catch (ExecutionException error) {
+			if (error.getCause() instanceof SystemException) {
+				throw (SystemException) error.getCause();
+			}
+			if (error.getCause() instanceof Error) {
+				throw (Error) error.getCause();
+			}
+			throw (RuntimeException) error.getCause();
+		} catch (TimeoutException error) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.IDEMPOTENCY_KEY_IN_PROGRESS);
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * Hash the request body a key is bound to, so bodies with passwords are not
+	 * kept.
+	 *
+	 * @param request the request body
+	 * @return the fingerprint
+	 * @throws SystemException the system exception
+	 */
+	private String fingerprint(Object request) throws SystemException {
+		try {
+			return Hashing.sha256().hashString(objectMapper.writeValueAsString(request), StandardCharsets.UTF_8).toString();
+		} catch (JsonProcessingException error) {
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * An action run once per key.
+	 *
+	 * @param <T> the result type
+	 */
+	@FunctionalInterface
+	public interface Action<T> {
+
+		/**
+		 * Run the action.
+		 *
+		 * @return the result
+		 * @throws BusinessException the business exception
+		 * @throws SystemException   the system exception
+		 */
+		T run() throws BusinessException, SystemException;
+	}
+
+	/**
+	 * The outcome of the first request with a key.
+	 */
+	private static final class Outcome {
+
+		/** The request body hash of the first request. */
+		private final String fingerprint;
+
+		/** The result, completed when the first request finished. */
+		private final CompletableFuture<Object> result = new CompletableFuture<Object>();
+
+		/**
+		 * Instantiates a new outcome.
+		 *
+		 * @param fingerprint the fingerprint
+		 */
+		private Outcome(String fingerprint) {
+			this.fingerprint = fingerprint;
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+package global.coda.hospitalmanagement.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import global.coda.hospitalmanagement.model.DoctorPatientMapping;
+import global.coda.hospitalmanagement.model.PatientRecordDetails;
+
+/**
+ * In-memory materialized view of doctor id to patient roster. A roster is
+ * loaded on its first read and then kept in step with the writes this
+ * application makes. Cached rosters are never modified, a change replaces the
+ * roster with an updated copy, so readers can serialize them without locking.
+ * Records are written outside this application, so rosters also expire after
+ * the entity cache time to live.
+ *
+ * @author Vishal
+ *
+ */
+@Component
+public class RosterView {
+
+	/** The roster cache. */
+	@Autowired
+	private EntityCache<DoctorPatientMapping> rosterCache;
+
+	/**
+	 * Get the roster of a doctor, loading it on a miss.
+	 *
+	 * @param doctorId the doctor id
+	 * @param loader   the loader, returns null when the doctor has no roster
+	 * @return the roster, or null if there is none
+	 */
+	public DoctorPatientMapping get(int doctorId, Function<Integer, DoctorPatientMapping> loader) {
+		return rosterCache.get(doctorId, loader);
+	}
+
+	/**
+	 * A patient was soft deleted. The roster query only joins active patients,
+	 * so their records stay on the roster without a patient name.
+	 *
+	 * @param patientId the patient id
+	 */
+	public void patientDeleted(int patientId) {
+		rosterCache.updateAll(roster -> withoutPatient(roster, patientId));
+	}
+
+	/**
+	 * A patient was updated. The roster shows the patient as the user row has
+	 * it, so the rosters the patient is on are loaded again on their next read.
+	 *
+	 * @param patientId the patient id
+	 */
+	public void patientUpdated(int patientId) {
+		rosterCache.invalidateIf(roster -> hasPatient(roster, patientId));
+	}
+
+	/**
+	 * A doctor was updated, the roster is loaded again on its next read.
+	 *
+	 * @param doctorId the doctor id
+	 */
+	public void doctorUpdated(int doctorId) {
+		rosterCache.invalidate(doctorId);
+	}
+
+	/**
+	 * A doctor was created, forget that the id had no roster.
+	 *
+	 * @param doctorId the doctor id
+	 */
+	public void doctorCreated(int doctorId) {
+		rosterCache.invalidate(doctorId);
+	}
+
+	/**
+	 * A doctor was soft deleted, inactive doctors have no roster.
+	 *
+	 * @param doctorId the doctor id
+	 */
+	public void doctorDeleted(int doctorId) {
+		rosterCache.invalidate(doctorId);
+	}
+
+	/**
+	 * Checks if the patient is on the roster.
+	 *
+	 * @param roster    the roster
+	 * @param patientId the patient id
+	 * @return true, if the patient is on the roster
+	 */
+	private boolean hasPatient(DoctorPatientMapping roster, int patientId) {
+		for (PatientRecordDetails patient : roster.getListOfPatients()) {
+			if (patient.getPatientId() != null && patient.getPatientId() == patientId) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Copy the roster with the records of the patient detached from them.
+	 *
+	 * @param roster    the roster
+	 * @param patientId the patient id
+	 * @return the updated roster, or the same roster if the patient is not on it
+	 */
+	private DoctorPatientMapping withoutPatient(DoctorPatientMapping roster, int patientId) {
+		boolean found = false;
+		List<PatientRecordDetails> patients = new ArrayList<PatientRecordDetails>(roster.getListOfPatients().size());
+		for (PatientRecordDetails patient : roster.getListOfPatients()) {
+			if (patient.getPatientId() != null && patient.getPatientId() == patientId) {
+				PatientRecordDetails detached = new PatientRecordDetails();
+				detached.setDisease(patient.getDisease());
+				patients.add(detached);
+				found = true;
+			} else {
+				patients.add(patient);
+			}
+		}
+		if (!found) {
+			return roster;
+		}
+		DoctorPatientMapping updated = new DoctorPatientMapping();
+		updated.setDoctorId(roster.getDoctorId());
+		updated.setDoctorName(roster.getDoctorName());
+		updated.setListOfPatients(patients);
+		return updated;
+	}
+
+}
@@ -0,0 +1,152 @@
+package global.coda.hospitalmanagement.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import global.coda.hospitalmanagement.datasource.RoutingContext;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.SystemException;
+import global.coda.hospitalmanagement.model.SingleFlightStatistics;
+
+/**
+ * Coalesces identical concurrent reads. The first call with a key runs, calls
+ * with the same key that arrive while it runs wait for it and get its result or
+ * its exception. Nothing is kept once the call finished, so unlike
+ * {@link EntityCache} a result is never older than the call it joined.
+ *
+ * Callers that have to read from the primary after a write never join a call
+ * of callers that may read from a replica.
+ *
+ * @author Vishal
+ *
+ */
+public class SingleFlight {
+
+	/** The name. */
+	private final String name;
+
+	/** Whether calls are coalesced, otherwise every call runs. */
+	private final boolean enabled;
+
+	/** The running calls by key. */
+	private final ConcurrentMap<List<Object>, CompletableFuture<Object>> flights = new ConcurrentHashMap<List<Object>, CompletableFuture<Object>>();
+
+	/** The number of calls. */
+	private final LongAdder callCount = new LongAdder();
+
+	/** The number of calls that joined a running call. */
+	private final LongAdder coalescedCount = new LongAdder();
+
+	/**
+	 * Instantiates a new single flight.
+	 *
+	 * @param name    the name
+	 * @param enabled whether calls are coalesced
+	 */
+	public SingleFlight(String name, boolean enabled) {
+		this.name = name;
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Run the call, or wait for the running call with the same key.
+	 *
+	 * @param <T>  the result type
+	 * @param call the call
+	 * @param key  the key, the method and its arguments
+	 * @return the result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T execute(Call<T> call, Object... key) throws BusinessException, SystemException {
+		callCount.increment();
+		if (!enabled) {
+			return call.run();
+		}
+		List<Object> flightKey = Arrays.asList(RoutingContext.isSticky(), Arrays.asList(key));
+		CompletableFuture<Object> flight = new CompletableFuture<Object>();
+		CompletableFuture<Object> running = flights.putIfAbsent(flightKey, flight);
+		if (running != null) {
+			coalescedCount.increment();
+			return (T) await(running);
+		}
+		try {
+			T result = call.run();
+			flight.complete(result);
+			return result;
+		} catch (SystemException | RuntimeException | Error error) {
+			flight.completeExceptionally(error);
+			throw error;
+		} finally {
+			flights.remove(flightKey, flight);
+		}
+	}
+
+	/**
+	 * Wait for a running call.
+	 *
+	 * @param running the running call
+	 * @return the result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private Object await(CompletableFuture<Object> running) throws BusinessException, SystemException {
+		try {
+			return running.get();
+		} catch (ExecutionException error) {
+			if (error.getCause() instanceof SystemException) {
+				throw (SystemException) error.getCause();
+			}
+			if (error.getCause() instanceof Error) {
+				throw (Error) error.getCause();
+			}
+			throw (RuntimeException) error.getCause();
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the statistics.
+	 *
+	 * @return the statistics
+	 */
+	public SingleFlightStatistics getStatistics() {
+		long calls = callCount.sum();
+		long coalesced = coalescedCount.sum();
+		SingleFlightStatistics statistics = new SingleFlightStatistics();
+		statistics.setName(name);
+		statistics.setCallCount(calls);
+		statistics.setExecutionCount(calls - coalesced);
+		statistics.setCoalescedCount(coalesced);
+		statistics.setInFlight(flights.size());
+		statistics.setCoalescedRate(calls == 0 ? 0 : (double) coalesced / calls);
+		return statistics;
+	}
+
+	/**
+	 * A read that can be coalesced.
+	 *
+	 * @param <T> the result type
+	 */
+	@FunctionalInterface
+	public interface Call<T> {
+
+		/**
+		 * Run the read.
+		 *
+		 * @return the result
+		 * @throws BusinessException the business exception
+		 * @throws SystemException   the system exception
+		 */
+		T run() throws BusinessException, SystemException;
+	}
+
+}
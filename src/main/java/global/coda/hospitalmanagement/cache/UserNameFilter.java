@@ -0,0 +1,113 @@
+package global.coda.hospitalmanagement.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.CacheConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.constant.NumericConstants;
+import global.coda.hospitalmanagement.exception.UserNameAlreadyExistException;
+import global.coda.hospitalmanagement.mapper.UserMapper;
+import global.coda.hospitalmanagement.model.UserDetails;
+
+/**
+ * Bloom filter of every username in t_user_details, loaded at startup and
+ * added to on every insert. A name the filter has never seen is definitely
+ * new and needs no query; only possible collisions are checked against the
+ * database. Names are lower cased because the username collation ignores case.
+ * Names written by other instances are not in the filter, the unique username
+ * index still rejects those.
+ *
+ * @author Vishal
+ *
+ */
+@Component
+public class UserNameFilter {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(UserNameFilter.class);
+
+	/** The user mapper. */
+	@Autowired
+	private UserMapper userMapper;
+
+	/** The number of usernames the filter is sized for. */
+	@Value("${hms.username-filter.expected-insertions:1000000}")
+	private long expectedInsertions;
+
+	/** The false positive probability at the expected number of usernames. */
+	@Value("${hms.username-filter.false-positive-rate:0.01}")
+	private double falsePositiveRate;
+
+	/** The filter, safe for concurrent puts and reads. */
+	private BloomFilter<CharSequence> filter;
+
+	/**
+	 * Load every username, one page at a time.
+	 */
+	@PostConstruct
+	public void load() {
+		filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, falsePositiveRate);
+		int after = NumericConstants.ZERO;
+		long count = NumericConstants.ZERO;
+		List<UserDetails> users;
+		do {
+			users = userMapper.readUserNamePage(after, CacheConstant.USER_NAME_PAGE_SIZE);
+			for (UserDetails user : users) {
+				add(user.getUsername());
+				after = user.getId();
+			}
+			count += users.size();
+		} while (users.size() == CacheConstant.USER_NAME_PAGE_SIZE);
+		logger.info("Loaded {} usernames into the username filter", count);
+	}
+
+	/**
+	 * Check that no user has the username yet.
+	 *
+	 * @param username the username
+	 * @throws UserNameAlreadyExistException if a user has the username
+	 */
+	public void checkAvailable(String username) throws UserNameAlreadyExistException {
+		if (username != null && filter.mightContain(normalize(username))
+				&& userMapper.countUserName(username) != NumericConstants.ZERO) {
+			throw new UserNameAlreadyExistException(
+					HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.NAME_EXIST);
+		}
+	}
+
+	/**
+	 * Add an inserted username.
+	 *
+	 * @param username the username
+	 */
+	public void add(String username) {
+		if (username != null) {
+			filter.put(normalize(username));
+		}
+	}
+
+	/**
+	 * Normalize a username the way the database compares them.
+	 *
+	 * @param username the username
+	 * @return the normalized username
+	 */
+	private String normalize(String username) {
+		return username.toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,83 @@
+package global.coda.hospitalmanagement.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import global.coda.hospitalmanagement.util.Bulkhead;
+
+/**
+ * The bulkheads the patient and doctor handlers run on. Point reads and writes
+ * of single entities and list, report and bulk requests get separate threads
+ * and queues, so a slow report cannot hold the threads the cheap requests
+ * need. With hms.async.enabled=false handlers run on the Tomcat thread again.
+ *
+ * @author Vishal
+ *
+ */
+@Configuration
+public class BulkheadConfiguration {
+
+	/** The decorator of bulkhead tasks, carries request state to the bulkhead threads. */
+	@Autowired(required = false)
+	private TaskDecorator taskDecorator;
+
+	/** Whether handlers run on the bulkheads. */
+	@Value("${hms.async.enabled:true}")
+	private boolean asyncEnabled;
+
+	/** The number of point threads. */
+	@Value("${hms.bulkhead.point.threads:16}")
+	private int pointThreads;
+
+	/** The number of point requests that may wait. */
+	@Value("${hms.bulkhead.point.queue-depth:256}")
+	private int pointQueueDepth;
+
+	/** The number of report threads. */
+	@Value("${hms.bulkhead.report.threads:4}")
+	private int reportThreads;
+
+	/** The number of report requests that may wait. */
+	@Value("${hms.bulkhead.report.queue-depth:16}")
+	private int reportQueueDepth;
+
+	/**
+	 * Point bulkhead, reads and writes of single entities.
+	 *
+	 * @return the bulkhead
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public Bulkhead pointBulkhead() {
+		return bulkhead("point", pointThreads, pointQueueDepth);
+	}
+
+	/**
+	 * Report bulkhead, list, export and bulk requests.
+	 *
+	 * @return the bulkhead
+	 */
+	@Bean(destroyMethod = "shutdown")
+	public Bulkhead reportBulkhead() {
+		return bulkhead("report", reportThreads, reportQueueDepth);
+	}
+
+	/**
+	 * A bulkhead of its own threads, or an inline one.
+	 *
+	 * @param name       the name
+	 * @param threads    the number of threads
+	 * @param queueDepth the number of tasks that may wait
+	 * @return the bulkhead
+	 */
+	private Bulkhead bulkhead(String name, int threads, int queueDepth) {
+		if (!asyncEnabled) {
+			return Bulkhead.inline(name);
+		}
+		Bulkhead bulkhead = Bulkhead.bounded(name, threads, queueDepth);
+		return taskDecorator == null ? bulkhead : bulkhead.withTaskDecorator(taskDecorator);
+	}
+
+}
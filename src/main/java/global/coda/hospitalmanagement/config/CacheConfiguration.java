@@ -0,0 +1,89 @@
+package global.coda.hospitalmanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import global.coda.hospitalmanagement.cache.EntityCache;
+import global.coda.hospitalmanagement.cache.SingleFlight;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.DoctorPatientMapping;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+@Configuration
+public class CacheConfiguration {
+
+	/** The maximum number of cached entities per cache. */
+	@Value("${hms.cache.entity.maximum-size:10000}")
+	private long entityMaximumSize;
+
+	/** The time to live of a cached entity in seconds. */
+	@Value("${hms.cache.entity.ttl-seconds:300}")
+	private long entityTtlSeconds;
+
+	/** The time to live of a missing id in seconds. */
+	@Value("${hms.cache.entity.missing-ttl-seconds:10}")
+	private long missingTtlSeconds;
+
+	/** Whether identical concurrent reads share one query. */
+	@Value("${hms.single-flight.enabled:true}")
+	private boolean singleFlightEnabled;
+
+	/**
+	 * Patient cache.
+	 *
+	 * @return the entity cache
+	 */
+	@Bean
+	public EntityCache<Patient> patientCache() {
+		return new EntityCache<Patient>("patient", entityMaximumSize, entityTtlSeconds, missingTtlSeconds);
+	}
+
+	/**
+	 * Doctor cache.
+	 *
+	 * @return the entity cache
+	 */
+	@Bean
+	public EntityCache<Doctor> doctorCache() {
+		return new EntityCache<Doctor>("doctor", entityMaximumSize, entityTtlSeconds, missingTtlSeconds);
+	}
+
+	/**
+	 * Roster cache, the doctor to patient rosters kept by
+	 * {@link global.coda.hospitalmanagement.cache.RosterView}.
+	 *
+	 * @return the entity cache
+	 */
+	@Bean
+	public EntityCache<DoctorPatientMapping> rosterCache() {
+		return new EntityCache<DoctorPatientMapping>("roster", entityMaximumSize, entityTtlSeconds, missingTtlSeconds);
+	}
+
+	/**
+	 * Patient reads, identical concurrent reads of patients share one query.
+	 *
+	 * @return the single flight
+	 */
+	@Bean
+	public SingleFlight patientReads() {
+		return new SingleFlight("patient", singleFlightEnabled);
+	}
+
+	/**
+	 * Doctor reads, identical concurrent reads of doctors and rosters share one
+	 * query.
+	 *
+	 * @return the single flight
+	 */
+	@Bean
+	public SingleFlight doctorReads() {
+		return new SingleFlight("doctor", singleFlightEnabled);
+	}
+
+}
@@ -0,0 +1,153 @@
+package global.coda.hospitalmanagement.config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import global.coda.hospitalmanagement.datasource.ReplicaRoutingDataSource;
+import global.coda.hospitalmanagement.datasource.ReplicaRoutingInterceptor;
+import global.coda.hospitalmanagement.datasource.ReplicaStickinessFilter;
+import global.coda.hospitalmanagement.datasource.RoutingContext;
+import global.coda.hospitalmanagement.mapper.DoctorMapper;
+import global.coda.hospitalmanagement.mapper.PatientMapper;
+
+/**
+ * Read and write splitting, on when hms.datasource.replica.urls lists the read
+ * replicas. Patient and doctor selects go to the replicas, everything else to
+ * the primary at spring.datasource.url.
+ *
+ * Connections are taken lazily, at the first statement, so a transaction reads
+ * from where its first statement was routed: read-only transactions from a
+ * replica, read-write transactions from the primary.
+ *
+ * The second level cache is off and the entity caches keep primary rows only,
+ * so a cache never hands out a replica row.
+ *
+ * @author Vishal
+ *
+ */
+@Configuration
+@ConditionalOnProperty("hms.datasource.replica.urls")
+public class DataSourceConfiguration {
+
+	/** The replica urls. */
+	@Value("${hms.datasource.replica.urls}")
+	private List<String> replicaUrls;
+
+	/** The replica username. */
+	@Value("${hms.datasource.replica.username:${spring.datasource.username:}}")
+	private String replicaUsername;
+
+	/** The replica password. */
+	@Value("${hms.datasource.replica.password:${spring.datasource.password:}}")
+	private String replicaPassword;
+
+	/** The time between replica health checks. */
+	@Value("${hms.datasource.replica.health-check-millis:5000}")
+	private long healthCheckMillis;
+
+	/** How long a health check waits for a replica. */
+	@Value("${hms.datasource.replica.validation-timeout-seconds:1}")
+	private int validationTimeoutSeconds;
+
+	/** How long a replica read waits for a connection before the primary is used. */
+	@Value("${hms.datasource.replica.connection-timeout-millis:1000}")
+	private long connectionTimeoutMillis;
+
+	/** How long a client reads from the primary after a write. */
+	@Value("${hms.datasource.replica.sticky-millis:5000}")
+	private long stickyMillis;
+
+	/** The routing data source. */
+	private ReplicaRoutingDataSource routingDataSource;
+
+	/**
+	 * Data source, routing lazily taken connections to the primary or a replica.
+	 *
+	 * @param properties the spring.datasource properties of the primary
+	 * @return the data source
+	 */
+	@Bean
+	public DataSource dataSource(DataSourceProperties properties) {
+		List<DataSource> replicas = new ArrayList<DataSource>();
+		for (String url : replicaUrls) {
+			HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class).driverClassName(properties.determineDriverClassName())
+					.url(url.trim()).username(replicaUsername).password(replicaPassword).build();
+			replica.setConnectionTimeout(connectionTimeoutMillis);
+			replicas.add(replica);
+		}
+		routingDataSource = new ReplicaRoutingDataSource(properties.initializeDataSourceBuilder().build(), replicas, validationTimeoutSeconds);
+		routingDataSource.start(healthCheckMillis);
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+
+	/**
+	 * Replica routing interceptor, picked up by MyBatis.
+	 *
+	 * @return the replica routing interceptor
+	 */
+	@Bean
+	public ReplicaRoutingInterceptor replicaRoutingInterceptor() {
+		return new ReplicaRoutingInterceptor(PatientMapper.class, DoctorMapper.class);
+	}
+
+	/**
+	 * Turns the second level cache off. It answers before a select is routed, so
+	 * it would serve clients that have to read from the primary rows read from a
+	 * lagging replica, and keep replica rows until the next write.
+	 *
+	 * @return the configuration customizer
+	 */
+	@Bean
+	public ConfigurationCustomizer replicaCacheCustomizer() {
+		return configuration -> configuration.setCacheEnabled(false);
+	}
+
+	/**
+	 * Replica stickiness filter.
+	 *
+	 * @return the replica stickiness filter
+	 */
+	@Bean
+	public ReplicaStickinessFilter replicaStickinessFilter() {
+		return new ReplicaStickinessFilter(stickyMillis);
+	}
+
+	/**
+	 * Carries the routing context of a request to the threads that run its work.
+	 *
+	 * @return the task decorator
+	 */
+	@Bean
+	public TaskDecorator routingContextDecorator() {
+		return RoutingContext::propagate;
+	}
+
+	/**
+	 * Stops the health check and closes the pools.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@PreDestroy
+	public void destroy() throws IOException {
+		if (routingDataSource != null) {
+			routingDataSource.close();
+		}
+	}
+
+}
@@ -0,0 +1,28 @@
+package global.coda.hospitalmanagement.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+@Configuration
+public class JacksonConfiguration {
+
+	/**
+	 * Lets models carrying the field filter serialize every property when a
+	 * response does not ask for a projection.
+	 *
+	 * @return the jackson 2 object mapper builder customizer
+	 */
+	@Bean
+	public Jackson2ObjectMapperBuilderCustomizer fieldFilterCustomizer() {
+		return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+	}
+
+}
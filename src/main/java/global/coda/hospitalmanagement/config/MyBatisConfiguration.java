@@ -0,0 +1,30 @@
+package global.coda.hospitalmanagement.config;
+
+import org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import global.coda.hospitalmanagement.mapper.PatientMapper;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+@Configuration
+public class MyBatisConfiguration {
+
+	/**
+	 * Registers {@link PatientMapper} before the mapper beans are created. It owns
+	 * the second level cache the other mappers refer to, and MyBatis registers the
+	 * result maps of a mapper twice when it is parsed before the cache it refers
+	 * to.
+	 *
+	 * @return the configuration customizer
+	 */
+	@Bean
+	public ConfigurationCustomizer cacheOwnerCustomizer() {
+		return configuration -> configuration.addMapper(PatientMapper.class);
+	}
+
+}
@@ -68,6 +68,26 @@ public final class ApplicationConstant {
 
 	public static final String UPDATED = "Updated successfully !!";
 
+	public static final String STATUS = "status";
+
+	public static final String MESSAGE = "message";
+
+	public static final String NDJSON = "application/x-ndjson";
+
+	public static final char NEW_LINE = '\n';
+
+	public static final String INVALID_TOKEN = "Invalid continuation token";
+
+	public static final String UNKNOWN_FIELD = "Unknown field ";
+
+	public static final String BATCH_SIZE_INVALID = "Number of ids must be between 1 and ";
+
+	public static final String IDS = "ids";
+
+	public static final int DOCTOR_ROLE_ID = 3;
+
+	public static final int PATIENT_ROLE_ID = 4;
+
 	/**
 	 * The Enum ROLE.
 	 */
@@ -85,4 +105,57 @@ public final class ApplicationConstant {
 		/** The doctor. */
 		DOCTOR
 	}
+
+	public static final String WEAK_ETAG_PREFIX = "W/\"";
+
+	public static final String QUOTE = "\"";
+
+	public static final String VERSION_SEPARATOR = "-";
+
+	public static final String BULK_SIZE_INVALID = "Number of items must be between 1 and ";
+
+	public static final String USERNAME_REQUIRED = "User Name is required";
+
+	public static final String CREATED = "Created";
+
+	public static final String PASSWORD = "password";
+
+	public static final String PATIENT = "patient";
+
+	public static final String DOCTOR = "doctor";
+
+	public static final String FILE = "file";
+
+	public static final String IMPORT_NOT_FOUND = "Import NOT FOUND!!!";
+
+	public static final String TOO_MANY_IMPORTS = "Too many imports running, try again later";
+
+	public static final String SERVICE_BUSY = "Too many requests waiting, try again later";
+
+	public static final String READ_PRIMARY_COOKIE = "HMS_READ_PRIMARY_UNTIL";
+
+	public static final String ROOT_PATH = "/";
+
+	public static final String MISSING_USERNAME_COLUMN = "The header row has no username column";
+
+	public static final String COLUMN_COUNT_INVALID = "Expected the same number of columns as the header";
+
+	public static final String PASSWORD_REQUIRED = "Password is required";
+
+	public static final String WEIGHT_INVALID = "Weight must be a number";
+
+	public static final String ID_REQUIRED = "Id is required";
+
+	public static final String ID_REPEATED = "Id is repeated in the request";
+
+	public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+	public static final String SCOPE_SEPARATOR = ":";
+
+	public static final String IDEMPOTENCY_KEY_INVALID = "Idempotency-Key must be 1 to 255 characters";
+
+	public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency-Key was already used with a different request";
+
+	public static final String IDEMPOTENCY_KEY_IN_PROGRESS = "A request with this Idempotency-Key is still in progress";
+
 }
@@ -0,0 +1,29 @@
+package global.coda.hospitalmanagement.constant;
+
+/**
+ *
+ * @author Vishal
+ */
+public final class CacheConstant {
+
+	/**
+	 * Instantiates a new cache constant.
+	 */
+	private CacheConstant() {
+	}
+
+	public static final String MAX_BYTES = "maxBytes";
+
+	public static final String ROW_BYTES = "rowBytes";
+
+	public static final String MAPPER_CACHE_MAX_BYTES = "33554432";
+
+	public static final String MAPPER_CACHE_ROW_BYTES = "1024";
+
+	public static final long DEFAULT_MAX_BYTES = 33554432L;
+
+	public static final int DEFAULT_ROW_BYTES = 1024;
+
+	public static final int USER_NAME_PAGE_SIZE = 1000;
+
+}
@@ -18,14 +18,45 @@ public final class DoctorSqlQueryConstant {
 	public static final String DOCTOR_SELECT_ALL = "select * from hms.t_user_details as user LEFT JOIN hms.t_doctor as doctor ON user.pk_user_id ="
 			+ " doctor.fk_user_id where user.is_active = 1 and user.fk_role_id = 3";
 
-	public static final String DOCTOR_SELECT_BY_ID = "select * from hms.t_user_details "
+	public static final String DOCTOR_SELECT_PAGE = "select user.pk_user_id, user.username, user.firstname, user.lastname, user.city,"
+			+ " user.state, user.phone_number, user.fk_role_id, user.created_date, user.updated_date, doctor.pk_doctor_id,"
+			+ " doctor.fk_user_id, doctor.doctor_specialization, doctor.is_active, doctor.created_time, doctor.updated_time"
+			+ " from hms.t_user_details as user LEFT JOIN hms.t_doctor as doctor ON user.pk_user_id = doctor.fk_user_id"
+			+ " where user.is_active = 1 and user.fk_role_id = 3 and user.pk_user_id > #{after}"
+			+ " order by user.pk_user_id limit #{limit}";
+
+	public static final String DOCTOR_LAST_MODIFIED = "greatest(user.updated_date, coalesce(doctor.updated_time, user.updated_date))";
+
+	public static final String DOCTOR_SELECT_BY_ID = "select *, " + DOCTOR_LAST_MODIFIED + " as last_modified"
+			+ " from hms.t_user_details "
 			+ "as user LEFT JOIN hms.t_doctor as doctor "
 			+ "ON user.pk_user_id = doctor.fk_user_id where user.is_active = 1 "
 			+ "and user.fk_role_id = 3 and user.pk_user_id=#{id}";
 
+	public static final String DOCTOR_SELECT_BY_IDS = "<script>select * from hms.t_user_details as user LEFT JOIN hms.t_doctor"
+			+ " as doctor ON user.pk_user_id = doctor.fk_user_id where user.is_active = 1 and user.fk_role_id = 3"
+			+ " and user.pk_user_id in <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach></script>";
+
+	public static final String DOCTOR_PROJECTION_FROM = " from hms.t_user_details as user LEFT JOIN hms.t_doctor as doctor"
+			+ " ON user.pk_user_id = doctor.fk_user_id where user.is_active = 1 and user.fk_role_id = 3";
+
+	public static final String DOCTOR_SELECT_VERSION = "select count(*) as total, max(" + DOCTOR_LAST_MODIFIED + ") as last_modified"
+			+ DOCTOR_PROJECTION_FROM;
+
 	public static final String DOCTOR_DELETE_BY_ID = "update t_doctor set is_active = 0 where fk_user_id = #{id} and is_active = 1";
 
+	public static final String DOCTOR_DELETE_BY_IDS = "<script>update t_doctor set is_active = 0 where is_active = 1"
+			+ " and fk_user_id in <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach></script>";
+
 	public static final String DOCTOR_UPDATE_BY_ID = "UPDATE `t_doctor` SET `doctor_specialization` "
 			+ "= #{specilization} WHERE (`fk_user_id` = #{id} and is_active = 1)";
 
+	public static final String DOCTOR_CREATE_CALL = "{call hms_create_doctor(#{username}, #{password}, #{firstName}, #{lastName}, #{city},"
+			+ " #{state}, #{phoneNumber}, #{specilization})}";
+
+	public static final String DOCTOR_UPDATE_CALL = "{call hms_update_doctor(#{id}, #{password}, #{firstName}, #{lastName}, #{city},"
+			+ " #{state}, #{phoneNumber}, #{specilization})}";
+
+	public static final String DOCTOR_DELETE_CALL = "{call hms_delete_doctor(#{id})}";
+
 }
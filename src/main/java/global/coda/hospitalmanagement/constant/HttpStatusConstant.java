@@ -24,4 +24,6 @@ public final class HttpStatusConstant {
 	public static final int BAD_REQUEST = 400;
 
 	public static final int OK_NO_CONTENT = 204;
+
+	public static final int SERVICE_UNAVAILABLE = 503;
 }
@@ -0,0 +1,31 @@
+package global.coda.hospitalmanagement.constant;
+
+/**
+ *
+ * @author Vishal
+ */
+public final class PaginationConstant {
+
+	/**
+	 * Instantiates a new pagination constant.
+	 */
+	private PaginationConstant() {
+	}
+
+	public static final String AFTER = "after";
+
+	public static final String LIMIT = "limit";
+
+	public static final String TOKEN = "token";
+
+	public static final int FIRST_CURSOR = 0;
+
+	public static final int DEFAULT_PAGE_SIZE = 50;
+
+	public static final int MAX_PAGE_SIZE = 500;
+
+	public static final String DEFAULT_AFTER = "" + FIRST_CURSOR;
+
+	public static final String DEFAULT_LIMIT = "" + DEFAULT_PAGE_SIZE;
+
+}
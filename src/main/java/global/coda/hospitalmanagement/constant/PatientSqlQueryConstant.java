@@ -21,12 +21,39 @@ public final class PatientSqlQueryConstant {
 	public static final String PATIENT_SELECT_ALL = "select * from hms.t_user_details as user LEFT JOIN hms.t_patient"
 			+ " as patient ON user.pk_user_id = patient.fk_user_id where user.is_active = 1 and user.fk_role_id = 4";
 
-	public static final String PATIENT_SELECT_BY_ID = "select * from hms.t_user_details as user LEFT JOIN hms.t_patient"
-			+ " as patient ON user.pk_user_id = patient.fk_user_id where user.pk_user_id=#{id} and user.is_active = 1 and user.fk_role_id = 4";
+	public static final String PATIENT_SELECT_PAGE = "select * from hms.t_user_details as user LEFT JOIN hms.t_patient"
+			+ " as patient ON user.pk_user_id = patient.fk_user_id where user.is_active = 1 and user.fk_role_id = 4"
+			+ " and user.pk_user_id > #{after} order by user.pk_user_id limit #{limit}";
+
+	public static final String PATIENT_LAST_MODIFIED = "greatest(user.updated_date, coalesce(patient.updated_date, user.updated_date))";
+
+	public static final String PATIENT_SELECT_BY_ID = "select *, " + PATIENT_LAST_MODIFIED + " as last_modified"
+			+ " from hms.t_user_details as user LEFT JOIN hms.t_patient as patient ON user.pk_user_id = patient.fk_user_id where user.pk_user_id=#{id} and user.is_active = 1 and user.fk_role_id = 4";
+
+	public static final String PATIENT_SELECT_BY_IDS = "<script>select * from hms.t_user_details as user LEFT JOIN hms.t_patient"
+			+ " as patient ON user.pk_user_id = patient.fk_user_id where user.is_active = 1 and user.fk_role_id = 4"
+			+ " and user.pk_user_id in <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach></script>";
+
+	public static final String PATIENT_PROJECTION_FROM = " from hms.t_user_details as user LEFT JOIN hms.t_patient"
+			+ " as patient ON user.pk_user_id = patient.fk_user_id where user.is_active = 1 and user.fk_role_id = 4";
+
+	public static final String PATIENT_SELECT_VERSION = "select count(*) as total, max(" + PATIENT_LAST_MODIFIED + ") as last_modified"
+			+ PATIENT_PROJECTION_FROM;
 
 	public static final String PATIENT_DELETE_BY_ID = "update t_patient set is_active = 0 where fk_user_id = #{id} and is_active = 1";
 
+	public static final String PATIENT_DELETE_BY_IDS = "<script>update t_patient set is_active = 0 where is_active = 1"
+			+ " and fk_user_id in <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach></script>";
+
 	public static final String PATIENT_UPDATE_BY_ID = "UPDATE `t_patient` SET `blood_group` = #{bloodGroup}, "
 			+ "`weight` = #{weight} WHERE (`fk_user_id` = #{id} and is_active = 1)";
 
+	public static final String PATIENT_CREATE_CALL = "{call hms_create_patient(#{username}, #{password}, #{firstName}, #{lastName}, #{city},"
+			+ " #{state}, #{phoneNumber}, #{bloodGroup}, #{weight})}";
+
+	public static final String PATIENT_UPDATE_CALL = "{call hms_update_patient(#{id}, #{password}, #{firstName}, #{lastName}, #{city},"
+			+ " #{state}, #{phoneNumber}, #{bloodGroup}, #{weight})}";
+
+	public static final String PATIENT_DELETE_CALL = "{call hms_delete_patient(#{id})}";
+
 }
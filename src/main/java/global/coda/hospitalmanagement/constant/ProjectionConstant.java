@@ -0,0 +1,49 @@
+package global.coda.hospitalmanagement.constant;
+
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ *
+ * @author Vishal
+ */
+public final class ProjectionConstant {
+
+	/**
+	 * Instantiates a new projection constant.
+	 */
+	private ProjectionConstant() {
+	}
+
+	public static final String FIELDS = "fields";
+
+	public static final String FIELD_FILTER = "fieldFilter";
+
+	public static final String FIELD_SEPARATOR = ",";
+
+	public static final String COLUMN_SEPARATOR = ", ";
+
+	public static final String ID_FIELD = "id";
+
+	public static final String USER_BY_ID = " and user.pk_user_id = #{id}";
+
+	public static final String USER_KEYSET = " and user.pk_user_id > #{after} order by user.pk_user_id limit #{limit}";
+
+	/** The patient fields a client may select, mapped to their columns. */
+	public static final Map<String, String> PATIENT_FIELDS = ImmutableMap.<String, String>builder()
+			.put(ID_FIELD, "user.pk_user_id").put("username", "user.username").put("firstName", "user.firstname")
+			.put("lastName", "user.lastname").put("city", "user.city").put("state", "user.state")
+			.put("phoneNumber", "user.phone_number").put("roleId", "user.fk_role_id")
+			.put("patientId", "patient.pk_patient_id").put("userId", "patient.fk_user_id")
+			.put("bloodGroup", "patient.blood_group").put("weight", "patient.weight").build();
+
+	/** The doctor fields a client may select, mapped to their columns. */
+	public static final Map<String, String> DOCTOR_FIELDS = ImmutableMap.<String, String>builder()
+			.put(ID_FIELD, "user.pk_user_id").put("username", "user.username").put("firstName", "user.firstname")
+			.put("lastName", "user.lastname").put("city", "user.city").put("state", "user.state")
+			.put("phoneNumber", "user.phone_number").put("roleId", "user.fk_role_id")
+			.put("doctorId", "doctor.pk_doctor_id").put("userId", "doctor.fk_user_id")
+			.put("specilization", "doctor.doctor_specialization").build();
+
+}
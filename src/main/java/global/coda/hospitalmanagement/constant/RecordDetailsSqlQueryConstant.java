@@ -13,19 +13,18 @@ public final class RecordDetailsSqlQueryConstant {
 
 	}
 
-	public static final String READ_ALL_RECORD = "select username as doctor_name,"
-			+ "doctor.patient_name,doctor.disease from hms.t_user_details  "
-			+ "LEFT join (select fk_doctor_id ,patient.username as patient_name ,disease"
-			+ " from t_record as record  LEFT join (select pk_user_id,"
-			+ "		user.username from  hms.t_user_details as user " + " where  user.is_active = 1 and"
-			+ "           fk_role_id = 4) as patient on patient.pk_user_id = fk_patient_id ) "
-			+ "as doctor on doctor.fk_doctor_id = pk_user_id where is_active = 1 and" + " fk_role_id = 3 ";
+	public static final String READ_ALL_RECORD = "select doctor.pk_user_id as doctor_id, doctor.username as doctor_name,"
+			+ " patient.pk_user_id as patient_id, patient.username as patient_name, record.disease from hms.t_user_details as doctor"
+			+ " LEFT JOIN hms.t_record as record ON record.fk_doctor_id = doctor.pk_user_id"
+			+ " LEFT JOIN hms.t_user_details as patient ON patient.pk_user_id = record.fk_patient_id"
+			+ " and patient.is_active = 1 and patient.fk_role_id = 4"
+			+ " where doctor.is_active = 1 and doctor.fk_role_id = 3 order by doctor.pk_user_id";
 
-	public static final String READ_RECORD_BY_DOCTOR_ID = "select username as doctor_name,doctor.patient_name,"
-			+ "doctor.disease from hms.t_user_details  LEFT join (select fk_doctor_id ,patient.username as patient_name ,disease from t_record as record  LEFT join (select pk_user_id,"
-			+ "		user.username from  hms.t_user_details as user  where  user.is_active = 1 and"
-			+ "           fk_role_id = 4) as patient on patient.pk_user_id = fk_patient_id ) "
-			+ "as doctor on doctor.fk_doctor_id = pk_user_id where is_active = 1 and"
-			+ "           fk_role_id = 3 and pk_user_id=#{id}";
+	public static final String READ_RECORD_BY_DOCTOR_ID = "select doctor.username as doctor_name,"
+			+ " patient.pk_user_id as patient_id, patient.username as patient_name, record.disease from hms.t_user_details as doctor"
+			+ " LEFT JOIN hms.t_record as record ON record.fk_doctor_id = doctor.pk_user_id"
+			+ " LEFT JOIN hms.t_user_details as patient ON patient.pk_user_id = record.fk_patient_id"
+			+ " and patient.is_active = 1 and patient.fk_role_id = 4"
+			+ " where doctor.is_active = 1 and doctor.fk_role_id = 3 and doctor.pk_user_id = #{id}";
 
 }
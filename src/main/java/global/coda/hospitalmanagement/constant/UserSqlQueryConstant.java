@@ -12,7 +12,7 @@ public final class UserSqlQueryConstant {
 	}
 
 	public static final String USER_DETAIL_INSERT = "INSERT INTO `t_user_details` (`username`, `password`, `fk_role_id`,"
-			+ " `firstname`, `lastname`, `city`, `state`,`phone_number`) VALUES (#{username}, #{password}, 4, #{firstName}, #{lastName}, #{city}, #{state},#{phoneNumber});";
+			+ " `firstname`, `lastname`, `city`, `state`,`phone_number`) VALUES (#{username}, #{password}, #{roleId}, #{firstName}, #{lastName}, #{city}, #{state},#{phoneNumber});";
 
 
 	public static final String USER_DELETE_BY_ID = "update t_user_details set is_active = 0 where pk_user_id = #{id} and is_active = 1";
@@ -20,6 +20,15 @@ public final class UserSqlQueryConstant {
 	public static final String UPDATE_BY_ID = "UPDATE `t_user_details` SET  `password` = #{password}, `firstname` = #{firstName}, `lastname` = #{lastName}, `city` =  #{city}, "
 			+ "`state` =  #{state} ,`phone_number`=#{phoneNumber} WHERE (`pk_user_id` = #{id} and `is_active` = 1)";
 
-	public static final String CHECK_USER_NAME = "select * from `hms`.`t_user_details` where username=?";
+	public static final String USER_ACTIVE_IDS = "<script>select pk_user_id from t_user_details where is_active = 1 and fk_role_id = #{roleId}"
+			+ " and pk_user_id in <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach> for update</script>";
+
+	public static final String USER_DELETE_BY_IDS = "<script>update t_user_details set is_active = 0 where is_active = 1"
+			+ " and pk_user_id in <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach></script>";
+
+	public static final String CHECK_USER_NAME = "select count(*) from `hms`.`t_user_details` where username = #{username}";
+
+	public static final String USER_NAME_PAGE = "select pk_user_id, username from `hms`.`t_user_details`"
+			+ " where pk_user_id > #{after} order by pk_user_id limit #{limit}";
 
 }
@@ -0,0 +1,101 @@
+package global.coda.hospitalmanagement.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import global.coda.hospitalmanagement.cache.EntityCache;
+import global.coda.hospitalmanagement.cache.SingleFlight;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.delegate.PatientUpdateCoalescer;
+import global.coda.hospitalmanagement.model.CacheStatistics;
+import global.coda.hospitalmanagement.model.CoalescingStatistics;
+import global.coda.hospitalmanagement.model.CustomResponseBody;
+import global.coda.hospitalmanagement.model.SingleFlightStatistics;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+@RestController
+@RequestMapping("/hms/cache")
+public class CacheController {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(CacheController.class);
+
+	/** The entity caches. */
+	@Autowired
+	private List<EntityCache<?>> entityCaches;
+
+	/** The single flights. */
+	@Autowired
+	private List<SingleFlight> singleFlights;
+
+	/** The patient update coalescer. */
+	@Autowired
+	private PatientUpdateCoalescer updateCoalescer;
+
+	/**
+	 * Read the hit, miss and eviction statistics of every cache.
+	 *
+	 * @return the custom response body
+	 */
+	@GetMapping("/stats")
+	public CustomResponseBody<List<CacheStatistics>> readStatistics() {
+		logger.traceEntry();
+		List<CacheStatistics> statistics = new ArrayList<CacheStatistics>();
+		for (EntityCache<?> entityCache : entityCaches) {
+			statistics.add(entityCache.getStatistics());
+		}
+		CustomResponseBody<List<CacheStatistics>> response = new CustomResponseBody<List<CacheStatistics>>();
+		response.setStatus(HttpStatusConstant.OK);
+		response.setMessage(statistics);
+		logger.traceExit(response);
+		return response;
+	}
+
+	/**
+	 * Read how many reads of every single flight ran and how many joined a
+	 * running read.
+	 *
+	 * @return the custom response body
+	 */
+	@GetMapping("/single-flight")
+	public CustomResponseBody<List<SingleFlightStatistics>> readSingleFlightStatistics() {
+		logger.traceEntry();
+		List<SingleFlightStatistics> statistics = new ArrayList<SingleFlightStatistics>();
+		for (SingleFlight singleFlight : singleFlights) {
+			statistics.add(singleFlight.getStatistics());
+		}
+		CustomResponseBody<List<SingleFlightStatistics>> response = new CustomResponseBody<List<SingleFlightStatistics>>();
+		response.setStatus(HttpStatusConstant.OK);
+		response.setMessage(statistics);
+		logger.traceExit(response);
+		return response;
+	}
+
+	/**
+	 * Read how many coalesced patient updates are pending, and how many flushes
+	 * failed, were retried or given up.
+	 *
+	 * @return the custom response body
+	 */
+	@GetMapping("/update-coalescing")
+	public CustomResponseBody<CoalescingStatistics> readCoalescingStatistics() {
+		logger.traceEntry();
+		CustomResponseBody<CoalescingStatistics> response = new CustomResponseBody<CoalescingStatistics>();
+		response.setStatus(HttpStatusConstant.OK);
+		response.setMessage(updateCoalescer.getStatistics());
+		logger.traceExit(response);
+		return response;
+	}
+
+}
@@ -1,27 +1,45 @@
 package global.coda.hospitalmanagement.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import global.coda.hospitalmanagement.cache.IdempotencyStore;
 import global.coda.hospitalmanagement.constant.ApplicationConstant;
 import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.constant.PaginationConstant;
+import global.coda.hospitalmanagement.constant.ProjectionConstant;
+import global.coda.hospitalmanagement.delegate.BatchWriteDelegate;
 import global.coda.hospitalmanagement.delegate.DoctorOperationDelegate;
-import global.coda.hospitalmanagement.exception.BusinessException;
-import global.coda.hospitalmanagement.exception.SystemException;
+import global.coda.hospitalmanagement.model.BatchResult;
+import global.coda.hospitalmanagement.model.CollectionVersion;
 import global.coda.hospitalmanagement.model.CustomResponseBody;
 import global.coda.hospitalmanagement.model.Doctor;
 import global.coda.hospitalmanagement.model.DoctorPatientMapping;
+import global.coda.hospitalmanagement.model.ItemResult;
+import global.coda.hospitalmanagement.model.PagedResponse;
+import global.coda.hospitalmanagement.util.Bulkhead;
+import global.coda.hospitalmanagement.util.EntityTag;
+import global.coda.hospitalmanagement.util.FieldProjection;
 
 /**
  *
@@ -35,44 +53,170 @@ public class DoctorController {
 	/** The logger. */
 	private final Logger logger = LogManager.getLogger(DoctorController.class);
 
+	/** The idempotency store. */
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	/** The batch write delegate. */
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
 	/** The doctor operation delegate. */
 	@Autowired
 	private DoctorOperationDelegate doctorOperationDelegate;
 
+	/** The bulkhead of reads and writes of single entities. */
+	@Autowired
+	@Qualifier("pointBulkhead")
+	private Bulkhead pointBulkhead;
+
+	/** The bulkhead of list, export and bulk requests. */
+	@Autowired
+	@Qualifier("reportBulkhead")
+	private Bulkhead reportBulkhead;
+
 	/**
 	 * Read all doctor.
 	 *
+	 * @param fields the comma separated fields to return
+	 * @param request the request, for its conditional headers
+	 * @return the custom response body
+	 */
+	@GetMapping(value = "/read", params = { "!" + ApplicationConstant.IDS, "!" + PaginationConstant.TOKEN, "!" + PaginationConstant.LIMIT })
+	public CompletableFuture<MappingJacksonValue> readAllDoctor(
+			@RequestParam(value = ProjectionConstant.FIELDS, required = false) String fields, WebRequest request) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(fields);
+			FieldProjection projection = FieldProjection.parse(fields, ProjectionConstant.DOCTOR_FIELDS);
+			CollectionVersion version = doctorOperationDelegate.readDoctorVersion();
+			if (EntityTag.notModified(request, version.getTotal(), version.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<List<Doctor>> response = new CustomResponseBody<List<Doctor>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(doctorOperationDelegate.readAllDoctor(projection));
+			logger.traceExit(response);
+			return FieldProjection.serialize(response, projection);
+		});
+	}
+
+	/**
+	 * Read one page of doctors.
+	 *
+	 * @param token the continuation token of the previous page
+	 * @param limit the page size
+	 * @param fields the comma separated fields to return
+	 * @param request the request, for its conditional headers
 	 * @return the custom response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException the system exception
 	 */
 	@GetMapping("/read")
-	public CustomResponseBody<List<Doctor>> readAllDoctor() throws BusinessException, SystemException {
-		logger.traceEntry();
-		CustomResponseBody<List<Doctor>> response = new CustomResponseBody<List<Doctor>>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(doctorOperationDelegate.readAllDoctor());
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<MappingJacksonValue> readDoctorPage(
+			@RequestParam(value = PaginationConstant.TOKEN, required = false) String token,
+			@RequestParam(value = PaginationConstant.LIMIT, defaultValue = PaginationConstant.DEFAULT_LIMIT) int limit,
+			@RequestParam(value = ProjectionConstant.FIELDS, required = false) String fields, WebRequest request) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(token, limit, fields);
+			FieldProjection projection = FieldProjection.parse(fields, ProjectionConstant.DOCTOR_FIELDS);
+			CollectionVersion version = doctorOperationDelegate.readDoctorVersion();
+			if (EntityTag.notModified(request, version.getTotal(), version.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<PagedResponse<Doctor>> response = new CustomResponseBody<PagedResponse<Doctor>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(doctorOperationDelegate.readDoctorPage(token, limit, projection));
+			logger.traceExit(response);
+			return FieldProjection.serialize(response, projection);
+		});
+	}
+
+	/**
+	 * Read many doctors by id in one round trip.
+	 *
+	 * @param ids the ids
+	 * @param request the request, for its conditional headers
+	 * @return the custom response body
+	 */
+	@GetMapping(value = "/read", params = ApplicationConstant.IDS)
+	public CompletableFuture<CustomResponseBody<BatchResult<Doctor>>> readDoctorByIds(@RequestParam(ApplicationConstant.IDS) List<Integer> ids,
+			WebRequest request) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(ids);
+			CollectionVersion version = doctorOperationDelegate.readDoctorVersion();
+			if (EntityTag.notModified(request, version.getTotal(), version.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<BatchResult<Doctor>> response = new CustomResponseBody<BatchResult<Doctor>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(doctorOperationDelegate.readDoctorByIds(ids));
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 	/**
 	 * Read patient by id.
 	 *
 	 * @param id the id
+	 * @param fields the comma separated fields to return
+	 * @param request the request, for its conditional headers
 	 * @return the response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException   the system exception
 	 */
 	@GetMapping("/read/{id}")
-	public CustomResponseBody<Doctor> readDoctorById(@PathVariable("id") int id)
-			throws BusinessException, SystemException {
-		logger.entry(id);
-		CustomResponseBody<Doctor> response = new CustomResponseBody<Doctor>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(doctorOperationDelegate.readDoctorById(id));
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<MappingJacksonValue> readDoctorById(@PathVariable("id") int id,
+			@RequestParam(value = ProjectionConstant.FIELDS, required = false) String fields, WebRequest request) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(id, fields);
+			FieldProjection projection = FieldProjection.parse(fields, ProjectionConstant.DOCTOR_FIELDS);
+			Doctor doctor = doctorOperationDelegate.readDoctorById(id);
+			if (EntityTag.notModified(request, id, doctor.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<Doctor> response = new CustomResponseBody<Doctor>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(doctor);
+			logger.traceExit(response);
+			return FieldProjection.serialize(response, projection);
+		});
+	}
+
+	/**
+	 * Delete doctors.
+	 *
+	 * @param ids the doctor ids
+	 * @return the result of every id, in request order
+	 */
+	@DeleteMapping("/delete/bulk")
+	public CompletableFuture<CustomResponseBody<List<ItemResult>>> deleteDoctors(@RequestBody List<Integer> ids) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(ids.size());
+			CustomResponseBody<List<ItemResult>> response = new CustomResponseBody<List<ItemResult>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(batchWriteDelegate.deleteDoctors(ids));
+			logger.traceExit(response.getStatus());
+			return response;
+		});
+	}
+
+	/**
+	 * Update doctors.
+	 *
+	 * @param doctors the doctors
+	 * @return the result of every doctor, in request order
+	 */
+	@PutMapping("/update/bulk")
+	public CompletableFuture<CustomResponseBody<List<ItemResult>>> updateDoctors(@RequestBody List<Doctor> doctors) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(doctors.size());
+			CustomResponseBody<List<ItemResult>> response = new CustomResponseBody<List<ItemResult>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(batchWriteDelegate.updateDoctors(doctors));
+			logger.traceExit(response.getStatus());
+			return response;
+		});
 	}
 
 	/**
@@ -80,19 +224,18 @@ public class DoctorController {
 	 *
 	 * @param doctor the doctor
 	 * @return the custom response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException the system exception
 	 */
 	@DeleteMapping("/delete")
-	public CustomResponseBody<String> deletePatient(@RequestBody Doctor doctor)
-			throws BusinessException, SystemException {
-		logger.entry(doctor);
-		doctorOperationDelegate.deleteDoctor(doctor);
-		CustomResponseBody<String> response = new CustomResponseBody<String>();
-		response.setStatus(HttpStatusConstant.OK_NO_CONTENT);
-		response.setMessage(ApplicationConstant.USER_DELETED);
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<CustomResponseBody<String>> deletePatient(@RequestBody Doctor doctor) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(doctor);
+			doctorOperationDelegate.deleteDoctor(doctor);
+			CustomResponseBody<String> response = new CustomResponseBody<String>();
+			response.setStatus(HttpStatusConstant.OK_NO_CONTENT);
+			response.setMessage(ApplicationConstant.USER_DELETED);
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 	/**
@@ -100,39 +243,43 @@ public class DoctorController {
 	 *
 	 * @param doctor the doctor
 	 * @return the custom response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException the system exception
 	 */
 	@PutMapping("/update")
-	public CustomResponseBody<String> updateDoctor(@RequestBody Doctor doctor)
-			throws BusinessException, SystemException {
-		logger.entry(doctor);
-		doctorOperationDelegate.updateDoctor(doctor);
-		CustomResponseBody<String> response = new CustomResponseBody<String>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(ApplicationConstant.UPDATED);
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<CustomResponseBody<String>> updateDoctor(@RequestBody Doctor doctor) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(doctor);
+			doctorOperationDelegate.updateDoctor(doctor);
+			CustomResponseBody<String> response = new CustomResponseBody<String>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(ApplicationConstant.UPDATED);
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 	/**
-	 * Creates the doctor.
+	 * Creates the doctor. A retry with the same Idempotency-Key gets the response of
+	 * the first request.
 	 *
 	 * @param doctor the doctor
+	 * @param idempotencyKey the idempotency key, optional
 	 * @return the custom response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException the system exception
 	 */
 	@PostMapping("/create")
-	public CustomResponseBody<Doctor> createDoctor(@RequestBody Doctor doctor)
-			throws BusinessException, SystemException {
-		logger.entry(doctor);
-		doctorOperationDelegate.addDoctor(doctor);
-		CustomResponseBody<Doctor> response = new CustomResponseBody<Doctor>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(doctor);
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<CustomResponseBody<Doctor>> createDoctor(@RequestBody Doctor doctor,
+			@RequestHeader(value = ApplicationConstant.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(doctor, idempotencyKey);
+			CustomResponseBody<Doctor> response = idempotencyStore.execute(ApplicationConstant.DOCTOR, idempotencyKey, doctor, () -> {
+				doctorOperationDelegate.addDoctor(doctor);
+				CustomResponseBody<Doctor> created = new CustomResponseBody<Doctor>();
+				created.setStatus(HttpStatusConstant.OK);
+				created.setMessage(doctor);
+				return created;
+			});
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 	/**
@@ -140,35 +287,35 @@ public class DoctorController {
 	 *
 	 * @param id the id
 	 * @return the custom response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException the system exception
 	 */
 	@GetMapping("/{param}/patient")
-	public CustomResponseBody<DoctorPatientMapping> readRecordById(@PathVariable("param") int id)
-			throws BusinessException, SystemException {
-		logger.entry(id);
-		CustomResponseBody<DoctorPatientMapping> response = new CustomResponseBody<DoctorPatientMapping>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(doctorOperationDelegate.readRecordById(id));
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<CustomResponseBody<DoctorPatientMapping>> readRecordById(@PathVariable("param") int id) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(id);
+			CustomResponseBody<DoctorPatientMapping> response = new CustomResponseBody<DoctorPatientMapping>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(doctorOperationDelegate.readRecordById(id));
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 	/**
-	 * Read all record.
+	 * Read all record, streamed roster by roster.
 	 *
-	 * @return the custom response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException the system exception
+	 * @param response the servlet response
+	 * @return completes when the response is written
 	 */
-	@GetMapping("/getallpatients")
-	public CustomResponseBody<List<DoctorPatientMapping>> readAllRecord() throws BusinessException, SystemException {
-		logger.traceEntry();
-		CustomResponseBody<List<DoctorPatientMapping>> response = new CustomResponseBody<List<DoctorPatientMapping>>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(doctorOperationDelegate.readAllRecord());
-		logger.traceExit(response);
-		return response;
+	@GetMapping(value = "/getallpatients", produces = MediaType.APPLICATION_JSON_VALUE)
+	public CompletableFuture<Void> readAllRecord(HttpServletResponse response) {
+		return reportBulkhead.submit(() -> {
+			logger.traceEntry();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			int count = doctorOperationDelegate.writeAllRecord(response.getOutputStream());
+			logger.traceExit(count);
+			return null;
+		});
 	}
 
 }
@@ -0,0 +1,95 @@
+package global.coda.hospitalmanagement.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.delegate.ImportDelegate;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.SystemException;
+import global.coda.hospitalmanagement.model.CustomResponseBody;
+import global.coda.hospitalmanagement.model.ImportJob;
+
+/**
+ * Starts CSV imports and reports their progress. The file needs a header row,
+ * columns are matched by name.
+ *
+ * @author Vishal
+ *
+ */
+@RestController
+@RequestMapping("/hms/import")
+public class ImportController {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(ImportController.class);
+
+	/** The import delegate. */
+	@Autowired
+	private ImportDelegate importDelegate;
+
+	/**
+	 * Import patients.
+	 *
+	 * @param file the CSV file
+	 * @return the started job
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	@PostMapping("/patient")
+	public CustomResponseBody<ImportJob> importPatients(@RequestParam(ApplicationConstant.FILE) MultipartFile file)
+			throws BusinessException, SystemException {
+		logger.entry(file.getOriginalFilename());
+		CustomResponseBody<ImportJob> response = new CustomResponseBody<ImportJob>();
+		response.setStatus(HttpStatusConstant.OK);
+		response.setMessage(importDelegate.importPatients(file));
+		logger.traceExit(response.getStatus());
+		return response;
+	}
+
+	/**
+	 * Import doctors.
+	 *
+	 * @param file the CSV file
+	 * @return the started job
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	@PostMapping("/doctor")
+	public CustomResponseBody<ImportJob> importDoctors(@RequestParam(ApplicationConstant.FILE) MultipartFile file)
+			throws BusinessException, SystemException {
+		logger.entry(file.getOriginalFilename());
+		CustomResponseBody<ImportJob> response = new CustomResponseBody<ImportJob>();
+		response.setStatus(HttpStatusConstant.OK);
+		response.setMessage(importDelegate.importDoctors(file));
+		logger.traceExit(response.getStatus());
+		return response;
+	}
+
+	/**
+	 * Read the progress of an import.
+	 *
+	 * @param jobId the job id
+	 * @return the job
+	 * @throws BusinessException the business exception
+	 */
+	@GetMapping("/{jobId}")
+	public CustomResponseBody<ImportJob> readImport(@PathVariable String jobId) throws BusinessException {
+		logger.entry(jobId);
+		CustomResponseBody<ImportJob> response = new CustomResponseBody<ImportJob>();
+		response.setStatus(HttpStatusConstant.OK);
+		response.setMessage(importDelegate.readJob(jobId));
+		logger.traceExit(response.getStatus());
+		return response;
+	}
+
+}
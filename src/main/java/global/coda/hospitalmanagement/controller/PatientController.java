@@ -1,26 +1,46 @@
 package global.coda.hospitalmanagement.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import global.coda.hospitalmanagement.cache.IdempotencyStore;
 import global.coda.hospitalmanagement.constant.ApplicationConstant;
 import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.constant.PaginationConstant;
+import global.coda.hospitalmanagement.constant.ProjectionConstant;
+import global.coda.hospitalmanagement.delegate.BatchWriteDelegate;
 import global.coda.hospitalmanagement.delegate.PatientOperationDelegate;
-import global.coda.hospitalmanagement.exception.BusinessException;
 import global.coda.hospitalmanagement.exception.SystemException;
+import global.coda.hospitalmanagement.model.BatchResult;
+import global.coda.hospitalmanagement.model.CollectionVersion;
 import global.coda.hospitalmanagement.model.CustomResponseBody;
+import global.coda.hospitalmanagement.model.ItemResult;
+import global.coda.hospitalmanagement.model.PagedResponse;
 import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.util.Bulkhead;
+import global.coda.hospitalmanagement.util.EntityTag;
+import global.coda.hospitalmanagement.util.FieldProjection;
 
 /**
  *
@@ -38,60 +58,249 @@ public class PatientController {
 	@Autowired
 	private PatientOperationDelegate patientOperationDelegate;
 
+	/** The idempotency store. */
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	/** The batch write delegate. */
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
+	/** The bulkhead of reads and writes of single entities. */
+	@Autowired
+	@Qualifier("pointBulkhead")
+	private Bulkhead pointBulkhead;
+
+	/** The bulkhead of list, export and bulk requests. */
+	@Autowired
+	@Qualifier("reportBulkhead")
+	private Bulkhead reportBulkhead;
+
+	/** How long an export may run. */
+	@Value("${hms.async.export-timeout-millis:3600000}")
+	private long exportTimeoutMillis;
+
 	/**
 	 * Read all patient.
 	 *
+	 * @param fields the comma separated fields to return
+	 * @param request the request, for its conditional headers
+	 * @return the response body
+	 */
+	@GetMapping(value = "/read", params = { "!" + ApplicationConstant.IDS, "!" + PaginationConstant.AFTER, "!" + PaginationConstant.LIMIT })
+	public CompletableFuture<MappingJacksonValue> readAllPatient(
+			@RequestParam(value = ProjectionConstant.FIELDS, required = false) String fields, WebRequest request) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(fields);
+			FieldProjection projection = FieldProjection.parse(fields, ProjectionConstant.PATIENT_FIELDS);
+			CollectionVersion version = patientOperationDelegate.readPatientVersion();
+			if (EntityTag.notModified(request, version.getTotal(), version.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<List<Patient>> response = new CustomResponseBody<List<Patient>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(patientOperationDelegate.readAllPatient(projection));
+			logger.traceExit(response);
+			return FieldProjection.serialize(response, projection);
+		});
+	}
+
+	/**
+	 * Read one page of patients, ordered by id.
+	 *
+	 * @param after the next cursor of the previous page
+	 * @param limit the page size
+	 * @param fields the comma separated fields to return
+	 * @param request the request, for its conditional headers
 	 * @return the response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException   the system exception
 	 */
 	@GetMapping("/read")
-	public CustomResponseBody<List<Patient>> readAllPatient() throws BusinessException, SystemException {
-		logger.traceEntry();
-		CustomResponseBody<List<Patient>> response = new CustomResponseBody<List<Patient>>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(patientOperationDelegate.readAllPatient());
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<MappingJacksonValue> readPatientPage(
+			@RequestParam(value = PaginationConstant.AFTER, defaultValue = PaginationConstant.DEFAULT_AFTER) int after,
+			@RequestParam(value = PaginationConstant.LIMIT, defaultValue = PaginationConstant.DEFAULT_LIMIT) int limit,
+			@RequestParam(value = ProjectionConstant.FIELDS, required = false) String fields, WebRequest request) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(after, limit, fields);
+			FieldProjection projection = FieldProjection.parse(fields, ProjectionConstant.PATIENT_FIELDS);
+			CollectionVersion version = patientOperationDelegate.readPatientVersion();
+			if (EntityTag.notModified(request, version.getTotal(), version.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<PagedResponse<Patient>> response = new CustomResponseBody<PagedResponse<Patient>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(patientOperationDelegate.readPatientPage(after, limit, projection));
+			logger.traceExit(response);
+			return FieldProjection.serialize(response, projection);
+		});
+	}
+
+	/**
+	 * Export every patient as newline delimited JSON, streamed straight to the
+	 * client. An export may run longer than the asynchronous request timeout of
+	 * the other handlers, up to hms.async.export-timeout-millis.
+	 *
+	 * @param response the servlet response
+	 * @return completes when the response is written
+	 */
+	@GetMapping("/export")
+	public DeferredResult<Void> exportPatient(HttpServletResponse response) {
+		DeferredResult<Void> result = new DeferredResult<Void>(exportTimeoutMillis);
+		reportBulkhead.<Void>submit(() -> {
+			logger.traceEntry();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setContentType(ApplicationConstant.NDJSON);
+			try {
+				int count = patientOperationDelegate.exportPatients(response.getOutputStream());
+				logger.traceExit(count);
+			} catch (SystemException error) {
+				if (!response.isCommitted()) {
+					response.reset();
+				}
+				throw error;
+			}
+			return null;
+		}).whenComplete((value, error) -> {
+			if (error == null) {
+				result.setResult(value);
+			} else {
+				result.setErrorResult(error);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Read many patients by id in one round trip.
+	 *
+	 * @param ids the ids
+	 * @param request the request, for its conditional headers
+	 * @return the custom response body
+	 */
+	@GetMapping(value = "/read", params = ApplicationConstant.IDS)
+	public CompletableFuture<CustomResponseBody<BatchResult<Patient>>> readPatientByIds(@RequestParam(ApplicationConstant.IDS) List<Integer> ids,
+			WebRequest request) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(ids);
+			CollectionVersion version = patientOperationDelegate.readPatientVersion();
+			if (EntityTag.notModified(request, version.getTotal(), version.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<BatchResult<Patient>> response = new CustomResponseBody<BatchResult<Patient>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(patientOperationDelegate.readPatientByIds(ids));
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 	/**
 	 * Read patient by id.
 	 *
 	 * @param id the id
+	 * @param fields the comma separated fields to return
+	 * @param request the request, for its conditional headers
 	 * @return the response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException   the system exception
 	 */
 	@GetMapping("/read/{id}")
-	public CustomResponseBody<Patient> readPatientById(@PathVariable("id") int id)
-			throws BusinessException, SystemException {
-		logger.entry(id);
-		CustomResponseBody<Patient> response = new CustomResponseBody<Patient>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(patientOperationDelegate.readPatientById(id));
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<MappingJacksonValue> readPatientById(@PathVariable("id") int id,
+			@RequestParam(value = ProjectionConstant.FIELDS, required = false) String fields, WebRequest request) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(id, fields);
+			FieldProjection projection = FieldProjection.parse(fields, ProjectionConstant.PATIENT_FIELDS);
+			Patient patient = patientOperationDelegate.readPatientById(id);
+			if (EntityTag.notModified(request, id, patient.getLastModified())) {
+				logger.traceExit();
+				return null;
+			}
+			CustomResponseBody<Patient> response = new CustomResponseBody<Patient>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(patient);
+			logger.traceExit(response);
+			return FieldProjection.serialize(response, projection);
+		});
 	}
 
 	/**
-	 * Creates the patient.
+	 * Creates the patient. A retry with the same Idempotency-Key gets the response of
+	 * the first request.
 	 *
 	 * @param patient the patient
+	 * @param idempotencyKey the idempotency key, optional
 	 * @return the response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException   the system exception
 	 */
 	@PostMapping("/create")
-	public CustomResponseBody<Patient> createPatient(@RequestBody Patient patient)
-			throws BusinessException, SystemException {
-		logger.entry(patient);
-		patientOperationDelegate.addPatient(patient);
-		CustomResponseBody<Patient> response = new CustomResponseBody<Patient>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(patient);
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<CustomResponseBody<Patient>> createPatient(@RequestBody Patient patient,
+			@RequestHeader(value = ApplicationConstant.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(patient, idempotencyKey);
+			CustomResponseBody<Patient> response = idempotencyStore.execute(ApplicationConstant.PATIENT, idempotencyKey, patient, () -> {
+				patientOperationDelegate.addPatient(patient);
+				CustomResponseBody<Patient> created = new CustomResponseBody<Patient>();
+				created.setStatus(HttpStatusConstant.OK);
+				created.setMessage(patient);
+				return created;
+			});
+			logger.traceExit(response);
+			return response;
+		});
+	}
+
+	/**
+	 * Creates many patients at once. Each patient gets its own result, a rejected
+	 * or failed patient does not stop the others.
+	 *
+	 * @param patients the patients
+	 * @return the result of every patient, in request order
+	 */
+	@PostMapping("/create/bulk")
+	public CompletableFuture<CustomResponseBody<List<ItemResult>>> createPatients(@RequestBody List<Patient> patients) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(patients.size());
+			CustomResponseBody<List<ItemResult>> response = new CustomResponseBody<List<ItemResult>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(batchWriteDelegate.createPatients(patients));
+			logger.traceExit(response.getStatus());
+			return response;
+		});
+	}
+
+	/**
+	 * Delete patients.
+	 *
+	 * @param ids the patient ids
+	 * @return the result of every id, in request order
+	 */
+	@DeleteMapping("/delete/bulk")
+	public CompletableFuture<CustomResponseBody<List<ItemResult>>> deletePatients(@RequestBody List<Integer> ids) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(ids.size());
+			CustomResponseBody<List<ItemResult>> response = new CustomResponseBody<List<ItemResult>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(batchWriteDelegate.deletePatients(ids));
+			logger.traceExit(response.getStatus());
+			return response;
+		});
+	}
+
+	/**
+	 * Update patients.
+	 *
+	 * @param patients the patients
+	 * @return the result of every patient, in request order
+	 */
+	@PutMapping("/update/bulk")
+	public CompletableFuture<CustomResponseBody<List<ItemResult>>> updatePatients(@RequestBody List<Patient> patients) {
+		return reportBulkhead.submit(() -> {
+			logger.entry(patients.size());
+			CustomResponseBody<List<ItemResult>> response = new CustomResponseBody<List<ItemResult>>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(batchWriteDelegate.updatePatients(patients));
+			logger.traceExit(response.getStatus());
+			return response;
+		});
 	}
 
 	/**
@@ -99,19 +308,18 @@ public class PatientController {
 	 *
 	 * @param patient the patient
 	 * @return the response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException   the system exception
 	 */
 	@DeleteMapping("/delete")
-	public CustomResponseBody<String> deletePatient(@RequestBody Patient patient)
-			throws BusinessException, SystemException {
-		logger.entry(patient);
-		patientOperationDelegate.deletePatient(patient);
-		CustomResponseBody<String> response = new CustomResponseBody<String>();
-		response.setStatus(HttpStatusConstant.OK_NO_CONTENT);
-		response.setMessage(ApplicationConstant.USER_DELETED);
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<CustomResponseBody<String>> deletePatient(@RequestBody Patient patient) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(patient);
+			patientOperationDelegate.deletePatient(patient);
+			CustomResponseBody<String> response = new CustomResponseBody<String>();
+			response.setStatus(HttpStatusConstant.OK_NO_CONTENT);
+			response.setMessage(ApplicationConstant.USER_DELETED);
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 	/**
@@ -119,19 +327,18 @@ public class PatientController {
 	 *
 	 * @param patient the patient
 	 * @return the response body
-	 * @throws BusinessException the business exception
-	 * @throws SystemException   the system exception
 	 */
 	@PutMapping("/update")
-	public CustomResponseBody<String> updatePatient(@RequestBody Patient patient)
-			throws BusinessException, SystemException {
-		logger.entry(patient);
-		patientOperationDelegate.updatePatient(patient);
-		CustomResponseBody<String> response = new CustomResponseBody<String>();
-		response.setStatus(HttpStatusConstant.OK);
-		response.setMessage(ApplicationConstant.UPDATED);
-		logger.traceExit(response);
-		return response;
+	public CompletableFuture<CustomResponseBody<String>> updatePatient(@RequestBody Patient patient) {
+		return pointBulkhead.submit(() -> {
+			logger.entry(patient);
+			patientOperationDelegate.updatePatient(patient);
+			CustomResponseBody<String> response = new CustomResponseBody<String>();
+			response.setStatus(HttpStatusConstant.OK);
+			response.setMessage(ApplicationConstant.UPDATED);
+			logger.traceExit(response);
+			return response;
+		});
 	}
 
 }
@@ -0,0 +1,221 @@
+package global.coda.hospitalmanagement.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Hands out primary connections, or replica connections for statements that
+ * {@link RoutingContext#onReplica} marks as replica reads. Replicas take turns
+ * and a health check takes a replica out of turn while it does not answer;
+ * with no healthy replica, reads go to the primary.
+ *
+ * @author Vishal
+ *
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(ReplicaRoutingDataSource.class);
+
+	/** The primary. */
+	private final DataSource primary;
+
+	/** The replicas. */
+	private final List<Replica> replicas = new ArrayList<Replica>();
+
+	/** The turn of the next replica read. */
+	private final AtomicInteger turn = new AtomicInteger();
+
+	/** How long a health check waits for a replica. */
+	private final int validationTimeoutSeconds;
+
+	/** The health check thread. */
+	private ScheduledExecutorService healthChecker;
+
+	/**
+	 * Instantiates a new replica routing data source.
+	 *
+	 * @param primary                  the primary
+	 * @param replicas                 the replicas
+	 * @param validationTimeoutSeconds how long a health check waits for a replica
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, int validationTimeoutSeconds) {
+		this.primary = primary;
+		for (int index = 0; index < replicas.size(); index++) {
+			this.replicas.add(new Replica("replica-" + index, replicas.get(index)));
+		}
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+	}
+
+	/**
+	 * Check the replicas now and then every interval.
+	 *
+	 * @param intervalMillis the interval
+	 */
+	public void start(long intervalMillis) {
+		checkHealth();
+		healthChecker = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("replica-health-check").setDaemon(true).build());
+		healthChecker.scheduleWithFixedDelay(this::checkHealth, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Check every replica answers.
+	 */
+	public void checkHealth() {
+		for (Replica replica : replicas) {
+			boolean healthy;
+			try (Connection connection = replica.dataSource.getConnection()) {
+				healthy = connection.isValid(validationTimeoutSeconds);
+			} catch (SQLException error) {
+				healthy = false;
+			}
+			replica.setHealthy(healthy);
+		}
+	}
+
+	/**
+	 * Gets the number of healthy replicas.
+	 *
+	 * @return the number of healthy replicas
+	 */
+	public int getHealthyReplicas() {
+		int healthy = 0;
+		for (Replica replica : replicas) {
+			if (replica.healthy) {
+				healthy++;
+			}
+		}
+		return healthy;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		Replica replica = RoutingContext.isReplicaRead() ? nextReplica() : null;
+		if (replica != null) {
+			try {
+				return replica.dataSource.getConnection();
+			} catch (SQLException error) {
+				replica.setHealthy(false);
+			}
+		}
+		return primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		Replica replica = RoutingContext.isReplicaRead() ? nextReplica() : null;
+		if (replica != null) {
+			try {
+				return replica.dataSource.getConnection(username, password);
+			} catch (SQLException error) {
+				replica.setHealthy(false);
+			}
+		}
+		return primary.getConnection(username, password);
+	}
+
+	/**
+	 * Stops the health check and closes the pools.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (healthChecker != null) {
+			healthChecker.shutdownNow();
+		}
+		for (Replica replica : replicas) {
+			close(replica.dataSource);
+		}
+		close(primary);
+	}
+
+	/**
+	 * The next healthy replica in turn.
+	 *
+	 * @return the replica, null if none is healthy
+	 */
+	private Replica nextReplica() {
+		int size = replicas.size();
+		int start = Math.floorMod(turn.getAndIncrement(), Math.max(size, 1));
+		for (int offset = 0; offset < size; offset++) {
+			Replica replica = replicas.get((start + offset) % size);
+			if (replica.healthy) {
+				return replica;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Close a pool.
+	 *
+	 * @param dataSource the data source
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void close(DataSource dataSource) throws IOException {
+		if (dataSource instanceof Closeable) {
+			((Closeable) dataSource).close();
+		}
+	}
+
+	/**
+	 * A replica and whether it answered its last health check.
+	 */
+	private final class Replica {
+
+		/** The name. */
+		private final String name;
+
+		/** The data source. */
+		private final DataSource dataSource;
+
+		/** Whether the replica is healthy. */
+		private volatile boolean healthy = true;
+
+		/**
+		 * Instantiates a new replica.
+		 *
+		 * @param name       the name
+		 * @param dataSource the data source
+		 */
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		/**
+		 * Sets the healthy, logging changes.
+		 *
+		 * @param healthy the new healthy
+		 */
+		private void setHealthy(boolean healthy) {
+			if (this.healthy != healthy) {
+				this.healthy = healthy;
+				if (healthy) {
+					logger.info("{} is healthy again, reads go to it", name);
+				} else {
+					logger.warn("{} is unhealthy, its reads go to the other replicas or the primary", name);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package global.coda.hospitalmanagement.datasource;
+
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes the selects of the given mappers to the replicas. A select stays on
+ * the primary inside a read-write transaction and when the client wrote
+ * recently. Every write, including the routines called with a select, marks
+ * the request as having written.
+ *
+ * @author Vishal
+ *
+ */
+@Intercepts({
+		@Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+		@Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+				CacheKey.class, BoundSql.class }),
+		@Signature(type = Executor.class, method = "queryCursor", args = { MappedStatement.class, Object.class, RowBounds.class }),
+		@Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }) })
+public class ReplicaRoutingInterceptor implements Interceptor {
+
+	/** The namespaces whose selects may read from a replica. */
+	private final Set<String> replicaNamespaces = new HashSet<String>();
+
+	/**
+	 * Instantiates a new replica routing interceptor.
+	 *
+	 * @param mappers the mappers whose selects may read from a replica
+	 */
+	public ReplicaRoutingInterceptor(Class<?>... mappers) {
+		for (Class<?> mapper : mappers) {
+			replicaNamespaces.add(mapper.getName());
+		}
+	}
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+		if (isWrite(statement)) {
+			RoutingContext.wrote();
+			return invocation.proceed();
+		}
+		if (!replicaNamespaces.contains(statement.getId().substring(0, statement.getId().lastIndexOf('.'))) || RoutingContext.isSticky()
+				|| (TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+			return invocation.proceed();
+		}
+		return RoutingContext.onReplica(invocation::proceed);
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		return Plugin.wrap(target, this);
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+		// configured through the constructor
+	}
+
+	/**
+	 * Checks if a statement writes.
+	 *
+	 * @param statement the statement
+	 * @return true, if it writes
+	 */
+	private static boolean isWrite(MappedStatement statement) {
+		return statement.getSqlCommandType() != SqlCommandType.SELECT || statement.getStatementType() == StatementType.CALLABLE
+				|| statement.isFlushCacheRequired();
+	}
+
+}
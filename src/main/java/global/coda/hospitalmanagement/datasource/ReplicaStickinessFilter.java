@@ -0,0 +1,66 @@
+package global.coda.hospitalmanagement.datasource;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+
+/**
+ * Binds the {@link RoutingContext} of a request. A client that carries an
+ * unexpired read-primary cookie wrote recently and reads from the primary.
+ *
+ * @author Vishal
+ *
+ */
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+	/** How long a client stays on the primary after a write. */
+	private final long stickyMillis;
+
+	/**
+	 * Instantiates a new replica stickiness filter.
+	 *
+	 * @param stickyMillis how long a client stays on the primary after a write
+	 */
+	public ReplicaStickinessFilter(long stickyMillis) {
+		this.stickyMillis = stickyMillis;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		RoutingContext.bind(new RoutingContext(response, wroteRecently(request), stickyMillis));
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			RoutingContext.bind(null);
+		}
+	}
+
+	/**
+	 * Checks if the client wrote recently.
+	 *
+	 * @param request the request
+	 * @return true, if the read-primary cookie has not expired
+	 */
+	private boolean wroteRecently(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, ApplicationConstant.READ_PRIMARY_COOKIE);
+		if (cookie == null) {
+			return false;
+		}
+		try {
+			return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+		} catch (NumberFormatException error) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,179 @@
+package global.coda.hospitalmanagement.datasource;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+
+/**
+ * Where the statements of the current request may read from. A request whose
+ * client wrote recently reads from the primary, so it sees its own writes; the
+ * first write of a request sets a cookie that keeps the client on the primary
+ * for a while, until the replicas have caught up.
+ *
+ * The context of a request is bound to the thread handling it and carried to
+ * the bulkhead threads by {@link #propagate(Runnable)}.
+ *
+ * @author Vishal
+ *
+ */
+public final class RoutingContext {
+
+	/** The context of the current request. */
+	private static final ThreadLocal<RoutingContext> CURRENT = new ThreadLocal<RoutingContext>();
+
+	/** Whether the statement running on this thread may read from a replica. */
+	private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<Boolean>();
+
+	/** The number of statements this thread ran that may read from a replica. */
+	private static final ThreadLocal<long[]> REPLICA_READS = ThreadLocal.withInitial(() -> new long[1]);
+
+	/** The response, for the cookie. */
+	private final HttpServletResponse response;
+
+	/** How long a client stays on the primary after a write. */
+	private final long stickyMillis;
+
+	/** Whether the request reads from the primary. */
+	private volatile boolean sticky;
+
+	/** Whether the cookie was set. */
+	private final AtomicBoolean cookieSet = new AtomicBoolean();
+
+	/**
+	 * Instantiates a new routing context.
+	 *
+	 * @param response     the response
+	 * @param sticky       whether the client wrote recently
+	 * @param stickyMillis how long a client stays on the primary after a write
+	 */
+	public RoutingContext(HttpServletResponse response, boolean sticky, long stickyMillis) {
+		this.response = response;
+		this.sticky = sticky;
+		this.stickyMillis = stickyMillis;
+	}
+
+	/**
+	 * Gets the context of the current request.
+	 *
+	 * @return the context, null outside a request
+	 */
+	public static RoutingContext current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Bind a context to this thread.
+	 *
+	 * @param context the context, null to unbind
+	 */
+	public static void bind(RoutingContext context) {
+		if (context == null) {
+			CURRENT.remove();
+		} else {
+			CURRENT.set(context);
+		}
+	}
+
+	/**
+	 * Carry the context of this thread to the thread that runs the task.
+	 *
+	 * @param task the task
+	 * @return the task, running with this thread's context
+	 */
+	public static Runnable propagate(Runnable task) {
+		RoutingContext context = current();
+		return () -> {
+			RoutingContext previous = current();
+			bind(context);
+			try {
+				task.run();
+			} finally {
+				bind(previous);
+			}
+		};
+	}
+
+	/**
+	 * Checks if the current request must read from the primary.
+	 *
+	 * @return true, if sticky
+	 */
+	public static boolean isSticky() {
+		RoutingContext context = current();
+		return context != null && context.sticky;
+	}
+
+	/**
+	 * Record a write of the current request.
+	 */
+	public static void wrote() {
+		RoutingContext context = current();
+		if (context != null) {
+			context.sticky = true;
+			context.setCookie();
+		}
+	}
+
+	/**
+	 * Run a statement that may read from a replica.
+	 *
+	 * @param <T>       the result type
+	 * @param statement the statement
+	 * @return the result
+	 * @throws Exception the exception
+	 */
+	public static <T> T onReplica(Callable<T> statement) throws Exception {
+		Boolean previous = REPLICA_READ.get();
+		REPLICA_READ.set(Boolean.TRUE);
+		REPLICA_READS.get()[0]++;
+		try {
+			return statement.call();
+		} finally {
+			if (previous == null) {
+				REPLICA_READ.remove();
+			} else {
+				REPLICA_READ.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Checks if the statement running on this thread may read from a replica.
+	 *
+	 * @return true, if a replica read
+	 */
+	public static boolean isReplicaRead() {
+		return REPLICA_READ.get() != null;
+	}
+
+	/**
+	 * Gets the number of statements this thread ran that may read from a replica.
+	 * Compare the numbers before and after a load to tell whether it may hold
+	 * replica rows.
+	 *
+	 * @return the number of replica reads
+	 */
+	public static long getReplicaReads() {
+		return REPLICA_READS.get()[0];
+	}
+
+	/**
+	 * Keep the client on the primary until the stickiness expires.
+	 */
+	private void setCookie() {
+		if (response == null || response.isCommitted() || !cookieSet.compareAndSet(false, true)) {
+			return;
+		}
+		Cookie cookie = new Cookie(ApplicationConstant.READ_PRIMARY_COOKIE, String.valueOf(System.currentTimeMillis() + stickyMillis));
+		cookie.setMaxAge((int) TimeUnit.MILLISECONDS.toSeconds(stickyMillis + TimeUnit.SECONDS.toMillis(1) - 1));
+		cookie.setPath(ApplicationConstant.ROOT_PATH);
+		cookie.setHttpOnly(true);
+		response.addCookie(cookie);
+	}
+
+}
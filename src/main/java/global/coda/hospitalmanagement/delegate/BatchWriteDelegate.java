@@ -0,0 +1,509 @@
+package global.coda.hospitalmanagement.delegate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.collect.Lists;
+
+import global.coda.hospitalmanagement.cache.EntityCache;
+import global.coda.hospitalmanagement.cache.RosterView;
+import global.coda.hospitalmanagement.cache.UserNameFilter;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.UserNameAlreadyExistException;
+import global.coda.hospitalmanagement.mapper.DoctorMapper;
+import global.coda.hospitalmanagement.mapper.PatientMapper;
+import global.coda.hospitalmanagement.mapper.UserMapper;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.ItemResult;
+import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.model.UserDetails;
+
+/**
+ * Bulk writes through a MyBatis batch executor. Inserts and updates of a chunk
+ * are sent as JDBC batches, the generated user ids are read back once per
+ * chunk when the batch is flushed, and every chunk commits in its own
+ * transaction. Deletes of a chunk are two set-based updates. When a chunk fails
+ * it is rolled back and its items are retried one by one, so a single bad item
+ * only fails itself.
+ *
+ * @author Vishal
+ *
+ */
+@Service
+public class BatchWriteDelegate {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(BatchWriteDelegate.class);
+
+	/** The sql session factory. */
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+
+	/** The transaction manager. */
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** The user mapper. */
+	@Autowired
+	private UserMapper userMapper;
+
+	/** The patient mapper. */
+	@Autowired
+	private PatientMapper patientMapper;
+
+	/** The doctor mapper. */
+	@Autowired
+	private DoctorMapper doctorMapper;
+
+	/** The username filter. */
+	@Autowired
+	private UserNameFilter userNameFilter;
+
+	/** The patient cache. */
+	@Autowired
+	private EntityCache<Patient> patientCache;
+
+	/** The doctor cache. */
+	@Autowired
+	private EntityCache<Doctor> doctorCache;
+
+	/** The roster view. */
+	@Autowired
+	private RosterView rosterView;
+
+	/** The patient update coalescer, drops the pending updates of deleted patients. */
+	@Autowired
+	private PatientUpdateCoalescer updateCoalescer;
+
+	/** The number of items committed together. */
+	@Value("${hms.bulk.chunk-size:1000}")
+	private int chunkSize;
+
+	/** The maximum number of items of one request. */
+	@Value("${hms.bulk.max-items:10000}")
+	private int maxItems;
+
+	/** The batch session, joins the transaction of the current thread. */
+	private SqlSessionTemplate batchSession;
+
+	/** The transaction template. */
+	private TransactionTemplate transactionTemplate;
+
+	/**
+	 * Creates the batch session and the transaction template.
+	 */
+	@PostConstruct
+	public void init() {
+		batchSession = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Creates the patients.
+	 *
+	 * @param patients the patients
+	 * @return the result of every patient, in request order
+	 * @throws BusinessException the business exception
+	 */
+	public List<ItemResult> createPatients(List<Patient> patients) throws BusinessException {
+		logger.entry(patients.size());
+		List<ItemResult> results = createUsers(patients, ApplicationConstant.PATIENT_ROLE_ID, patientCache, (session, chunk) -> {
+			PatientMapper patientMapper = session.getMapper(PatientMapper.class);
+			for (Patient patient : chunk) {
+				patientMapper.createPatient(patient);
+			}
+		});
+		logger.traceExit(results.size());
+		return results;
+	}
+
+	/**
+	 * Creates the doctors.
+	 *
+	 * @param doctors the doctors
+	 * @return the result of every doctor, in request order
+	 * @throws BusinessException the business exception
+	 */
+	public List<ItemResult> createDoctors(List<Doctor> doctors) throws BusinessException {
+		logger.entry(doctors.size());
+		List<ItemResult> results = createUsers(doctors, ApplicationConstant.DOCTOR_ROLE_ID, doctorCache, (session, chunk) -> {
+			DoctorMapper doctorMapper = session.getMapper(DoctorMapper.class);
+			for (Doctor doctor : chunk) {
+				doctorMapper.createDoctor(doctor);
+			}
+		});
+		for (ItemResult result : results) {
+			if (result.getId() != null) {
+				rosterView.doctorCreated(result.getId());
+			}
+		}
+		logger.traceExit(results.size());
+		return results;
+	}
+
+	/**
+	 * Delete the patients.
+	 *
+	 * @param ids the patient ids
+	 * @return the result of every id, in request order
+	 * @throws BusinessException the business exception
+	 */
+	public List<ItemResult> deletePatients(List<Integer> ids) throws BusinessException {
+		logger.entry(ids.size());
+		List<ItemResult> results = modifyUsers(ids, Integer::intValue,
+				chunk -> deleteActive(chunk, ApplicationConstant.PATIENT_ROLE_ID, patientMapper::deletePatientsByIds),
+				ApplicationConstant.USER_DELETED, ApplicationConstant.PATIENT_NOT_FOUND, id -> {
+					updateCoalescer.discard(id);
+					rosterView.patientDeleted(id);
+					patientCache.invalidate(id);
+				});
+		logger.traceExit(results.size());
+		return results;
+	}
+
+	/**
+	 * Delete the doctors.
+	 *
+	 * @param ids the doctor ids
+	 * @return the result of every id, in request order
+	 * @throws BusinessException the business exception
+	 */
+	public List<ItemResult> deleteDoctors(List<Integer> ids) throws BusinessException {
+		logger.entry(ids.size());
+		List<ItemResult> results = modifyUsers(ids, Integer::intValue,
+				chunk -> deleteActive(chunk, ApplicationConstant.DOCTOR_ROLE_ID, doctorMapper::deleteDoctorsByIds),
+				ApplicationConstant.USER_DELETED, ApplicationConstant.DOCTOR_NOT_FOUND, id -> {
+					rosterView.doctorDeleted(id);
+					doctorCache.invalidate(id);
+				});
+		logger.traceExit(results.size());
+		return results;
+	}
+
+	/**
+	 * Update the patients.
+	 *
+	 * @param patients the patients
+	 * @return the result of every patient, in request order
+	 * @throws BusinessException the business exception
+	 */
+	public List<ItemResult> updatePatients(List<Patient> patients) throws BusinessException {
+		logger.entry(patients.size());
+		List<ItemResult> results = modifyUsers(patients, Patient::getId,
+				chunk -> updateActive(chunk, ApplicationConstant.PATIENT_ROLE_ID,
+						(session, patient) -> session.getMapper(PatientMapper.class).updatePatient(patient)),
+				ApplicationConstant.UPDATED, ApplicationConstant.PATIENT_NOT_FOUND, id -> {
+					patientCache.invalidate(id);
+					rosterView.patientUpdated(id);
+				});
+		logger.traceExit(results.size());
+		return results;
+	}
+
+	/**
+	 * Update the doctors.
+	 *
+	 * @param doctors the doctors
+	 * @return the result of every doctor, in request order
+	 * @throws BusinessException the business exception
+	 */
+	public List<ItemResult> updateDoctors(List<Doctor> doctors) throws BusinessException {
+		logger.entry(doctors.size());
+		List<ItemResult> results = modifyUsers(doctors, Doctor::getId,
+				chunk -> updateActive(chunk, ApplicationConstant.DOCTOR_ROLE_ID,
+						(session, doctor) -> session.getMapper(DoctorMapper.class).updateDoctor(doctor)),
+				ApplicationConstant.UPDATED, ApplicationConstant.DOCTOR_NOT_FOUND, id -> {
+					doctorCache.invalidate(id);
+					rosterView.doctorUpdated(id);
+				});
+		logger.traceExit(results.size());
+		return results;
+	}
+
+	/**
+	 * Check the number of items of a request.
+	 *
+	 * @param items the items
+	 * @throws BusinessException the business exception
+	 */
+	private void checkSize(List<?> items) throws BusinessException {
+		if (items.isEmpty() || items.size() > maxItems) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
+					+ ApplicationConstant.BULK_SIZE_INVALID + maxItems);
+		}
+	}
+
+	/**
+	 * Apply a write to existing users chunk by chunk, each chunk in one
+	 * transaction. The write returns the ids it found active, the other ids are
+	 * reported as not found.
+	 *
+	 * @param <T>      the item type
+	 * @param items    the items
+	 * @param idOf     the user id of an item
+	 * @param write    writes a chunk and returns the ids found
+	 * @param done     the message of a written item
+	 * @param notFound the message of a missing user
+	 * @param modified called with every written id after its commit
+	 * @return the result of every item, in request order
+	 * @throws BusinessException the business exception
+	 */
+	private <T> List<ItemResult> modifyUsers(List<T> items, ToIntFunction<T> idOf, Function<List<T>, Set<Integer>> write,
+			String done, String notFound, IntConsumer modified) throws BusinessException {
+		checkSize(items);
+		ItemResult[] results = new ItemResult[items.size()];
+		List<Integer> accepted = new ArrayList<Integer>(items.size());
+		Set<Integer> ids = new HashSet<Integer>(items.size());
+		for (int index = 0; index < items.size(); index++) {
+			T item = items.get(index);
+			if (item == null || idOf.applyAsInt(item) <= 0) {
+				results[index] = rejected(index, ApplicationConstant.ID_REQUIRED);
+			} else if (!ids.add(idOf.applyAsInt(item))) {
+				results[index] = rejected(index, ApplicationConstant.ID_REPEATED);
+			} else {
+				accepted.add(index);
+			}
+		}
+		for (List<Integer> chunk : Lists.partition(accepted, chunkSize)) {
+			List<T> chunkItems = new ArrayList<T>(chunk.size());
+			for (int index : chunk) {
+				chunkItems.add(items.get(index));
+			}
+			try {
+				Set<Integer> found = transactionTemplate.execute(status -> write.apply(chunkItems));
+				for (int index : chunk) {
+					results[index] = outcome(index, idOf.applyAsInt(items.get(index)), found, done, notFound, modified);
+				}
+			} catch (RuntimeException error) {
+				logger.warn("Bulk chunk of {} items failed, retrying one by one: {}", chunk.size(), error.getMessage());
+				for (int index : chunk) {
+					T item = items.get(index);
+					try {
+						Set<Integer> found = transactionTemplate.execute(status -> write.apply(Collections.singletonList(item)));
+						results[index] = outcome(index, idOf.applyAsInt(item), found, done, notFound, modified);
+					} catch (RuntimeException itemError) {
+						logger.error(itemError.getMessage());
+						results[index] = new ItemResult(index, null, HttpStatusConstant.INTERNAL_SERVER_ERROR, ApplicationConstant.SERVER_ERROR);
+					}
+				}
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Soft delete the active users of a role among the ids and their profiles.
+	 * The users are locked first, so the ids returned are the ids deleted.
+	 *
+	 * @param ids           the ids
+	 * @param roleId        the role of the users
+	 * @param profileDelete deletes the profile rows
+	 * @return the ids deleted
+	 */
+	private Set<Integer> deleteActive(List<Integer> ids, int roleId, Consumer<List<Integer>> profileDelete) {
+		List<Integer> active = userMapper.readActiveUserIds(roleId, ids);
+		if (!active.isEmpty()) {
+			userMapper.deleteUsersByIds(active);
+			profileDelete.accept(active);
+		}
+		return new HashSet<Integer>(active);
+	}
+
+	/**
+	 * Update the active users of a role among the users and their profiles, as
+	 * one JDBC batch. The users are locked first, so the ids returned are the ids
+	 * updated.
+	 *
+	 * @param <T>           the user type
+	 * @param users         the users
+	 * @param roleId        the role of the users
+	 * @param profileUpdate updates the profile row of a user
+	 * @return the ids updated
+	 */
+	private <T extends UserDetails> Set<Integer> updateActive(List<T> users, int roleId, BiConsumer<SqlSession, T> profileUpdate) {
+		List<Integer> ids = new ArrayList<Integer>(users.size());
+		for (T user : users) {
+			ids.add(user.getId());
+		}
+		UserMapper batchUserMapper = batchSession.getMapper(UserMapper.class);
+		Set<Integer> active = new HashSet<Integer>(batchUserMapper.readActiveUserIds(roleId, ids));
+		for (T user : users) {
+			if (active.contains(user.getId())) {
+				batchUserMapper.updateUser(user);
+				profileUpdate.accept(batchSession, user);
+			}
+		}
+		batchSession.flushStatements();
+		return active;
+	}
+
+	/**
+	 * Record the outcome of a modified item.
+	 *
+	 * @param index    the index
+	 * @param id       the user id
+	 * @param found    the ids found
+	 * @param done     the message of a written item
+	 * @param notFound the message of a missing user
+	 * @param modified called with the id when it was written
+	 * @return the item result
+	 */
+	private ItemResult outcome(int index, int id, Set<Integer> found, String done, String notFound, IntConsumer modified) {
+		if (!found.contains(id)) {
+			return new ItemResult(index, id, HttpStatusConstant.FILE_NOT_FOUND, notFound);
+		}
+		modified.accept(id);
+		return new ItemResult(index, id, HttpStatusConstant.OK, done);
+	}
+
+	/**
+	 * Validate the users and insert the valid ones chunk by chunk.
+	 *
+	 * @param <T>           the user type
+	 * @param users         the users
+	 * @param roleId        the role of the users
+	 * @param cache         the cache of the users, new ids are invalidated
+	 * @param profileInsert inserts the profile rows of a chunk whose users have ids
+	 * @return the result of every user, in request order
+	 * @throws BusinessException the business exception
+	 */
+	private <T extends UserDetails> List<ItemResult> createUsers(List<T> users, int roleId, EntityCache<T> cache,
+			BiConsumer<SqlSession, List<T>> profileInsert) throws BusinessException {
+		checkSize(users);
+		ItemResult[] results = new ItemResult[users.size()];
+		List<Integer> accepted = new ArrayList<Integer>(users.size());
+		Set<String> usernames = new HashSet<String>(users.size());
+		for (int index = 0; index < users.size(); index++) {
+			T user = users.get(index);
+			if (user == null || user.getUsername() == null || user.getUsername().trim().isEmpty()) {
+				results[index] = rejected(index, ApplicationConstant.USERNAME_REQUIRED);
+			} else if (!usernames.add(user.getUsername().toLowerCase(Locale.ROOT))) {
+				results[index] = rejected(index, ApplicationConstant.NAME_EXIST);
+			} else {
+				try {
+					userNameFilter.checkAvailable(user.getUsername());
+					user.setRoleId(roleId);
+					accepted.add(index);
+				} catch (UserNameAlreadyExistException error) {
+					results[index] = rejected(index, ApplicationConstant.NAME_EXIST);
+				}
+			}
+		}
+		for (List<Integer> chunk : Lists.partition(accepted, chunkSize)) {
+			List<T> chunkUsers = new ArrayList<T>(chunk.size());
+			for (int index : chunk) {
+				chunkUsers.add(users.get(index));
+			}
+			try {
+				transactionTemplate.execute(status -> insertUsers(chunkUsers, profileInsert));
+				for (int index : chunk) {
+					results[index] = created(index, users.get(index), cache);
+				}
+			} catch (RuntimeException error) {
+				logger.warn("Bulk chunk of {} users failed, retrying one by one: {}", chunk.size(), error.getMessage());
+				for (int index : chunk) {
+					results[index] = createUser(index, users.get(index), cache, profileInsert);
+				}
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Create one user in its own transaction.
+	 *
+	 * @param <T>           the user type
+	 * @param index         the index
+	 * @param user          the user
+	 * @param cache         the cache of the users
+	 * @param profileInsert inserts the profile row
+	 * @return the item result
+	 */
+	private <T extends UserDetails> ItemResult createUser(int index, T user, EntityCache<T> cache,
+			BiConsumer<SqlSession, List<T>> profileInsert) {
+		try {
+			transactionTemplate.execute(status -> insertUsers(Collections.singletonList(user), profileInsert));
+			return created(index, user, cache);
+		} catch (DuplicateKeyException error) {
+			return rejected(index, ApplicationConstant.NAME_EXIST);
+		} catch (RuntimeException error) {
+			logger.error(error.getMessage());
+			return new ItemResult(index, null, HttpStatusConstant.INTERNAL_SERVER_ERROR, ApplicationConstant.SERVER_ERROR);
+		}
+	}
+
+	/**
+	 * Insert the users and then their profiles, each as one JDBC batch. Flushing
+	 * the user batch sets the generated ids the profile rows refer to.
+	 *
+	 * @param <T>           the user type
+	 * @param users         the users
+	 * @param profileInsert inserts the profile rows
+	 * @return nothing
+	 */
+	private <T extends UserDetails> Void insertUsers(List<T> users, BiConsumer<SqlSession, List<T>> profileInsert) {
+		UserMapper userMapper = batchSession.getMapper(UserMapper.class);
+		for (T user : users) {
+			userMapper.createUser(user);
+		}
+		batchSession.flushStatements();
+		profileInsert.accept(batchSession, users);
+		batchSession.flushStatements();
+		return null;
+	}
+
+	/**
+	 * Record a created user.
+	 *
+	 * @param <T>   the user type
+	 * @param index the index
+	 * @param user  the user
+	 * @param cache the cache of the users
+	 * @return the item result
+	 */
+	private <T extends UserDetails> ItemResult created(int index, T user, EntityCache<T> cache) {
+		userNameFilter.add(user.getUsername());
+		cache.invalidate(user.getId());
+		return new ItemResult(index, user.getId(), HttpStatusConstant.OK, ApplicationConstant.CREATED);
+	}
+
+	/**
+	 * Record a rejected item.
+	 *
+	 * @param index   the index
+	 * @param message the message
+	 * @return the item result
+	 */
+	private ItemResult rejected(int index, String message) {
+		return new ItemResult(index, null, HttpStatusConstant.BAD_REQUEST,
+				HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + message);
+	}
+
+}
@@ -1,29 +1,54 @@
 package global.coda.hospitalmanagement.delegate;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.cursor.Cursor;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import global.coda.hospitalmanagement.cache.EntityCache;
+import global.coda.hospitalmanagement.cache.RosterView;
+import global.coda.hospitalmanagement.cache.SingleFlight;
+import global.coda.hospitalmanagement.cache.UserNameFilter;
 import global.coda.hospitalmanagement.constant.ApplicationConstant;
 import global.coda.hospitalmanagement.constant.HttpStatusConstant;
 import global.coda.hospitalmanagement.constant.NumericConstants;
+import global.coda.hospitalmanagement.constant.PaginationConstant;
 import global.coda.hospitalmanagement.exception.BusinessException;
 import global.coda.hospitalmanagement.exception.DoctorNotFoundException;
+import global.coda.hospitalmanagement.exception.NotFoundException;
 import global.coda.hospitalmanagement.exception.RecordNotFoundException;
 import global.coda.hospitalmanagement.exception.SystemException;
 import global.coda.hospitalmanagement.exception.UserNameAlreadyExistException;
 import global.coda.hospitalmanagement.mapper.DoctorMapper;
 import global.coda.hospitalmanagement.mapper.UserMapper;
+import global.coda.hospitalmanagement.model.BatchResult;
+import global.coda.hospitalmanagement.model.CollectionVersion;
 import global.coda.hospitalmanagement.model.Doctor;
 import global.coda.hospitalmanagement.model.DoctorPatientMapping;
+import global.coda.hospitalmanagement.model.PagedResponse;
 import global.coda.hospitalmanagement.model.PatientRecordDetails;
 import global.coda.hospitalmanagement.model.RecordData;
+import global.coda.hospitalmanagement.util.ContinuationToken;
+import global.coda.hospitalmanagement.util.FieldProjection;
 
 /**
  *
@@ -33,28 +58,88 @@ import global.coda.hospitalmanagement.model.RecordData;
 @Service
 public class DoctorOperationDelegate {
 
+	/** The key of reading all doctors. */
+	private static final String READ_ALL = "all";
+
+	/** The key of reading a page of doctors. */
+	private static final String READ_PAGE = "page";
+
+	/** The key of reading doctors by ids. */
+	private static final String READ_BY_IDS = "ids";
+
+	/** The key of reading a doctor by id. */
+	private static final String READ_BY_ID = "id";
+
+	/** The key of reading the doctor version. */
+	private static final String READ_VERSION = "version";
+
+	/** The key of reading the roster of a doctor. */
+	private static final String READ_RECORD = "record";
+
 	/** The doctor mapper. */
 	@Autowired
 	private DoctorMapper doctorMapper;
 
+	/** The doctor cache. */
+	@Autowired
+	private EntityCache<Doctor> doctorCache;
+
+	/** The doctor reads, identical concurrent reads share one query. */
+	@Autowired
+	private SingleFlight doctorReads;
+
+	/** The roster view. */
+	@Autowired
+	private RosterView rosterView;
+
+	/** The username filter. */
+	@Autowired
+	private UserNameFilter userNameFilter;
+
+	/** Whether composite writes call the database routines. */
+	@Value("${hms.write.routines:false}")
+	private boolean writeRoutines;
+
 	/** The user mapper. */
 	@Autowired
 	private UserMapper userMapper;
 
+	/** The object mapper. */
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/** The maximum number of ids in one batch read. */
+	@Value("${hms.read.max-batch-size:100}")
+	private int maxBatchSize;
+
 	/** The logger. */
 	private final Logger logger = LogManager.getLogger(DoctorOperationDelegate.class);
 
 	/**
 	 * Read all doctor.
 	 *
+	 * @param projection the field projection, null for every field
+	 * @return the list
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public List<Doctor> readAllDoctor(FieldProjection projection) throws BusinessException, SystemException {
+		return doctorReads.execute(() -> loadAllDoctor(projection), READ_ALL, projection);
+	}
+
+	/**
+	 * Read all doctor.
+	 *
+	 * @param projection the field projection, null for every field
 	 * @return the list
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
-	public List<Doctor> readAllDoctor() throws BusinessException, SystemException {
+	private List<Doctor> loadAllDoctor(FieldProjection projection) throws BusinessException, SystemException {
 		try {
 			logger.traceEntry();
-			List<Doctor> doctor = doctorMapper.readAllDoctor();
+			List<Doctor> doctor = projection == null ? doctorMapper.readAllDoctor()
+					: doctorMapper.readDoctorProjection(projection.getColumns(), null, null, null);
 			if (doctor.size() == NumericConstants.ZERO) {
 				throw new DoctorNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
 						+ ApplicationConstant.DOCTOR_NOT_FOUND);
@@ -68,6 +153,144 @@ public class DoctorOperationDelegate {
 		}
 	}
 
+	/**
+	 * Read one page of doctors. The page size is capped on the server and the
+	 * position is carried between calls by an opaque continuation token.
+	 *
+	 * @param token the continuation token of the previous page
+	 * @param limit the requested page size
+	 * @param projection the field projection, null for every field
+	 * @return the paged response
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public PagedResponse<Doctor> readDoctorPage(String token, int limit, FieldProjection projection)
+			throws BusinessException, SystemException {
+		return doctorReads.execute(() -> loadDoctorPage(token, limit, projection), READ_PAGE, token, limit, projection);
+	}
+
+	/**
+	 * Read one page of doctors. The page size is capped on the server and the
+	 * position is carried between calls by an opaque continuation token.
+	 *
+	 * @param token the continuation token of the previous page
+	 * @param limit the requested page size
+	 * @param projection the field projection, null for every field
+	 * @return the paged response
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private PagedResponse<Doctor> loadDoctorPage(String token, int limit, FieldProjection projection)
+			throws BusinessException, SystemException {
+		logger.entry(token, limit, projection);
+		int after = ContinuationToken.decode(token);
+		try {
+			int pageSize = limit;
+			if (pageSize < NumericConstants.ONE) {
+				pageSize = PaginationConstant.DEFAULT_PAGE_SIZE;
+			} else if (pageSize > PaginationConstant.MAX_PAGE_SIZE) {
+				pageSize = PaginationConstant.MAX_PAGE_SIZE;
+			}
+			List<Doctor> doctors = projection == null ? doctorMapper.readDoctorPage(after, pageSize + NumericConstants.ONE)
+					: doctorMapper.readDoctorProjection(projection.getColumns(), null, after,
+							pageSize + NumericConstants.ONE);
+			PagedResponse<Doctor> page = new PagedResponse<Doctor>();
+			if (doctors.size() > pageSize) {
+				doctors = doctors.subList(NumericConstants.ZERO, pageSize);
+				page.setNextCursor(ContinuationToken.encode(doctors.get(pageSize - NumericConstants.ONE).getId()));
+			}
+			page.setItems(doctors);
+			page.setLimit(pageSize);
+			logger.traceExit(page);
+			return page;
+		} catch (Exception error) {
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * Read many doctors by id in one query. Ids that do not resolve to an active
+	 * doctor are reported back instead of failing the whole batch.
+	 *
+	 * @param ids the ids
+	 * @return the batch result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public BatchResult<Doctor> readDoctorByIds(List<Integer> ids) throws BusinessException, SystemException {
+		return doctorReads.execute(() -> loadDoctorByIds(ids), READ_BY_IDS, ids);
+	}
+
+	/**
+	 * Read many doctors by id in one query. Ids that do not resolve to an active
+	 * doctor are reported back instead of failing the whole batch.
+	 *
+	 * @param ids the ids
+	 * @return the batch result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private BatchResult<Doctor> loadDoctorByIds(List<Integer> ids) throws BusinessException, SystemException {
+		logger.entry(ids);
+		Set<Integer> uniqueIds = new LinkedHashSet<Integer>(ids);
+		if (uniqueIds.isEmpty() || uniqueIds.size() > maxBatchSize) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
+					+ ApplicationConstant.BATCH_SIZE_INVALID + maxBatchSize);
+		}
+		try {
+			Map<Integer, Doctor> rows = new LinkedHashMap<Integer, Doctor>();
+			for (Doctor doctor : doctorMapper.readDoctorByIds(uniqueIds)) {
+				rows.put(doctor.getId(), doctor);
+			}
+			Map<Integer, Doctor> items = new LinkedHashMap<Integer, Doctor>();
+			List<Integer> missingIds = new ArrayList<Integer>();
+			for (Integer id : uniqueIds) {
+				Doctor doctor = rows.get(id);
+				if (doctor == null) {
+					missingIds.add(id);
+				} else {
+					items.put(id, doctor);
+				}
+			}
+			BatchResult<Doctor> result = new BatchResult<Doctor>();
+			result.setItems(items);
+			result.setMissingIds(missingIds);
+			logger.traceExit(result);
+			return result;
+		} catch (Exception error) {
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * Read the version of the active doctors, used to answer conditional reads
+	 * of the doctor lists without reading them.
+	 *
+	 * @return the collection version
+	 * @throws SystemException the system exception
+	 */
+	public CollectionVersion readDoctorVersion() throws SystemException {
+		return doctorReads.execute(this::loadDoctorVersion, READ_VERSION);
+	}
+
+	/**
+	 * Read the version of the active doctors, used to answer conditional reads
+	 * of the doctor lists without reading them.
+	 *
+	 * @return the collection version
+	 * @throws SystemException the system exception
+	 */
+	private CollectionVersion loadDoctorVersion() throws SystemException {
+		try {
+			logger.traceEntry();
+			CollectionVersion version = doctorMapper.readDoctorVersion();
+			logger.traceExit(version);
+			return version;
+		} catch (Exception error) {
+			throw new SystemException(error.getMessage());
+		}
+	}
+
 	/**
 	 * Read doctor by id.
 	 *
@@ -77,18 +300,28 @@ public class DoctorOperationDelegate {
 	 * @throws SystemException   the system exception
 	 */
 	public Doctor readDoctorById(int id) throws BusinessException, SystemException {
+		return doctorReads.execute(() -> loadDoctorById(id), READ_BY_ID, id, null);
+	}
+
+	/**
+	 * Read doctor by id.
+	 *
+	 * @param id the id
+	 * @return the doctor
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private Doctor loadDoctorById(int id) throws BusinessException, SystemException {
 		try {
 			logger.entry(id);
-			Doctor doctor = doctorMapper.readDoctorById(id);
-			logger.traceExit(doctor);
+			Doctor doctor = doctorCache.get(id, doctorMapper::readDoctorById);
 			if (doctor == null) {
-				throw new DoctorNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
-						+ ApplicationConstant.DOCTOR_NOT_FOUND);
+				throw NotFoundException.DOCTOR;
 			}
 			logger.traceExit(doctor);
 			return doctor;
-		} catch (DoctorNotFoundException error) {
-			throw new BusinessException(error.getMessage());
+		} catch (NotFoundException error) {
+			throw error;
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
 		}
@@ -102,25 +335,32 @@ public class DoctorOperationDelegate {
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
+	@Transactional(rollbackFor = SystemException.class)
 	public boolean deleteDoctor(Doctor doctor) throws BusinessException, SystemException {
 		try {
 			logger.entry(doctor);
-			int result = userMapper.deleteUserById(doctor.getId());
-			if (result == 0) {
-				throw new DoctorNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
-						+ ApplicationConstant.DOCTOR_NOT_FOUND);
+			int result;
+			if (writeRoutines) {
+				result = doctorMapper.callDoctorDelete(doctor.getId());
+			} else {
+				result = userMapper.deleteUserById(doctor.getId());
+				if (result != NumericConstants.ZERO) {
+					result = doctorMapper.deleteDoctorById(doctor.getId());
+				}
 			}
-			result = doctorMapper.deleteDoctorById(doctor.getId());
-			if (result == 0) {
+			if (result == NumericConstants.ZERO) {
 				throw new DoctorNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
 						+ ApplicationConstant.DOCTOR_NOT_FOUND);
 			}
+			rosterView.doctorDeleted(doctor.getId());
 			logger.traceExit();
 			return true;
 		} catch (DoctorNotFoundException error) {
 			throw new BusinessException(error.getMessage());
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
+		} finally {
+			doctorCache.invalidate(doctor.getId());
 		}
 	}
 
@@ -132,25 +372,32 @@ public class DoctorOperationDelegate {
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
+	@Transactional(rollbackFor = SystemException.class)
 	public boolean updateDoctor(Doctor doctor) throws BusinessException, SystemException {
 		try {
 			logger.entry(doctor);
-			int result = userMapper.updateUser(doctor);
-			if (result == 0) {
-				throw new DoctorNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
-						+ ApplicationConstant.DOCTOR_NOT_FOUND);
+			int result;
+			if (writeRoutines) {
+				result = doctorMapper.callDoctorUpdate(doctor);
+			} else {
+				result = userMapper.updateUser(doctor);
+				if (result != NumericConstants.ZERO) {
+					result = doctorMapper.updateDoctor(doctor);
+				}
 			}
-			result = doctorMapper.updateDoctor(doctor);
-			if (result == 0) {
+			if (result == NumericConstants.ZERO) {
 				throw new DoctorNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
 						+ ApplicationConstant.DOCTOR_NOT_FOUND);
 			}
+			rosterView.doctorUpdated(doctor.getId());
 			logger.traceExit();
 			return true;
 		} catch (DoctorNotFoundException error) {
 			throw new BusinessException(error.getMessage());
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
+		} finally {
+			doctorCache.invalidate(doctor.getId());
 		}
 	}
 
@@ -162,11 +409,23 @@ public class DoctorOperationDelegate {
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
+	@Transactional(rollbackFor = SystemException.class)
 	public boolean addDoctor(Doctor doctor) throws BusinessException, SystemException {
 		try {
 			logger.entry(doctor);
-			int rows = userMapper.createUser(doctor);
-			rows = doctorMapper.createDoctor(doctor);
+			userNameFilter.checkAvailable(doctor.getUsername());
+			doctor.setRoleId(ApplicationConstant.DOCTOR_ROLE_ID);
+			int rows;
+			if (writeRoutines) {
+				doctor.setId(doctorMapper.callDoctorCreate(doctor));
+				rows = NumericConstants.ONE;
+			} else {
+				userMapper.createUser(doctor);
+				rows = doctorMapper.createDoctor(doctor);
+			}
+			userNameFilter.add(doctor.getUsername());
+			doctorCache.invalidate(doctor.getId());
+			rosterView.doctorCreated(doctor.getId());
 			logger.traceExit();
 			if (rows != NumericConstants.ZERO) {
 				return true;
@@ -176,6 +435,9 @@ public class DoctorOperationDelegate {
 			}
 		} catch (UserNameAlreadyExistException error) {
 			throw new BusinessException(error.getMessage());
+		} catch (DuplicateKeyException error) {
+			throw new BusinessException(
+					HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.NAME_EXIST);
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
 		}
@@ -190,80 +452,128 @@ public class DoctorOperationDelegate {
 	 * @throws SystemException   the system exception
 	 */
 	public DoctorPatientMapping readRecordById(int id) throws BusinessException, SystemException {
+		return doctorReads.execute(() -> loadRecordById(id), READ_RECORD, id);
+	}
+
+	/**
+	 * Read record by id.
+	 *
+	 * @param id the id
+	 * @return the doctor patient mapping
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private DoctorPatientMapping loadRecordById(int id) throws BusinessException, SystemException {
 		logger.entry(id);
 		try {
-			DoctorPatientMapping doctorPatientMapping = new DoctorPatientMapping();
-			List<RecordData> recordData = doctorMapper.readRecordById(id);
-			List<PatientRecordDetails> patientList = new ArrayList<PatientRecordDetails>();
-			String doctorName = null;
-			for (RecordData record : recordData) {
-				doctorName = record.getDoctorName();
-				PatientRecordDetails recordDetails = new PatientRecordDetails();
-				recordDetails.setPatientName(record.getPatientName());
-				recordDetails.setDisease(record.getDisease());
-				patientList.add(recordDetails);
-			}
-			doctorPatientMapping.setDoctorName(doctorName);
-			doctorPatientMapping.setListOfPatients(patientList);
-			if (doctorName == null) {
-				throw new RecordNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
-						+ ApplicationConstant.RECORD_NOT_FOUND);
+			DoctorPatientMapping doctorPatientMapping = rosterView.get(id, this::loadRoster);
+			if (doctorPatientMapping == null) {
+				throw NotFoundException.RECORD;
 			}
 			logger.traceExit(doctorPatientMapping);
 			return doctorPatientMapping;
 
-		} catch (RecordNotFoundException error) {
-			throw new BusinessException(error.getMessage());
+		} catch (NotFoundException error) {
+			throw error;
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
 		}
 	}
 
 	/**
-	 * Read all record.
+	 * Load the roster of a doctor from the records.
 	 *
-	 * @return the list
+	 * @param id the doctor id
+	 * @return the doctor patient mapping, or null if the doctor is not active
+	 */
+	private DoctorPatientMapping loadRoster(int id) {
+		List<RecordData> recordData = doctorMapper.readRecordById(id);
+		List<PatientRecordDetails> patientList = new ArrayList<PatientRecordDetails>();
+		String doctorName = null;
+		for (RecordData record : recordData) {
+			doctorName = record.getDoctorName();
+			patientList.add(toPatientRecordDetails(record));
+		}
+		if (doctorName == null) {
+			return null;
+		}
+		DoctorPatientMapping doctorPatientMapping = new DoctorPatientMapping();
+		doctorPatientMapping.setDoctorId(id);
+		doctorPatientMapping.setDoctorName(doctorName);
+		doctorPatientMapping.setListOfPatients(patientList);
+		return doctorPatientMapping;
+	}
+
+	/**
+	 * Write all doctor to patient rosters as a CustomResponseBody JSON
+	 * document. The records arrive ordered by doctor id, so a roster is complete
+	 * as soon as the doctor id changes and is written out before the next one is
+	 * read; only one roster is held in memory at a time.
+	 *
+	 * @param outputStream the output stream
+	 * @return the number of written rosters
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
-	public List<DoctorPatientMapping> readAllRecord() throws BusinessException, SystemException {
+	@Transactional(readOnly = true)
+	public int writeAllRecord(OutputStream outputStream) throws BusinessException, SystemException {
 		logger.traceEntry();
-		try {
-			List<RecordData> recordData = doctorMapper.readAllRecord();
-			Map<String, List<PatientRecordDetails>> recordMap = new HashMap<String, List<PatientRecordDetails>>();
-			for (RecordData record : recordData) {
-				PatientRecordDetails recordDetails = new PatientRecordDetails();
-				recordDetails.setPatientName(record.getPatientName());
-				recordDetails.setDisease(record.getDisease());
-				String doctorName = record.getDoctorName();
-				if (recordMap.containsKey(doctorName)) {
-					List<PatientRecordDetails> listOfPatient = recordMap.get(doctorName);
-					listOfPatient.add(recordDetails);
-					recordMap.put(doctorName, listOfPatient);
-				} else {
-					List<PatientRecordDetails> listOfPatient = new ArrayList<PatientRecordDetails>();
-					listOfPatient.add(recordDetails);
-					recordMap.put(doctorName, listOfPatient);
-				}
-			}
-			List<DoctorPatientMapping> listDoctorPatientMapping = new ArrayList<DoctorPatientMapping>();
-			for (String key : recordMap.keySet()) {
-				DoctorPatientMapping doctorPatientMapping = new DoctorPatientMapping();
-				doctorPatientMapping.setDoctorName(key);
-				doctorPatientMapping.setListOfPatients(recordMap.get(key));
-				listDoctorPatientMapping.add(doctorPatientMapping);
-			}
-			if (listDoctorPatientMapping.size() == NumericConstants.ZERO) {
+		int count = NumericConstants.ZERO;
+		ObjectWriter writer = objectMapper.writerFor(DoctorPatientMapping.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (Cursor<RecordData> records = doctorMapper.streamAllRecord()) {
+			Iterator<RecordData> iterator = records.iterator();
+			if (!iterator.hasNext()) {
 				throw new RecordNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
 						+ ApplicationConstant.RECORD_NOT_FOUND);
 			}
-			logger.traceExit(listDoctorPatientMapping);
-			return listDoctorPatientMapping;
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.writeStartObject();
+				generator.writeNumberField(ApplicationConstant.STATUS, HttpStatusConstant.OK);
+				generator.writeArrayFieldStart(ApplicationConstant.MESSAGE);
+				DoctorPatientMapping roster = null;
+				while (iterator.hasNext()) {
+					RecordData record = iterator.next();
+					if (roster == null || roster.getDoctorId() != record.getDoctorId()) {
+						if (roster != null) {
+							writer.writeValue(generator, roster);
+							count++;
+						}
+						roster = new DoctorPatientMapping();
+						roster.setDoctorId(record.getDoctorId());
+						roster.setDoctorName(record.getDoctorName());
+						roster.setListOfPatients(new ArrayList<PatientRecordDetails>());
+					}
+					roster.getListOfPatients().add(toPatientRecordDetails(record));
+				}
+				writer.writeValue(generator, roster);
+				count++;
+				generator.writeEndArray();
+				generator.writeEndObject();
+				generator.flush();
+			}
 		} catch (RecordNotFoundException error) {
 			throw new BusinessException(error.getMessage());
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
 		}
+		logger.traceExit(count);
+		return count;
+	}
+
+	/**
+	 * Convert a record row to the patient part of a roster.
+	 *
+	 * @param record the record
+	 * @return the patient record details
+	 */
+	private PatientRecordDetails toPatientRecordDetails(RecordData record) {
+		PatientRecordDetails recordDetails = new PatientRecordDetails();
+		recordDetails.setPatientId(record.getPatientId());
+		recordDetails.setPatientName(record.getPatientName());
+		recordDetails.setDisease(record.getDisease());
+		return recordDetails;
 	}
 
 }
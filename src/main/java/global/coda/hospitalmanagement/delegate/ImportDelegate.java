@@ -0,0 +1,512 @@
+package global.coda.hospitalmanagement.delegate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.opencsv.CSVReader;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.SystemException;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.ImportJob;
+import global.coda.hospitalmanagement.model.ItemResult;
+import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.model.UserDetails;
+
+/**
+ * Imports patients and doctors from CSV files in the background. The upload
+ * is spooled to a temporary file and a job thread streams it row by row, so
+ * the file is never held in memory. Blocks of rows are validated on a worker
+ * pool and the valid users are handed to a single writer thread through a
+ * bounded queue; when the writer falls behind the queue fills up, the workers
+ * block, the worker queue fills up and the reader validates blocks itself, so
+ * reading slows down to the pace of the database. The writer uses the batched
+ * inserts of {@link BatchWriteDelegate}, one transaction per block.
+ *
+ * @author Vishal
+ *
+ */
+@Service
+public class ImportDelegate {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(ImportDelegate.class);
+
+	/** The batch write delegate. */
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
+	/** The number of validation threads. */
+	@Value("${hms.import.workers:4}")
+	private int workers;
+
+	/** The number of blocks waiting for a validation thread. */
+	@Value("${hms.import.validation-queue-capacity:8}")
+	private int validationQueueCapacity;
+
+	/** The number of validated blocks waiting for the writer. */
+	@Value("${hms.import.write-queue-capacity:8}")
+	private int writeQueueCapacity;
+
+	/** The number of rows validated and written together. */
+	@Value("${hms.import.block-size:1000}")
+	private int blockSize;
+
+	/** The number of rejected rows kept on a job. */
+	@Value("${hms.import.max-rejected-rows:1000}")
+	private int maxRejectedRows;
+
+	/** The number of imports that may run at once. */
+	@Value("${hms.import.max-concurrent-jobs:2}")
+	private int maxConcurrentJobs;
+
+	/** How long a job can be polled after it was started or finished. */
+	@Value("${hms.import.job-retention-minutes:60}")
+	private long jobRetentionMinutes;
+
+	/** The validation executor. */
+	private ExecutorService validationExecutor;
+
+	/** The executor running the reader and the writer of every job. */
+	private ExecutorService jobExecutor;
+
+	/** The permits of running jobs. */
+	private Semaphore running;
+
+	/** The jobs by id. */
+	private Cache<String, ImportJob> jobs;
+
+	/**
+	 * Creates the executors. Their threads are daemons, an import still running
+	 * at shutdown is abandoned and keeps the blocks written so far.
+	 */
+	@PostConstruct
+	public void init() {
+		validationExecutor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(validationQueueCapacity),
+				new ThreadFactoryBuilder().setNameFormat("import-validate-%d").setDaemon(true).build(),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		// every job holds two threads, the semaphore keeps them from waiting in the queue
+		jobExecutor = new ThreadPoolExecutor(2 * maxConcurrentJobs, 2 * maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().setNameFormat("import-job-%d").setDaemon(true).build());
+		running = new Semaphore(maxConcurrentJobs);
+		jobs = Caffeine.newBuilder().expireAfterWrite(jobRetentionMinutes, TimeUnit.MINUTES).build();
+	}
+
+	/**
+	 * Stops the executors.
+	 */
+	@PreDestroy
+	public void destroy() {
+		jobExecutor.shutdownNow();
+		validationExecutor.shutdownNow();
+	}
+
+	/**
+	 * Start a patient import.
+	 *
+	 * @param file the CSV file
+	 * @return the job
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public ImportJob importPatients(MultipartFile file) throws BusinessException, SystemException {
+		return start(file, ApplicationConstant.PATIENT, ImportDelegate::toPatient, batchWriteDelegate::createPatients);
+	}
+
+	/**
+	 * Start a doctor import.
+	 *
+	 * @param file the CSV file
+	 * @return the job
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public ImportJob importDoctors(MultipartFile file) throws BusinessException, SystemException {
+		return start(file, ApplicationConstant.DOCTOR, ImportDelegate::toDoctor, batchWriteDelegate::createDoctors);
+	}
+
+	/**
+	 * Read a job.
+	 *
+	 * @param jobId the job id
+	 * @return the job
+	 * @throws BusinessException the business exception
+	 */
+	public ImportJob readJob(String jobId) throws BusinessException {
+		ImportJob job = jobs.getIfPresent(jobId);
+		if (job == null) {
+			throw new BusinessException(ApplicationConstant.IMPORT_NOT_FOUND);
+		}
+		return job;
+	}
+
+	/**
+	 * Spool the file and start its reader and writer.
+	 *
+	 * @param <T>    the user type
+	 * @param file   the CSV file
+	 * @param type   the type
+	 * @param parser turns a row into a user, throws IllegalArgumentException for
+	 *               invalid rows
+	 * @param writer creates a block of users
+	 * @return the job
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private <T extends UserDetails> ImportJob start(MultipartFile file, String type, RowParser<T> parser,
+			Function<List<T>, List<ItemResult>> writer) throws BusinessException, SystemException {
+		logger.entry(type, file.getOriginalFilename(), file.getSize());
+		if (!running.tryAcquire()) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.TOO_MANY_IMPORTS);
+		}
+		Path path;
+		try {
+			path = Files.createTempFile("hms-import-", ".csv");
+			try (InputStream input = file.getInputStream()) {
+				Files.copy(input, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException error) {
+			running.release();
+			logger.error(error.getMessage());
+			throw new SystemException(error.getMessage());
+		}
+		ImportJob job = new ImportJob(UUID.randomUUID().toString(), type, maxRejectedRows);
+		jobs.put(job.getId(), job);
+		BlockingQueue<Block<T>> writeQueue = new ArrayBlockingQueue<Block<T>>(writeQueueCapacity);
+		Block<T> end = new Block<T>(Collections.emptyList(), Collections.emptyList());
+		jobExecutor.execute(() -> write(job, writeQueue, end, writer));
+		jobExecutor.execute(() -> read(job, path, parser, writeQueue, end));
+		logger.traceExit(job);
+		return job;
+	}
+
+	/**
+	 * Read the file and submit its rows block by block for validation. The end
+	 * marker is queued once every block was validated, also when reading fails.
+	 *
+	 * @param <T>        the user type
+	 * @param job        the job
+	 * @param path       the spooled file, deleted when read
+	 * @param parser     the row parser
+	 * @param writeQueue the write queue
+	 * @param end        the end marker
+	 */
+	private <T extends UserDetails> void read(ImportJob job, Path path, RowParser<T> parser, BlockingQueue<Block<T>> writeQueue,
+			Block<T> end) {
+		List<Future<?>> validations = new ArrayList<Future<?>>();
+		try (CSVReader reader = new CSVReader(Files.newBufferedReader(path, StandardCharsets.UTF_8))) {
+			Map<String, Integer> columns = columns(reader.readNext());
+			if (!columns.containsKey(ApplicationConstant.USERNAME)) {
+				job.fail(ApplicationConstant.MISSING_USERNAME_COLUMN);
+				return;
+			}
+			List<String[]> rows = new ArrayList<String[]>(blockSize);
+			long firstRow = 1;
+			String[] row;
+			while ((row = reader.readNext()) != null && job.getState() == ImportJob.State.RUNNING) {
+				job.rowRead();
+				rows.add(row);
+				if (rows.size() == blockSize) {
+					validations.add(validate(job, firstRow, rows, columns, parser, writeQueue));
+					firstRow += rows.size();
+					rows = new ArrayList<String[]>(blockSize);
+				}
+			}
+			if (!rows.isEmpty()) {
+				validations.add(validate(job, firstRow, rows, columns, parser, writeQueue));
+			}
+			for (Future<?> validation : validations) {
+				validation.get();
+			}
+		} catch (IOException | ExecutionException | RuntimeException error) {
+			logger.error("Import {} failed while reading: {}", job.getId(), error.getMessage());
+			job.fail(error.getMessage());
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			job.fail(error.getMessage());
+		} finally {
+			delete(path);
+			enqueue(job, writeQueue, end);
+		}
+	}
+
+	/**
+	 * Submit a block of rows for validation. The valid users are queued for the
+	 * writer, waiting while the write queue is full.
+	 *
+	 * @param <T>        the user type
+	 * @param job        the job
+	 * @param firstRow   the row number of the first row
+	 * @param rows       the rows
+	 * @param columns    the column indexes by name
+	 * @param parser     the row parser
+	 * @param writeQueue the write queue
+	 * @return the validation
+	 */
+	private <T extends UserDetails> Future<?> validate(ImportJob job, long firstRow, List<String[]> rows, Map<String, Integer> columns,
+			RowParser<T> parser, BlockingQueue<Block<T>> writeQueue) {
+		return validationExecutor.submit(() -> {
+			List<Long> rowNumbers = new ArrayList<Long>(rows.size());
+			List<T> users = new ArrayList<T>(rows.size());
+			for (int index = 0; index < rows.size(); index++) {
+				try {
+					users.add(parser.parse(rows.get(index), columns));
+					rowNumbers.add(firstRow + index);
+				} catch (IllegalArgumentException error) {
+					job.rowRejected(firstRow + index, error.getMessage());
+				}
+			}
+			if (!users.isEmpty()) {
+				enqueue(job, writeQueue, new Block<T>(rowNumbers, users));
+			}
+		});
+	}
+
+	/**
+	 * Write queued blocks until the end marker. After a failure the queue is
+	 * still drained, so no validation thread stays blocked on it.
+	 *
+	 * @param <T>        the user type
+	 * @param job        the job
+	 * @param writeQueue the write queue
+	 * @param end        the end marker
+	 * @param writer     the writer
+	 */
+	private <T extends UserDetails> void write(ImportJob job, BlockingQueue<Block<T>> writeQueue, Block<T> end,
+			Function<List<T>, List<ItemResult>> writer) {
+		try {
+			Block<T> block;
+			while ((block = writeQueue.take()) != end) {
+				if (job.getState() != ImportJob.State.RUNNING) {
+					continue;
+				}
+				try {
+					for (ItemResult result : writer.apply(block.users)) {
+						if (result.getStatus() == HttpStatusConstant.OK) {
+							job.rowCreated();
+						} else {
+							job.rowRejected(block.rowNumbers.get(result.getIndex()), result.getMessage());
+						}
+					}
+				} catch (RuntimeException error) {
+					logger.error("Import {} failed while writing: {}", job.getId(), error.getMessage());
+					job.fail(error.getMessage());
+				}
+			}
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			job.fail(error.getMessage());
+		} finally {
+			job.finish();
+			jobs.put(job.getId(), job);
+			running.release();
+			logger.info("Import {} finished: {}", job.getId(), job);
+		}
+	}
+
+	/**
+	 * Queue a block for the writer, waiting while the queue is full.
+	 *
+	 * @param <T>        the user type
+	 * @param job        the job
+	 * @param writeQueue the write queue
+	 * @param block      the block
+	 */
+	private <T extends UserDetails> void enqueue(ImportJob job, BlockingQueue<Block<T>> writeQueue, Block<T> block) {
+		try {
+			writeQueue.put(block);
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			job.fail(error.getMessage());
+		}
+	}
+
+	/**
+	 * Delete the spooled file.
+	 *
+	 * @param path the path
+	 */
+	private void delete(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException error) {
+			logger.warn("Could not delete {}: {}", path, error.getMessage());
+		}
+	}
+
+	/**
+	 * Index the header columns by their lower case name.
+	 *
+	 * @param header the header row, null for an empty file
+	 * @return the column indexes by name
+	 */
+	private static Map<String, Integer> columns(String[] header) {
+		Map<String, Integer> columns = new HashMap<String, Integer>();
+		if (header != null) {
+			for (int index = 0; index < header.length; index++) {
+				columns.put(header[index].trim().toLowerCase(Locale.ROOT), index);
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Gets a trimmed value of a row.
+	 *
+	 * @param row     the row
+	 * @param columns the column indexes by name
+	 * @param column  the column name
+	 * @return the value, null when the column is missing or blank
+	 */
+	private static String value(String[] row, Map<String, Integer> columns, String column) {
+		Integer index = columns.get(column);
+		if (index == null) {
+			return null;
+		}
+		String value = row[index].trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	/**
+	 * Copy the user columns of a row.
+	 *
+	 * @param user    the user
+	 * @param row     the row
+	 * @param columns the column indexes by name
+	 */
+	private static void toUser(UserDetails user, String[] row, Map<String, Integer> columns) {
+		if (row.length != columns.size()) {
+			throw new IllegalArgumentException(ApplicationConstant.COLUMN_COUNT_INVALID);
+		}
+		user.setUsername(value(row, columns, ApplicationConstant.USERNAME));
+		if (user.getUsername() == null) {
+			throw new IllegalArgumentException(ApplicationConstant.USERNAME_REQUIRED);
+		}
+		user.setPassword(value(row, columns, ApplicationConstant.PASSWORD));
+		if (user.getPassword() == null) {
+			throw new IllegalArgumentException(ApplicationConstant.PASSWORD_REQUIRED);
+		}
+		user.setFirstName(value(row, columns, ApplicationConstant.FIRSTNAME));
+		user.setLastName(value(row, columns, ApplicationConstant.LASTNAME));
+		user.setCity(value(row, columns, ApplicationConstant.CITY));
+		user.setState(value(row, columns, ApplicationConstant.STATE));
+		user.setPhoneNumber(value(row, columns, ApplicationConstant.PHONENUMBER));
+	}
+
+	/**
+	 * Parse a patient row.
+	 *
+	 * @param row     the row
+	 * @param columns the column indexes by name
+	 * @return the patient
+	 */
+	private static Patient toPatient(String[] row, Map<String, Integer> columns) {
+		Patient patient = new Patient();
+		toUser(patient, row, columns);
+		patient.setBloodGroup(value(row, columns, ApplicationConstant.BLOODGROUP));
+		String weight = value(row, columns, ApplicationConstant.WEIGHT);
+		if (weight != null) {
+			try {
+				patient.setWeight(Integer.parseInt(weight));
+			} catch (NumberFormatException error) {
+				throw new IllegalArgumentException(ApplicationConstant.WEIGHT_INVALID);
+			}
+		}
+		return patient;
+	}
+
+	/**
+	 * Parse a doctor row.
+	 *
+	 * @param row     the row
+	 * @param columns the column indexes by name
+	 * @return the doctor
+	 */
+	private static Doctor toDoctor(String[] row, Map<String, Integer> columns) {
+		Doctor doctor = new Doctor();
+		toUser(doctor, row, columns);
+		doctor.setSpecilization(value(row, columns, ApplicationConstant.DOCTORSPECIALIZATION));
+		return doctor;
+	}
+
+	/**
+	 * Turns a CSV row into a user.
+	 *
+	 * @param <T> the user type
+	 */
+	@FunctionalInterface
+	private interface RowParser<T> {
+
+		/**
+		 * Parse a row.
+		 *
+		 * @param row     the row
+		 * @param columns the column indexes by name
+		 * @return the user
+		 */
+		T parse(String[] row, Map<String, Integer> columns);
+	}
+
+	/**
+	 * Validated users and the row numbers they were read from.
+	 *
+	 * @param <T> the user type
+	 */
+	private static final class Block<T> {
+
+		/** The row numbers. */
+		private final List<Long> rowNumbers;
+
+		/** The users. */
+		private final List<T> users;
+
+		/**
+		 * Instantiates a new block.
+		 *
+		 * @param rowNumbers the row numbers
+		 * @param users      the users
+		 */
+		private Block(List<Long> rowNumbers, List<T> users) {
+			this.rowNumbers = rowNumbers;
+			this.users = users;
+		}
+	}
+
+}
@@ -1,22 +1,49 @@
 package global.coda.hospitalmanagement.delegate;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ibatis.cursor.Cursor;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import global.coda.hospitalmanagement.cache.EntityCache;
+import global.coda.hospitalmanagement.cache.RosterView;
+import global.coda.hospitalmanagement.cache.SingleFlight;
+import global.coda.hospitalmanagement.cache.UserNameFilter;
 import global.coda.hospitalmanagement.constant.ApplicationConstant;
 import global.coda.hospitalmanagement.constant.HttpStatusConstant;
 import global.coda.hospitalmanagement.constant.NumericConstants;
+import global.coda.hospitalmanagement.constant.PaginationConstant;
 import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.NotFoundException;
 import global.coda.hospitalmanagement.exception.PatientNotFoundException;
 import global.coda.hospitalmanagement.exception.SystemException;
 import global.coda.hospitalmanagement.exception.UserNameAlreadyExistException;
 import global.coda.hospitalmanagement.mapper.PatientMapper;
 import global.coda.hospitalmanagement.mapper.UserMapper;
+import global.coda.hospitalmanagement.model.BatchResult;
+import global.coda.hospitalmanagement.model.CollectionVersion;
+import global.coda.hospitalmanagement.model.PagedResponse;
 import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.util.FieldProjection;
 
 /**
  *
@@ -26,14 +53,61 @@ import global.coda.hospitalmanagement.model.Patient;
 @Service
 public class PatientOperationDelegate {
 
+	/** The key of reading all patients. */
+	private static final String READ_ALL = "all";
+
+	/** The key of reading a page of patients. */
+	private static final String READ_PAGE = "page";
+
+	/** The key of reading patients by ids. */
+	private static final String READ_BY_IDS = "ids";
+
+	/** The key of reading a patient by id. */
+	private static final String READ_BY_ID = "id";
+
+	/** The key of reading the patient version. */
+	private static final String READ_VERSION = "version";
+
 	/** The patient mapper. */
 	@Autowired
 	private PatientMapper patientMapper;
 
+	/** The patient cache. */
+	@Autowired
+	private EntityCache<Patient> patientCache;
+
+	/** The patient reads, identical concurrent reads share one query. */
+	@Autowired
+	private SingleFlight patientReads;
+
+	/** The roster view. */
+	@Autowired
+	private RosterView rosterView;
+
+	/** The username filter. */
+	@Autowired
+	private UserNameFilter userNameFilter;
+
+	/** The update coalescer. */
+	@Autowired
+	private PatientUpdateCoalescer updateCoalescer;
+
+	/** Whether composite writes call the database routines. */
+	@Value("${hms.write.routines:false}")
+	private boolean writeRoutines;
+
 	/** The user mapper. */
 	@Autowired
 	private UserMapper userMapper;
 
+	/** The object mapper. */
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/** The maximum number of ids in one batch read. */
+	@Value("${hms.read.max-batch-size:100}")
+	private int maxBatchSize;
+
 	/** The logger. */
 	private final Logger logger = LogManager.getLogger(PatientOperationDelegate.class);
 
@@ -45,11 +119,22 @@ public class PatientOperationDelegate {
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
+	@Transactional(rollbackFor = SystemException.class)
 	public boolean addPatient(Patient patient) throws BusinessException, SystemException {
 		try {
 			logger.entry(patient);
-			int rows = userMapper.createUser(patient);
-			rows = patientMapper.createPatient(patient);
+			userNameFilter.checkAvailable(patient.getUsername());
+			patient.setRoleId(ApplicationConstant.PATIENT_ROLE_ID);
+			int rows;
+			if (writeRoutines) {
+				patient.setId(patientMapper.callPatientCreate(patient));
+				rows = NumericConstants.ONE;
+			} else {
+				userMapper.createUser(patient);
+				rows = patientMapper.createPatient(patient);
+			}
+			userNameFilter.add(patient.getUsername());
+			patientCache.invalidate(patient.getId());
 			logger.traceExit();
 			if (rows != NumericConstants.ZERO) {
 				return true;
@@ -59,6 +144,9 @@ public class PatientOperationDelegate {
 			}
 		} catch (UserNameAlreadyExistException error) {
 			throw new BusinessException(error.getMessage());
+		} catch (DuplicateKeyException error) {
+			throw new BusinessException(
+					HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.NAME_EXIST);
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
 		}
@@ -67,14 +155,29 @@ public class PatientOperationDelegate {
 	/**
 	 * Read all patient.
 	 *
+	 * @param projection the field projection, null for every field
+	 * @return the list
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public List<Patient> readAllPatient(FieldProjection projection) throws BusinessException, SystemException {
+		updateCoalescer.flush();
+		return patientReads.execute(() -> loadAllPatient(projection), READ_ALL, updateCoalescer.getFlushCount(), projection);
+	}
+
+	/**
+	 * Read all patient.
+	 *
+	 * @param projection the field projection, null for every field
 	 * @return the list
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
-	public List<Patient> readAllPatient() throws BusinessException, SystemException {
+	private List<Patient> loadAllPatient(FieldProjection projection) throws BusinessException, SystemException {
 		try {
 			logger.traceEntry();
-			List<Patient> patient = patientMapper.readAllPatient();
+			List<Patient> patient = projection == null ? patientMapper.readAllPatient()
+					: patientMapper.readPatientProjection(projection.getColumns(), null, null, null);
 			if (patient.size() == NumericConstants.ZERO) {
 				throw new PatientNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
 						+ ApplicationConstant.PATIENT_NOT_FOUND);
@@ -88,6 +191,194 @@ public class PatientOperationDelegate {
 		}
 	}
 
+	/**
+	 * Export all patients as newline delimited JSON. Rows are read from a
+	 * streaming cursor and written one at a time, so nothing but the current row
+	 * is held in memory.
+	 *
+	 * @param outputStream the output stream
+	 * @return the number of exported patients
+	 * @throws SystemException the system exception
+	 */
+	@Transactional(readOnly = true)
+	public int exportPatients(OutputStream outputStream) throws SystemException {
+		logger.traceEntry();
+		updateCoalescer.flush();
+		int count = NumericConstants.ZERO;
+		ObjectWriter writer = objectMapper.writerFor(Patient.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (Cursor<Patient> patients = patientMapper.streamAllPatient();
+				JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			for (Patient patient : patients) {
+				writer.writeValue(generator, patient);
+				generator.writeRaw(ApplicationConstant.NEW_LINE);
+				count++;
+			}
+			generator.flush();
+		} catch (Exception error) {
+			throw new SystemException(error.getMessage());
+		}
+		logger.traceExit(count);
+		return count;
+	}
+
+	/**
+	 * Read one page of patients using the user id as the cursor.
+	 *
+	 * @param after the cursor returned with the previous page
+	 * @param limit the requested page size
+	 * @param projection the field projection, null for every field
+	 * @return the paged response
+	 * @throws SystemException the system exception
+	 */
+	public PagedResponse<Patient> readPatientPage(int after, int limit, FieldProjection projection)
+			throws SystemException {
+		updateCoalescer.flush();
+		return patientReads.execute(() -> loadPatientPage(after, limit, projection), READ_PAGE, updateCoalescer.getFlushCount(), after, limit,
+				projection);
+	}
+
+	/**
+	 * Read one page of patients using the user id as the cursor.
+	 *
+	 * @param after the cursor returned with the previous page
+	 * @param limit the requested page size
+	 * @param projection the field projection, null for every field
+	 * @return the paged response
+	 * @throws SystemException the system exception
+	 */
+	private PagedResponse<Patient> loadPatientPage(int after, int limit, FieldProjection projection)
+			throws SystemException {
+		try {
+			logger.entry(after, limit, projection);
+			int pageSize = limit;
+			if (pageSize < NumericConstants.ONE) {
+				pageSize = PaginationConstant.DEFAULT_PAGE_SIZE;
+			} else if (pageSize > PaginationConstant.MAX_PAGE_SIZE) {
+				pageSize = PaginationConstant.MAX_PAGE_SIZE;
+			}
+			int cursor = Math.max(after, PaginationConstant.FIRST_CURSOR);
+			List<Patient> patients = projection == null
+					? patientMapper.readPatientPage(cursor, pageSize + NumericConstants.ONE)
+					: patientMapper.readPatientProjection(projection.getColumns(), null, cursor,
+							pageSize + NumericConstants.ONE);
+			PagedResponse<Patient> page = new PagedResponse<Patient>();
+			if (patients.size() > pageSize) {
+				patients = patients.subList(NumericConstants.ZERO, pageSize);
+				page.setNextCursor(String.valueOf(patients.get(pageSize - NumericConstants.ONE).getId()));
+			}
+			page.setItems(patients);
+			page.setLimit(pageSize);
+			logger.traceExit(page);
+			return page;
+		} catch (Exception error) {
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * Read many patients by id in one query. Ids that do not resolve to an active
+	 * patient are reported back instead of failing the whole batch.
+	 *
+	 * @param ids the ids
+	 * @return the batch result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	public BatchResult<Patient> readPatientByIds(List<Integer> ids) throws BusinessException, SystemException {
+		Map<Integer, Patient> pending = new HashMap<Integer, Patient>();
+		for (Integer id : ids) {
+			Patient patient = id == null ? null : updateCoalescer.pending(id);
+			if (patient != null) {
+				pending.put(id, patient);
+			}
+		}
+		BatchResult<Patient> stored = patientReads.execute(() -> loadPatientByIds(ids), READ_BY_IDS, ids);
+		if (pending.isEmpty()) {
+			return stored;
+		}
+		Map<Integer, Patient> items = new LinkedHashMap<Integer, Patient>();
+		for (Map.Entry<Integer, Patient> item : stored.getItems().entrySet()) {
+			items.put(item.getKey(), updateCoalescer.overlay(item.getValue(), pending.get(item.getKey())));
+		}
+		BatchResult<Patient> result = new BatchResult<Patient>();
+		result.setItems(items);
+		result.setMissingIds(stored.getMissingIds());
+		return result;
+	}
+
+	/**
+	 * Read many patients by id in one query. Ids that do not resolve to an active
+	 * patient are reported back instead of failing the whole batch.
+	 *
+	 * @param ids the ids
+	 * @return the batch result
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private BatchResult<Patient> loadPatientByIds(List<Integer> ids) throws BusinessException, SystemException {
+		logger.entry(ids);
+		Set<Integer> uniqueIds = new LinkedHashSet<Integer>(ids);
+		if (uniqueIds.isEmpty() || uniqueIds.size() > maxBatchSize) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
+					+ ApplicationConstant.BATCH_SIZE_INVALID + maxBatchSize);
+		}
+		try {
+			Map<Integer, Patient> rows = new LinkedHashMap<Integer, Patient>();
+			for (Patient patient : patientMapper.readPatientByIds(uniqueIds)) {
+				rows.put(patient.getId(), patient);
+			}
+			Map<Integer, Patient> items = new LinkedHashMap<Integer, Patient>();
+			List<Integer> missingIds = new ArrayList<Integer>();
+			for (Integer id : uniqueIds) {
+				Patient patient = rows.get(id);
+				if (patient == null) {
+					missingIds.add(id);
+				} else {
+					items.put(id, patient);
+				}
+			}
+			BatchResult<Patient> result = new BatchResult<Patient>();
+			result.setItems(items);
+			result.setMissingIds(missingIds);
+			logger.traceExit(result);
+			return result;
+		} catch (Exception error) {
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * Read the version of the active patients, used to answer conditional reads
+	 * of the patient lists without reading them.
+	 *
+	 * @return the collection version
+	 * @throws SystemException the system exception
+	 */
+	public CollectionVersion readPatientVersion() throws SystemException {
+		updateCoalescer.flush();
+		return patientReads.execute(this::loadPatientVersion, READ_VERSION, updateCoalescer.getFlushCount());
+	}
+
+	/**
+	 * Read the version of the active patients, used to answer conditional reads
+	 * of the patient lists without reading them.
+	 *
+	 * @return the collection version
+	 * @throws SystemException the system exception
+	 */
+	private CollectionVersion loadPatientVersion() throws SystemException {
+		try {
+			logger.traceEntry();
+			CollectionVersion version = patientMapper.readPatientVersion();
+			logger.traceExit(version);
+			return version;
+		} catch (Exception error) {
+			throw new SystemException(error.getMessage());
+		}
+	}
+
 	/**
 	 * Read patient by id.
 	 *
@@ -97,18 +388,29 @@ public class PatientOperationDelegate {
 	 * @throws SystemException   the system exception
 	 */
 	public Patient readPatientById(int id) throws BusinessException, SystemException {
+		Patient pending = updateCoalescer.pending(id);
+		return updateCoalescer.overlay(patientReads.execute(() -> loadPatientById(id), READ_BY_ID, id, null), pending);
+	}
+
+	/**
+	 * Read patient by id.
+	 *
+	 * @param id the id
+	 * @return the stored patient, without pending updates
+	 * @throws BusinessException the business exception
+	 * @throws SystemException   the system exception
+	 */
+	private Patient loadPatientById(int id) throws BusinessException, SystemException {
 		try {
 			logger.entry(id);
-			Patient patient = patientMapper.readPatientById(id);
-			logger.traceExit(patient);
+			Patient patient = patientCache.get(id, patientMapper::readPatientById);
 			if (patient == null) {
-				throw new PatientNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
-						+ ApplicationConstant.PATIENT_NOT_FOUND);
+				throw NotFoundException.PATIENT;
 			}
 			logger.traceExit(patient);
 			return patient;
-		} catch (PatientNotFoundException error) {
-			throw new BusinessException(error.getMessage());
+		} catch (NotFoundException error) {
+			throw error;
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
 		}
@@ -122,26 +424,34 @@ public class PatientOperationDelegate {
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
+	@Transactional(rollbackFor = SystemException.class)
 	public boolean deletePatient(Patient patient) throws BusinessException, SystemException {
 		try {
 			logger.entry(patient);
 
-			int result = userMapper.deleteUserById(patient.getId());
-			if (result == 0) {
-				throw new PatientNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
-						+ ApplicationConstant.PATIENT_NOT_FOUND);
+			int result;
+			if (writeRoutines) {
+				result = patientMapper.callPatientDelete(patient.getId());
+			} else {
+				result = userMapper.deleteUserById(patient.getId());
+				if (result != NumericConstants.ZERO) {
+					result = patientMapper.deletePatientById(patient.getId());
+				}
 			}
-			result = patientMapper.deletePatientById(patient.getId());
-			if (result == 0) {
+			if (result == NumericConstants.ZERO) {
 				throw new PatientNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
 						+ ApplicationConstant.PATIENT_NOT_FOUND);
 			}
+			updateCoalescer.discard(patient.getId());
+			rosterView.patientDeleted(patient.getId());
 			logger.traceExit();
 			return true;
 		} catch (PatientNotFoundException error) {
 			throw new BusinessException(error.getMessage());
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
+		} finally {
+			patientCache.invalidate(patient.getId());
 		}
 	}
 
@@ -153,26 +463,41 @@ public class PatientOperationDelegate {
 	 * @throws BusinessException the business exception
 	 * @throws SystemException   the system exception
 	 */
+	@Transactional(rollbackFor = SystemException.class)
 	public boolean updatePatient(Patient patient) throws BusinessException, SystemException {
 		try {
 			logger.entry(patient);
-
-			int result = userMapper.updateUser(patient);
-			if (result == 0) {
-				throw new PatientNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
-						+ ApplicationConstant.PATIENT_NOT_FOUND);
+			if (updateCoalescer.isEnabled()) {
+				if (patientCache.get(patient.getId(), patientMapper::readPatientById) == null) {
+					throw new PatientNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
+							+ ApplicationConstant.PATIENT_NOT_FOUND);
+				}
+				updateCoalescer.submit(patient);
+				logger.traceExit();
+				return true;
+			}
+			int result;
+			if (writeRoutines) {
+				result = patientMapper.callPatientUpdate(patient);
+			} else {
+				result = userMapper.updateUser(patient);
+				if (result != NumericConstants.ZERO) {
+					result = patientMapper.updatePatient(patient);
+				}
 			}
-			result = patientMapper.updatePatient(patient);
-			if (result == 0) {
+			if (result == NumericConstants.ZERO) {
 				throw new PatientNotFoundException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
 						+ ApplicationConstant.PATIENT_NOT_FOUND);
 			}
+			rosterView.patientUpdated(patient.getId());
 			logger.traceExit();
 			return true;
 		} catch (PatientNotFoundException error) {
 			throw new BusinessException(error.getMessage());
 		} catch (Exception error) {
 			throw new SystemException(error.getMessage());
+		} finally {
+			patientCache.invalidate(patient.getId());
 		}
 	}
 }
@@ -0,0 +1,383 @@
+package global.coda.hospitalmanagement.delegate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.SystemException;
+import global.coda.hospitalmanagement.model.CoalescingStatistics;
+import global.coda.hospitalmanagement.model.ItemResult;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ * Opt-in write coalescing of patient updates. An update replaces every
+ * updatable field, so updates of the same patient within one window collapse
+ * into the last one, kept in a striped in-memory buffer. A single flush thread
+ * writes the buffer every window with the batched updates of
+ * {@link BatchWriteDelegate}, and once more on shutdown.
+ *
+ * Reads by id see the pending update laid over the stored row.
+ * Reads of many patients call {@link #flush()} before they are shared with
+ * other callers, which waits until everything submitted before it is written.
+ *
+ * An update that fails to be written goes back into the buffer, unless a newer
+ * update of the patient is pending, and is given up after
+ * hms.patient.update-coalescing.max-attempts writes.
+ *
+ * @author Vishal
+ *
+ */
+@Service
+public class PatientUpdateCoalescer {
+
+	/** The logger. */
+	private final Logger logger = LogManager.getLogger(PatientUpdateCoalescer.class);
+
+	/** The batch write delegate. */
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
+	/** Whether updates are coalesced. */
+	@Value("${hms.patient.update-coalescing.enabled:false}")
+	private boolean enabled;
+
+	/** The time between flushes. */
+	@Value("${hms.patient.update-coalescing.window-millis:500}")
+	private long windowMillis;
+
+	/** The number of stripes of the buffer. */
+	@Value("${hms.patient.update-coalescing.stripes:16}")
+	private int stripeCount;
+
+	/** The number of updates written together. */
+	@Value("${hms.bulk.chunk-size:1000}")
+	private int chunkSize;
+
+	/** The number of times an update is written before it is given up. */
+	@Value("${hms.patient.update-coalescing.max-attempts:3}")
+	private int maxAttempts;
+
+	/** The pending updates by patient id, each stripe guarded by itself. */
+	private final List<Map<Integer, Patient>> stripes = new ArrayList<Map<Integer, Patient>>();
+
+	/** The updates being written by the flush thread. */
+	private volatile Map<Integer, Patient> inFlight = Collections.emptyMap();
+
+	/** The failed attempts of the updates put back for a retry, used by the flush thread only. */
+	private final Map<Integer, Integer> attempts = new HashMap<Integer, Integer>();
+
+	/** The number of flushes that wrote updates. */
+	private final AtomicLong flushCount = new AtomicLong();
+
+	/** The number of flushes in which an update failed. */
+	private final LongAdder failedFlushCount = new LongAdder();
+
+	/** The number of failed updates put back for a retry. */
+	private final LongAdder retriedCount = new LongAdder();
+
+	/** The number of updates given up after their last attempt. */
+	private final LongAdder droppedCount = new LongAdder();
+
+	/** The flush thread. */
+	private ScheduledExecutorService flusher;
+
+	/**
+	 * Starts the flush thread when coalescing is enabled.
+	 */
+	@PostConstruct
+	public void init() {
+		if (!enabled) {
+			return;
+		}
+		for (int stripe = 0; stripe < stripeCount; stripe++) {
+			stripes.add(new HashMap<Integer, Patient>());
+		}
+		flusher = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("patient-update-flush").setDaemon(true).build());
+		flusher.scheduleWithFixedDelay(this::drain, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Writes what is still pending as the last task of the flush thread, retrying
+	 * failed updates, and waits until the flush thread ended.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@PreDestroy
+	public void destroy() throws InterruptedException {
+		if (!enabled) {
+			return;
+		}
+		flusher.execute(() -> {
+			for (int attempt = 0; attempt < maxAttempts && getPendingCount() > 0; attempt++) {
+				drain();
+			}
+		});
+		flusher.shutdown();
+		while (!flusher.awaitTermination(windowMillis, TimeUnit.MILLISECONDS)) {
+			logger.warn("Waiting for the last coalesced patient updates to be written");
+		}
+	}
+
+	/**
+	 * Checks if updates are coalesced.
+	 *
+	 * @return true, if enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Buffer an update, replacing a pending update of the same patient.
+	 *
+	 * @param patient the patient
+	 */
+	public void submit(Patient patient) {
+		patient.setLastModified(new Date());
+		Map<Integer, Patient> stripe = stripe(patient.getId());
+		synchronized (stripe) {
+			stripe.put(patient.getId(), patient);
+		}
+	}
+
+	/**
+	 * Gets the pending update of a patient, buffered or being written. Take it
+	 * before reading the stored row: once the update is no longer pending, it is
+	 * written.
+	 *
+	 * @param id the patient id
+	 * @return the pending update, or null if nothing is pending
+	 */
+	public Patient pending(int id) {
+		if (!enabled) {
+			return null;
+		}
+		Patient pending;
+		Map<Integer, Patient> stripe = stripe(id);
+		synchronized (stripe) {
+			pending = stripe.get(id);
+		}
+		return pending != null ? pending : inFlight.get(id);
+	}
+
+	/**
+	 * Drop the pending update of a patient, when the patient is deleted.
+	 *
+	 * @param id the patient id
+	 */
+	public void discard(int id) {
+		if (!enabled) {
+			return;
+		}
+		Map<Integer, Patient> stripe = stripe(id);
+		synchronized (stripe) {
+			stripe.remove(id);
+		}
+	}
+
+	/**
+	 * Lay a pending update of a patient over its stored row.
+	 *
+	 * @param stored  the stored patient, not modified
+	 * @param pending the pending update, taken before the stored row was read
+	 * @return a copy with the pending fields, or the stored patient if nothing is
+	 *         pending
+	 */
+	public Patient overlay(Patient stored, Patient pending) {
+		if (pending == null) {
+			return stored;
+		}
+		Patient patient = new Patient();
+		BeanUtils.copyProperties(stored, patient);
+		patient.setPassword(pending.getPassword());
+		patient.setFirstName(pending.getFirstName());
+		patient.setLastName(pending.getLastName());
+		patient.setCity(pending.getCity());
+		patient.setState(pending.getState());
+		patient.setPhoneNumber(pending.getPhoneNumber());
+		patient.setBloodGroup(pending.getBloodGroup());
+		patient.setWeight(pending.getWeight());
+		patient.setLastModified(pending.getLastModified());
+		return patient;
+	}
+
+	/**
+	 * Write every update submitted so far and wait for it.
+	 *
+	 * @throws SystemException the system exception
+	 */
+	public void flush() throws SystemException {
+		if (!enabled) {
+			return;
+		}
+		try {
+			flusher.submit(this::drain).get();
+		} catch (ExecutionException error) {
+			throw new SystemException(error.getMessage());
+		} catch (InterruptedException error) {
+			Thread.currentThread().interrupt();
+			throw new SystemException(error.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the number of flushes that wrote updates. Reads of many patients that
+	 * are shared between callers are keyed on it, so a caller whose update was
+	 * flushed never joins a read that started before the write.
+	 *
+	 * @return the flush count
+	 */
+	public long getFlushCount() {
+		return flushCount.get();
+	}
+
+	/**
+	 * Gets the statistics.
+	 *
+	 * @return the statistics
+	 */
+	public CoalescingStatistics getStatistics() {
+		CoalescingStatistics statistics = new CoalescingStatistics();
+		statistics.setEnabled(enabled);
+		statistics.setPendingCount(getPendingCount());
+		statistics.setFlushCount(flushCount.get());
+		statistics.setFailedFlushCount(failedFlushCount.sum());
+		statistics.setRetriedCount(retriedCount.sum());
+		statistics.setDroppedCount(droppedCount.sum());
+		return statistics;
+	}
+
+	/**
+	 * Gets the number of buffered updates.
+	 *
+	 * @return the pending count
+	 */
+	private int getPendingCount() {
+		int pending = 0;
+		for (Map<Integer, Patient> stripe : stripes) {
+			synchronized (stripe) {
+				pending += stripe.size();
+			}
+		}
+		return pending;
+	}
+
+	/**
+	 * Take the pending updates out of the buffer and write them. Runs on the
+	 * flush thread only, so flushes never overlap. The batch is published before
+	 * the first update leaves the buffer, so a pending update is always in one of
+	 * them. Failed updates go back into the buffer before the batch is
+	 * unpublished.
+	 */
+	private void drain() {
+		Map<Integer, Patient> batch = new ConcurrentHashMap<Integer, Patient>();
+		inFlight = batch;
+		for (Map<Integer, Patient> stripe : stripes) {
+			synchronized (stripe) {
+				batch.putAll(stripe);
+				stripe.clear();
+			}
+		}
+		if (batch.isEmpty()) {
+			inFlight = Collections.emptyMap();
+			return;
+		}
+		List<Patient> failed = new ArrayList<Patient>();
+		try {
+			for (List<Patient> chunk : Lists.partition(new ArrayList<Patient>(batch.values()), chunkSize)) {
+				try {
+					for (ItemResult result : batchWriteDelegate.updatePatients(chunk)) {
+						if (result.getStatus() != HttpStatusConstant.OK) {
+							logger.warn("Coalesced update of patient {} failed: {}", chunk.get(result.getIndex()).getId(), result.getMessage());
+							failed.add(chunk.get(result.getIndex()));
+						}
+					}
+				} catch (RuntimeException error) {
+					logger.error("Flushing {} coalesced patient updates failed: {}", chunk.size(), error.getMessage());
+					failed.addAll(chunk);
+				}
+			}
+			logger.debug("Flushed {} coalesced patient updates, {} failed", batch.size(), failed.size());
+			retry(failed);
+		} finally {
+			flushCount.incrementAndGet();
+			inFlight = Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * Put failed updates back into the buffer for the next flush. An update is
+	 * given up after its last attempt, and never replaces a newer update of the
+	 * same patient. Runs on the flush thread only.
+	 *
+	 * @param failed the failed updates
+	 */
+	private void retry(List<Patient> failed) {
+		Set<Integer> failedIds = new HashSet<Integer>();
+		for (Patient patient : failed) {
+			failedIds.add(patient.getId());
+		}
+		attempts.keySet().retainAll(failedIds);
+		if (failed.isEmpty()) {
+			return;
+		}
+		failedFlushCount.increment();
+		for (Patient patient : failed) {
+			int attempt = attempts.merge(patient.getId(), 1, Integer::sum);
+			if (attempt >= maxAttempts) {
+				attempts.remove(patient.getId());
+				droppedCount.increment();
+				logger.error("Gave up the coalesced update of patient {} after {} attempts", patient.getId(), attempt);
+				continue;
+			}
+			boolean putBack;
+			Map<Integer, Patient> stripe = stripe(patient.getId());
+			synchronized (stripe) {
+				putBack = stripe.putIfAbsent(patient.getId(), patient) == null;
+			}
+			if (putBack) {
+				retriedCount.increment();
+			} else {
+				attempts.remove(patient.getId());
+			}
+		}
+	}
+
+	/**
+	 * Gets the stripe of a patient.
+	 *
+	 * @param id the patient id
+	 * @return the stripe
+	 */
+	private Map<Integer, Patient> stripe(int id) {
+		return stripes.get(Math.floorMod(id, stripes.size()));
+	}
+
+}
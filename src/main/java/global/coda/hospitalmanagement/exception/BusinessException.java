@@ -18,4 +18,15 @@ public class BusinessException extends RuntimeException {
 	public BusinessException(String msg) {
 		super(msg);
 	}
+
+	/**
+	 * Instantiates a new business exception without suppression and, unless
+	 * writable, without a stack trace.
+	 *
+	 * @param msg                the msg
+	 * @param writableStackTrace whether the stack trace is captured
+	 */
+	protected BusinessException(String msg, boolean writableStackTrace) {
+		super(msg, null, false, writableStackTrace);
+	}
 }
@@ -0,0 +1,35 @@
+package global.coda.hospitalmanagement.exception;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+
+/**
+ * A lookup by id found nothing. Misses are common and expected, so the shared
+ * instances carry no stack trace and cost nothing to throw.
+ *
+ * @author Vishal
+ *
+ */
+public final class NotFoundException extends BusinessException {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	/** The patient was not found. */
+	public static final NotFoundException PATIENT = new NotFoundException(ApplicationConstant.PATIENT_NOT_FOUND);
+
+	/** The doctor was not found. */
+	public static final NotFoundException DOCTOR = new NotFoundException(ApplicationConstant.DOCTOR_NOT_FOUND);
+
+	/** The record was not found. */
+	public static final NotFoundException RECORD = new NotFoundException(ApplicationConstant.RECORD_NOT_FOUND);
+
+	/**
+	 * Instantiates a new not found exception.
+	 *
+	 * @param errorMessage the error message
+	 */
+	private NotFoundException(String errorMessage) {
+		super(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + errorMessage, false);
+	}
+}
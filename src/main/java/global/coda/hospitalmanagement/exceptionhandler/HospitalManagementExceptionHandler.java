@@ -1,5 +1,7 @@
 package global.coda.hospitalmanagement.exceptionhandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.http.HttpStatus;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import global.coda.hospitalmanagement.constant.ApplicationConstant;
 import global.coda.hospitalmanagement.constant.HttpStatusConstant;
 import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.NotFoundException;
 import global.coda.hospitalmanagement.exception.SystemException;
 import global.coda.hospitalmanagement.model.CustomResponseBody;
 
@@ -40,6 +43,22 @@ public class HospitalManagementExceptionHandler {
 		return new ResponseEntity<CustomResponseBody<String>>(response, HttpStatus.NOT_FOUND);
 	}
 
+	/**
+	 * Not found exception. Lookups of missing ids are routine, so they are not
+	 * logged as errors.
+	 *
+	 * @param error the error
+	 * @return the response entity
+	 */
+	@ExceptionHandler(value = NotFoundException.class)
+	public ResponseEntity<CustomResponseBody<String>> notFoundException(NotFoundException error) {
+		logger.debug(error.getMessage());
+		CustomResponseBody<String> response = new CustomResponseBody<String>();
+		response.setStatus(HttpStatusConstant.BAD_REQUEST);
+		response.setMessage(error.getMessage());
+		return new ResponseEntity<CustomResponseBody<String>>(response, HttpStatus.NOT_FOUND);
+	}
+
 	/**
 	 * System exception.
 	 *
@@ -57,4 +76,20 @@ public class HospitalManagementExceptionHandler {
 		return new ResponseEntity<CustomResponseBody<String>>(response, HttpStatus.INTERNAL_SERVER_ERROR);
 	}
 
+	/**
+	 * Rejected execution, the bulkhead of the request is full. Answered at once
+	 * so the client can back off instead of waiting in a queue.
+	 *
+	 * @param error the error
+	 * @return the response entity
+	 */
+	@ExceptionHandler(value = RejectedExecutionException.class)
+	public ResponseEntity<CustomResponseBody<String>> rejectedExecution(RejectedExecutionException error) {
+		logger.warn(error.getMessage());
+		CustomResponseBody<String> response = new CustomResponseBody<String>();
+		response.setStatus(HttpStatusConstant.SERVICE_UNAVAILABLE);
+		response.setMessage(ApplicationConstant.SERVICE_BUSY);
+		return new ResponseEntity<CustomResponseBody<String>>(response, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
 }
@@ -1,16 +1,26 @@
 package global.coda.hospitalmanagement.mapper;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.apache.ibatis.annotations.CacheNamespaceRef;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.StatementType;
 
 import global.coda.hospitalmanagement.constant.DoctorSqlQueryConstant;
 import global.coda.hospitalmanagement.constant.RecordDetailsSqlQueryConstant;
+import global.coda.hospitalmanagement.model.CollectionVersion;
 import global.coda.hospitalmanagement.model.Doctor;
 import global.coda.hospitalmanagement.model.RecordData;
 
@@ -20,6 +30,7 @@ import global.coda.hospitalmanagement.model.RecordData;
  *
  */
 @Mapper
+@CacheNamespaceRef(PatientMapper.class)
 public interface DoctorMapper {
 
 	/**
@@ -29,12 +40,22 @@ public interface DoctorMapper {
 	 * @return the doctor
 	 */
 	@Select(DoctorSqlQueryConstant.DOCTOR_SELECT_BY_ID)
-	@Results({ @Result(property = "id", column = "pk_user_id"), @Result(property = "userId", column = "fk_user_id"),
+	@Results(id = "doctorResult", value = { @Result(property = "id", column = "pk_user_id"), @Result(property = "userId", column = "fk_user_id"),
 		@Result(property = "doctorId", column = "pk_doctor_id"),
 		@Result(property = "roleId", column = "fk_role_id"),
 		@Result(property = "specilization", column = "doctor_specialization") })
 	Doctor readDoctorById(int id);
 
+	/**
+	 * Read the doctors with the given ids in one query.
+	 *
+	 * @param ids the ids
+	 * @return the list
+	 */
+	@Select(DoctorSqlQueryConstant.DOCTOR_SELECT_BY_IDS)
+	@ResultMap("doctorResult")
+	List<Doctor> readDoctorByIds(@Param("ids") Collection<Integer> ids);
+
 	/**
 	 * Read all doctor.
 	 *
@@ -47,6 +68,40 @@ public interface DoctorMapper {
 		@Result(property = "specilization", column = "doctor_specialization") })
 	List<Doctor> readAllDoctor();
 
+	/**
+	 * Read the version of the active doctors, their count and latest change.
+	 *
+	 * @return the collection version
+	 */
+	@Select(DoctorSqlQueryConstant.DOCTOR_SELECT_VERSION)
+	CollectionVersion readDoctorVersion();
+
+	/**
+	 * Read doctors with only the given columns, either one by id, one page
+	 * after the given id or all of them.
+	 *
+	 * @param columns the columns
+	 * @param id      the id, may be null
+	 * @param after   the last user id of the previous page
+	 * @param limit   the maximum number of rows, may be null
+	 * @return the list
+	 */
+	@SelectProvider(type = ProjectionSqlProvider.class, method = "selectDoctors")
+	@ResultMap("doctorResult")
+	List<Doctor> readDoctorProjection(@Param("columns") String columns, @Param("id") Integer id,
+			@Param("after") Integer after, @Param("limit") Integer limit);
+
+	/**
+	 * Read one page of doctors ordered by user id, starting after the given id.
+	 *
+	 * @param after the last user id of the previous page
+	 * @param limit the maximum number of rows
+	 * @return the list
+	 */
+	@Select(DoctorSqlQueryConstant.DOCTOR_SELECT_PAGE)
+	@ResultMap("doctorResult")
+	List<Doctor> readDoctorPage(@Param("after") int after, @Param("limit") int limit);
+
 	/**
 	 * Creates the doctor.
 	 *
@@ -65,6 +120,15 @@ public interface DoctorMapper {
 	@Update(DoctorSqlQueryConstant.DOCTOR_DELETE_BY_ID)
 	int deleteDoctorById(int id);
 
+	/**
+	 * Delete doctors by ids.
+	 *
+	 * @param ids the ids
+	 * @return the number of doctors deleted
+	 */
+	@Update(DoctorSqlQueryConstant.DOCTOR_DELETE_BY_IDS)
+	int deleteDoctorsByIds(@Param("ids") Collection<Integer> ids);
+
 	/**
 	 * Update doctor.
 	 *
@@ -75,19 +139,54 @@ public interface DoctorMapper {
 	int updateDoctor(Doctor doctor);
 
 	/**
-	 * Read all record.
+	 * Stream all records ordered by doctor id. The cursor has to be consumed
+	 * inside a transaction.
 	 *
-	 * @return the list
+	 * @return the cursor
 	 */
 	@Select(RecordDetailsSqlQueryConstant.READ_ALL_RECORD)
-	List<RecordData> readAllRecord();
+	@Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+	Cursor<RecordData> streamAllRecord();
 
 	/**
-	 * Read record by id.
+	 * Read record by id. Not kept in the second level cache, the rosters built
+	 * from it are kept by RosterView until they expire.
 	 *
 	 * @param id the id
 	 * @return the list
 	 */
 	@Select(RecordDetailsSqlQueryConstant.READ_RECORD_BY_DOCTOR_ID)
+	@Options(useCache = false)
 	List<RecordData> readRecordById(int id);
+
+	/**
+	 * Create the user and doctor rows in one call.
+	 *
+	 * @param doctor the doctor
+	 * @return the new user id
+	 */
+	@Select(DoctorSqlQueryConstant.DOCTOR_CREATE_CALL)
+	@Options(statementType = StatementType.CALLABLE, useCache = false, flushCache = Options.FlushCachePolicy.TRUE)
+	int callDoctorCreate(Doctor doctor);
+
+	/**
+	 * Update the user and doctor rows in one call.
+	 *
+	 * @param doctor the doctor
+	 * @return the number of users updated
+	 */
+	@Select(DoctorSqlQueryConstant.DOCTOR_UPDATE_CALL)
+	@Options(statementType = StatementType.CALLABLE, useCache = false, flushCache = Options.FlushCachePolicy.TRUE)
+	int callDoctorUpdate(Doctor doctor);
+
+	/**
+	 * Soft delete the user and doctor rows in one call.
+	 *
+	 * @param id the id
+	 * @return the number of users deleted
+	 */
+	@Select(DoctorSqlQueryConstant.DOCTOR_DELETE_CALL)
+	@Options(statementType = StatementType.CALLABLE, useCache = false, flushCache = Options.FlushCachePolicy.TRUE)
+	int callDoctorDelete(@Param("id") int id);
+
 }
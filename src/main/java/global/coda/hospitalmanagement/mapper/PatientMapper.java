@@ -1,23 +1,42 @@
 package global.coda.hospitalmanagement.mapper;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.apache.ibatis.annotations.CacheNamespace;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Property;
 import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.ResultMap;
 import org.apache.ibatis.annotations.Results;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.StatementType;
 
+import global.coda.hospitalmanagement.cache.BoundedMemoryCache;
+import global.coda.hospitalmanagement.constant.CacheConstant;
 import global.coda.hospitalmanagement.constant.PatientSqlQueryConstant;
+import global.coda.hospitalmanagement.model.CollectionVersion;
 import global.coda.hospitalmanagement.model.Patient;
 
 /**
+ * Owns the second level cache shared with {@link DoctorMapper} and
+ * {@link UserMapper}. Their selects join the same user rows, so a write through
+ * any of the three flushes the whole namespace.
  *
  * @author Vishal
  *
  */
 @Mapper
+@CacheNamespace(implementation = BoundedMemoryCache.class, readWrite = false, properties = {
+		@Property(name = CacheConstant.MAX_BYTES, value = CacheConstant.MAPPER_CACHE_MAX_BYTES),
+		@Property(name = CacheConstant.ROW_BYTES, value = CacheConstant.MAPPER_CACHE_ROW_BYTES) })
 public interface PatientMapper {
 
 	/**
@@ -27,11 +46,21 @@ public interface PatientMapper {
 	 * @return the patient
 	 */
 	@Select(PatientSqlQueryConstant.PATIENT_SELECT_BY_ID)
-	@Results({ @Result(property = "id", column = "pk_user_id"), @Result(property = "userId", column = "fk_user_id"),
+	@Results(id = "patientResult", value = { @Result(property = "id", column = "pk_user_id"), @Result(property = "userId", column = "fk_user_id"),
 		@Result(property = "patientId", column = "pk_patient_id"),
 		@Result(property = "roleId", column = "fk_role_id") })
 	Patient readPatientById(int id);
 
+	/**
+	 * Read the patients with the given ids in one query.
+	 *
+	 * @param ids the ids
+	 * @return the list
+	 */
+	@Select(PatientSqlQueryConstant.PATIENT_SELECT_BY_IDS)
+	@ResultMap("patientResult")
+	List<Patient> readPatientByIds(@Param("ids") Collection<Integer> ids);
+
 	/**
 	 * Read all patient.
 	 *
@@ -43,6 +72,52 @@ public interface PatientMapper {
 		@Result(property = "roleId", column = "fk_role_id") })
 	List<Patient> readAllPatient();
 
+	/**
+	 * Read the version of the active patients, their count and latest change.
+	 *
+	 * @return the collection version
+	 */
+	@Select(PatientSqlQueryConstant.PATIENT_SELECT_VERSION)
+	CollectionVersion readPatientVersion();
+
+	/**
+	 * Stream all patients. The MySQL driver only streams rows one by one when
+	 * the fetch size is Integer.MIN_VALUE on a forward only result set, the
+	 * cursor has to be consumed inside a transaction.
+	 *
+	 * @return the cursor
+	 */
+	@Select(PatientSqlQueryConstant.PATIENT_SELECT_ALL)
+	@Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+	@ResultMap("patientResult")
+	Cursor<Patient> streamAllPatient();
+
+	/**
+	 * Read patients with only the given columns, either one by id, one page
+	 * after the given id or all of them.
+	 *
+	 * @param columns the columns
+	 * @param id      the id, may be null
+	 * @param after   the last user id of the previous page
+	 * @param limit   the maximum number of rows, may be null
+	 * @return the list
+	 */
+	@SelectProvider(type = ProjectionSqlProvider.class, method = "selectPatients")
+	@ResultMap("patientResult")
+	List<Patient> readPatientProjection(@Param("columns") String columns, @Param("id") Integer id,
+			@Param("after") Integer after, @Param("limit") Integer limit);
+
+	/**
+	 * Read one page of patients ordered by user id, starting after the given id.
+	 *
+	 * @param after the last user id of the previous page
+	 * @param limit the maximum number of rows
+	 * @return the list
+	 */
+	@Select(PatientSqlQueryConstant.PATIENT_SELECT_PAGE)
+	@ResultMap("patientResult")
+	List<Patient> readPatientPage(@Param("after") int after, @Param("limit") int limit);
+
 	/**
 	 * Creates the patient.
 	 *
@@ -61,6 +136,15 @@ public interface PatientMapper {
 	@Update(PatientSqlQueryConstant.PATIENT_DELETE_BY_ID)
 	int deletePatientById(int id);
 
+	/**
+	 * Delete patients by ids.
+	 *
+	 * @param ids the ids
+	 * @return the number of patients deleted
+	 */
+	@Update(PatientSqlQueryConstant.PATIENT_DELETE_BY_IDS)
+	int deletePatientsByIds(@Param("ids") Collection<Integer> ids);
+
 	/**
 	 * Update patient.
 	 *
@@ -70,4 +154,34 @@ public interface PatientMapper {
 	@Update(PatientSqlQueryConstant.PATIENT_UPDATE_BY_ID)
 	int updatePatient(Patient patient);
 
+	/**
+	 * Create the user and patient rows in one call.
+	 *
+	 * @param patient the patient
+	 * @return the new user id
+	 */
+	@Select(PatientSqlQueryConstant.PATIENT_CREATE_CALL)
+	@Options(statementType = StatementType.CALLABLE, useCache = false, flushCache = Options.FlushCachePolicy.TRUE)
+	int callPatientCreate(Patient patient);
+
+	/**
+	 * Update the user and patient rows in one call.
+	 *
+	 * @param patient the patient
+	 * @return the number of users updated
+	 */
+	@Select(PatientSqlQueryConstant.PATIENT_UPDATE_CALL)
+	@Options(statementType = StatementType.CALLABLE, useCache = false, flushCache = Options.FlushCachePolicy.TRUE)
+	int callPatientUpdate(Patient patient);
+
+	/**
+	 * Soft delete the user and patient rows in one call.
+	 *
+	 * @param id the id
+	 * @return the number of users deleted
+	 */
+	@Select(PatientSqlQueryConstant.PATIENT_DELETE_CALL)
+	@Options(statementType = StatementType.CALLABLE, useCache = false, flushCache = Options.FlushCachePolicy.TRUE)
+	int callPatientDelete(@Param("id") int id);
+
 }
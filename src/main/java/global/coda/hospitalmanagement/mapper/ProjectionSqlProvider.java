@@ -0,0 +1,55 @@
+package global.coda.hospitalmanagement.mapper;
+
+import java.util.Map;
+
+import global.coda.hospitalmanagement.constant.DoctorSqlQueryConstant;
+import global.coda.hospitalmanagement.constant.PatientSqlQueryConstant;
+import global.coda.hospitalmanagement.constant.ProjectionConstant;
+
+/**
+ * Builds the column projected selects. The columns come from a
+ * {@link global.coda.hospitalmanagement.util.FieldProjection} and are therefore
+ * always one of the whitelisted columns; values stay bound parameters.
+ *
+ * @author Vishal
+ */
+public class ProjectionSqlProvider {
+
+	/**
+	 * Select patients.
+	 *
+	 * @param params the mapper parameters
+	 * @return the sql
+	 */
+	public String selectPatients(Map<String, Object> params) {
+		return select(PatientSqlQueryConstant.PATIENT_PROJECTION_FROM, params);
+	}
+
+	/**
+	 * Select doctors.
+	 *
+	 * @param params the mapper parameters
+	 * @return the sql
+	 */
+	public String selectDoctors(Map<String, Object> params) {
+		return select(DoctorSqlQueryConstant.DOCTOR_PROJECTION_FROM, params);
+	}
+
+	/**
+	 * Select the columns from the given source, narrowed to one id or one page.
+	 *
+	 * @param from   the from and where clause
+	 * @param params the mapper parameters
+	 * @return the sql
+	 */
+	private String select(String from, Map<String, Object> params) {
+		StringBuilder sql = new StringBuilder("select ").append(params.get("columns")).append(from);
+		if (params.get("id") != null) {
+			sql.append(ProjectionConstant.USER_BY_ID);
+		} else if (params.get("limit") != null) {
+			sql.append(ProjectionConstant.USER_KEYSET);
+		}
+		return sql.toString();
+	}
+
+}
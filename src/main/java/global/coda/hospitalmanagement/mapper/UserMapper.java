@@ -1,7 +1,15 @@
 package global.coda.hospitalmanagement.mapper;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.ibatis.annotations.CacheNamespaceRef;
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
 import global.coda.hospitalmanagement.constant.UserSqlQueryConstant;
@@ -12,6 +20,7 @@ import global.coda.hospitalmanagement.model.UserDetails;
  * @author Vishal
  *
  */
+@CacheNamespaceRef(PatientMapper.class)
 public interface UserMapper {
 
 	/**
@@ -33,6 +42,26 @@ public interface UserMapper {
 	@Update(UserSqlQueryConstant.USER_DELETE_BY_ID)
 	int deleteUserById(int id);
 
+	/**
+	 * Read and lock the active users of a role among the given ids.
+	 *
+	 * @param roleId the role id
+	 * @param ids    the ids
+	 * @return the active ids
+	 */
+	@Select(UserSqlQueryConstant.USER_ACTIVE_IDS)
+	@Options(useCache = false, flushCache = Options.FlushCachePolicy.FALSE)
+	List<Integer> readActiveUserIds(@Param("roleId") int roleId, @Param("ids") Collection<Integer> ids);
+
+	/**
+	 * Delete users by ids.
+	 *
+	 * @param ids the ids
+	 * @return the number of users deleted
+	 */
+	@Update(UserSqlQueryConstant.USER_DELETE_BY_IDS)
+	int deleteUsersByIds(@Param("ids") Collection<Integer> ids);
+
 	/**
 	 * Update user.
 	 *
@@ -42,4 +71,30 @@ public interface UserMapper {
 	@Update(UserSqlQueryConstant.UPDATE_BY_ID)
 	int updateUser(UserDetails user);
 
+	/**
+	 * Count the users with the given username, active or not. This is the
+	 * uniqueness check behind the username filter, so it always reads the table:
+	 * the second level cache would keep a count that other instances made stale.
+	 *
+	 * @param username the username
+	 * @return the count
+	 */
+	@Select(UserSqlQueryConstant.CHECK_USER_NAME)
+	@Options(useCache = false)
+	int countUserName(@Param("username") String username);
+
+	/**
+	 * Read one page of user ids and usernames after the given id. Only used to
+	 * load the username filter, so the pages are not kept in the second level
+	 * cache.
+	 *
+	 * @param after the last user id of the previous page
+	 * @param limit the page size
+	 * @return the users, only id and username are set
+	 */
+	@Select(UserSqlQueryConstant.USER_NAME_PAGE)
+	@Results({ @Result(property = "id", column = "pk_user_id") })
+	@Options(useCache = false)
+	List<UserDetails> readUserNamePage(@Param("after") int after, @Param("limit") int limit);
+
 }
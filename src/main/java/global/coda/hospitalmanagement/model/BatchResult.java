@@ -0,0 +1,66 @@
+package global.coda.hospitalmanagement.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Vishal
+ *
+ * @param <T> Result item
+ */
+public class BatchResult<T> {
+
+	/** The items that were found, keyed by id in request order. */
+	private Map<Integer, T> items;
+
+	/** The requested ids that were not found. */
+	private List<Integer> missingIds;
+
+	/**
+	 * Gets the items.
+	 *
+	 * @return the items
+	 */
+	public Map<Integer, T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Sets the items.
+	 *
+	 * @param items the items
+	 */
+	public void setItems(Map<Integer, T> items) {
+		this.items = items;
+	}
+
+	/**
+	 * Gets the missing ids.
+	 *
+	 * @return the missing ids
+	 */
+	public List<Integer> getMissingIds() {
+		return missingIds;
+	}
+
+	/**
+	 * Sets the missing ids.
+	 *
+	 * @param missingIds the new missing ids
+	 */
+	public void setMissingIds(List<Integer> missingIds) {
+		this.missingIds = missingIds;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "BatchResult [items=" + items + ", missingIds=" + missingIds + "]";
+	}
+
+}
@@ -0,0 +1,147 @@
+package global.coda.hospitalmanagement.model;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+public class CacheStatistics {
+
+	/** The cache name. */
+	private String name;
+
+	/** The estimated number of entries. */
+	private long size;
+
+	/** The hit count. */
+	private long hitCount;
+
+	/** The miss count. */
+	private long missCount;
+
+	/** The eviction count. */
+	private long evictionCount;
+
+	/** The hit rate. */
+	private double hitRate;
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets the name.
+	 *
+	 * @param name the new name
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets the size.
+	 *
+	 * @return the size
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * Sets the size.
+	 *
+	 * @param size the new size
+	 */
+	public void setSize(long size) {
+		this.size = size;
+	}
+
+	/**
+	 * Gets the hit count.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Sets the hit count.
+	 *
+	 * @param hitCount the new hit count
+	 */
+	public void setHitCount(long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	/**
+	 * Gets the miss count.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Sets the miss count.
+	 *
+	 * @param missCount the new miss count
+	 */
+	public void setMissCount(long missCount) {
+		this.missCount = missCount;
+	}
+
+	/**
+	 * Gets the eviction count.
+	 *
+	 * @return the eviction count
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Sets the eviction count.
+	 *
+	 * @param evictionCount the new eviction count
+	 */
+	public void setEvictionCount(long evictionCount) {
+		this.evictionCount = evictionCount;
+	}
+
+	/**
+	 * Gets the hit rate.
+	 *
+	 * @return the hit rate
+	 */
+	public double getHitRate() {
+		return hitRate;
+	}
+
+	/**
+	 * Sets the hit rate.
+	 *
+	 * @param hitRate the new hit rate
+	 */
+	public void setHitRate(double hitRate) {
+		this.hitRate = hitRate;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "CacheStatistics [name=" + name + ", size=" + size + ", hitCount=" + hitCount + ", missCount="
+				+ missCount + ", evictionCount=" + evictionCount + ", hitRate=" + hitRate + "]";
+	}
+
+}
@@ -0,0 +1,136 @@
+package global.coda.hospitalmanagement.model;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+public class CoalescingStatistics {
+
+	/** Whether updates are coalesced. */
+	private boolean enabled;
+
+	/** The number of buffered updates. */
+	private long pendingCount;
+
+	/** The number of flushes that wrote updates. */
+	private long flushCount;
+
+	/** The number of flushes in which an update failed. */
+	private long failedFlushCount;
+
+	/** The number of failed updates put back for a retry. */
+	private long retriedCount;
+
+	/** The number of updates given up after their last attempt. */
+	private long droppedCount;
+
+	/**
+	 * Checks if updates are coalesced.
+	 *
+	 * @return true, if enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets the enabled.
+	 *
+	 * @param enabled the new enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Gets the pending count.
+	 *
+	 * @return the pending count
+	 */
+	public long getPendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * Sets the pending count.
+	 *
+	 * @param pendingCount the new pending count
+	 */
+	public void setPendingCount(long pendingCount) {
+		this.pendingCount = pendingCount;
+	}
+
+	/**
+	 * Gets the flush count.
+	 *
+	 * @return the flush count
+	 */
+	public long getFlushCount() {
+		return flushCount;
+	}
+
+	/**
+	 * Sets the flush count.
+	 *
+	 * @param flushCount the new flush count
+	 */
+	public void setFlushCount(long flushCount) {
+		this.flushCount = flushCount;
+	}
+
+	/**
+	 * Gets the failed flush count.
+	 *
+	 * @return the failed flush count
+	 */
+	public long getFailedFlushCount() {
+		return failedFlushCount;
+	}
+
+	/**
+	 * Sets the failed flush count.
+	 *
+	 * @param failedFlushCount the new failed flush count
+	 */
+	public void setFailedFlushCount(long failedFlushCount) {
+		this.failedFlushCount = failedFlushCount;
+	}
+
+	/**
+	 * Gets the retried count.
+	 *
+	 * @return the retried count
+	 */
+	public long getRetriedCount() {
+		return retriedCount;
+	}
+
+	/**
+	 * Sets the retried count.
+	 *
+	 * @param retriedCount the new retried count
+	 */
+	public void setRetriedCount(long retriedCount) {
+		this.retriedCount = retriedCount;
+	}
+
+	/**
+	 * Gets the dropped count.
+	 *
+	 * @return the dropped count
+	 */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * Sets the dropped count.
+	 *
+	 * @param droppedCount the new dropped count
+	 */
+	public void setDroppedCount(long droppedCount) {
+		this.droppedCount = droppedCount;
+	}
+
+}
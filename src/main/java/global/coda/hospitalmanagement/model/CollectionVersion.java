@@ -0,0 +1,66 @@
+package global.coda.hospitalmanagement.model;
+
+import java.util.Date;
+
+/**
+ * The version of a collection of active users, changes whenever one is added,
+ * updated or removed.
+ *
+ * @author Vishal
+ *
+ */
+public class CollectionVersion {
+
+	/** The number of active users. */
+	private long total;
+
+	/** The last time one of them changed. */
+	private Date lastModified;
+
+	/**
+	 * Gets the total.
+	 *
+	 * @return the total
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Sets the total.
+	 *
+	 * @param total the new total
+	 */
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	/**
+	 * Gets the last modified.
+	 *
+	 * @return the last modified
+	 */
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Sets the last modified.
+	 *
+	 * @param lastModified the new last modified
+	 */
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "CollectionVersion [total=" + total + ", lastModified=" + lastModified + "]";
+	}
+
+}
@@ -9,12 +9,33 @@ import java.util.List;
  */
 public class DoctorPatientMapping {
 
+	/** The doctor id. */
+	private int doctorId;
+
 	/** The doctor name. */
 	private String doctorName;
 
 	/** The list of patients. */
 	private List<PatientRecordDetails> listOfPatients;
 
+	/**
+	 * Gets the doctor id.
+	 *
+	 * @return the doctor id
+	 */
+	public int getDoctorId() {
+		return doctorId;
+	}
+
+	/**
+	 * Sets the doctor id.
+	 *
+	 * @param doctorId the new doctor id
+	 */
+	public void setDoctorId(int doctorId) {
+		this.doctorId = doctorId;
+	}
+
 	/**
 	 * Gets the doctor name.
 	 *
@@ -58,7 +79,7 @@ public class DoctorPatientMapping {
 	 */
 	@Override
 	public String toString() {
-		return "DoctorPatientMapping [doctorName=" + doctorName + ", listOfPatients=" + listOfPatients + "]";
+		return "DoctorPatientMapping [doctorId=" + doctorId + ", doctorName=" + doctorName + ", listOfPatients=" + listOfPatients + "]";
 	}
 
 }
@@ -0,0 +1,233 @@
+package global.coda.hospitalmanagement.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a CSV import. Counters are updated by the reader, validation and
+ * writer threads while clients poll the job, only the first rejected rows are
+ * kept.
+ *
+ * @author Vishal
+ *
+ */
+public class ImportJob {
+
+	/**
+	 * The import states.
+	 */
+	public enum State {
+
+		/** Rows are being read and written. */
+		RUNNING,
+
+		/** Every row was written or rejected. */
+		COMPLETED,
+
+		/** The import stopped early, rows written before stay written. */
+		FAILED
+	}
+
+	/** The id. */
+	private final String id;
+
+	/** What is imported. */
+	private final String type;
+
+	/** The start time. */
+	private final Date startedAt = new Date();
+
+	/** The maximum number of rejected rows kept. */
+	private final int maxRejectedRows;
+
+	/** The rows read. */
+	private final AtomicLong rowsRead = new AtomicLong();
+
+	/** The rows created. */
+	private final AtomicLong rowsCreated = new AtomicLong();
+
+	/** The rows rejected. */
+	private final AtomicLong rowsRejected = new AtomicLong();
+
+	/** The first rejected rows. */
+	private final List<RejectedRow> rejectedRows = new ArrayList<RejectedRow>();
+
+	/** The state. */
+	private volatile State state = State.RUNNING;
+
+	/** The end time. */
+	private volatile Date finishedAt;
+
+	/** Why the import failed. */
+	private volatile String error;
+
+	/**
+	 * Instantiates a new import job.
+	 *
+	 * @param id              the id
+	 * @param type            the type
+	 * @param maxRejectedRows the maximum number of rejected rows kept
+	 */
+	public ImportJob(String id, String type, int maxRejectedRows) {
+		this.id = id;
+		this.type = type;
+		this.maxRejectedRows = maxRejectedRows;
+	}
+
+	/**
+	 * Count a read row.
+	 */
+	public void rowRead() {
+		rowsRead.incrementAndGet();
+	}
+
+	/**
+	 * Count a created row.
+	 */
+	public void rowCreated() {
+		rowsCreated.incrementAndGet();
+	}
+
+	/**
+	 * Count a rejected row and keep it if there is room.
+	 *
+	 * @param row     the row
+	 * @param message the message
+	 */
+	public void rowRejected(long row, String message) {
+		rowsRejected.incrementAndGet();
+		synchronized (rejectedRows) {
+			if (rejectedRows.size() < maxRejectedRows) {
+				rejectedRows.add(new RejectedRow(row, message));
+			}
+		}
+	}
+
+	/**
+	 * Mark the import failed, the first failure wins.
+	 *
+	 * @param error the error
+	 */
+	public synchronized void fail(String error) {
+		if (state == State.RUNNING) {
+			this.error = error;
+			state = State.FAILED;
+		}
+	}
+
+	/**
+	 * Mark the import finished.
+	 */
+	public synchronized void finish() {
+		if (state == State.RUNNING) {
+			state = State.COMPLETED;
+		}
+		finishedAt = new Date();
+	}
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return the id
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Gets the type.
+	 *
+	 * @return the type
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Gets the state.
+	 *
+	 * @return the state
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * Gets the error.
+	 *
+	 * @return the error
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * Gets the started at.
+	 *
+	 * @return the started at
+	 */
+	public Date getStartedAt() {
+		return startedAt;
+	}
+
+	/**
+	 * Gets the finished at.
+	 *
+	 * @return the finished at
+	 */
+	public Date getFinishedAt() {
+		return finishedAt;
+	}
+
+	/**
+	 * Gets the rows read.
+	 *
+	 * @return the rows read
+	 */
+	public long getRowsRead() {
+		return rowsRead.get();
+	}
+
+	/**
+	 * Gets the rows created.
+	 *
+	 * @return the rows created
+	 */
+	public long getRowsCreated() {
+		return rowsCreated.get();
+	}
+
+	/**
+	 * Gets the rows rejected.
+	 *
+	 * @return the rows rejected
+	 */
+	public long getRowsRejected() {
+		return rowsRejected.get();
+	}
+
+	/**
+	 * Gets a copy of the first rejected rows.
+	 *
+	 * @return the rejected rows
+	 */
+	public List<RejectedRow> getRejectedRows() {
+		synchronized (rejectedRows) {
+			return new ArrayList<RejectedRow>(rejectedRows);
+		}
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "ImportJob [id=" + id + ", type=" + type + ", state=" + state + ", rowsRead=" + rowsRead + ", rowsCreated="
+				+ rowsCreated + ", rowsRejected=" + rowsRejected + "]";
+	}
+
+}
@@ -0,0 +1,126 @@
+package global.coda.hospitalmanagement.model;
+
+/**
+ * The outcome of one item of a bulk request.
+ *
+ * @author Vishal
+ *
+ */
+public class ItemResult {
+
+	/** The position of the item in the request. */
+	private int index;
+
+	/** The user id, when known. */
+	private Integer id;
+
+	/** The status. */
+	private int status;
+
+	/** The message. */
+	private String message;
+
+	/**
+	 * Instantiates a new item result.
+	 */
+	public ItemResult() {
+	}
+
+	/**
+	 * Instantiates a new item result.
+	 *
+	 * @param index   the index
+	 * @param id      the id
+	 * @param status  the status
+	 * @param message the message
+	 */
+	public ItemResult(int index, Integer id, int status, String message) {
+		this.index = index;
+		this.id = id;
+		this.status = status;
+		this.message = message;
+	}
+
+	/**
+	 * Gets the index.
+	 *
+	 * @return the index
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Sets the index.
+	 *
+	 * @param index the new index
+	 */
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * Gets the id.
+	 *
+	 * @return the id
+	 */
+	public Integer getId() {
+		return id;
+	}
+
+	/**
+	 * Sets the id.
+	 *
+	 * @param id the new id
+	 */
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
+	/**
+	 * Gets the status.
+	 *
+	 * @return the status
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Sets the status.
+	 *
+	 * @param status the new status
+	 */
+	public void setStatus(int status) {
+		this.status = status;
+	}
+
+	/**
+	 * Gets the message.
+	 *
+	 * @return the message
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Sets the message.
+	 *
+	 * @param message the new message
+	 */
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "ItemResult [index=" + index + ", id=" + id + ", status=" + status + ", message=" + message + "]";
+	}
+
+}
@@ -0,0 +1,86 @@
+package global.coda.hospitalmanagement.model;
+
+import java.util.List;
+
+/**
+ *
+ * @author Vishal
+ *
+ * @param <T> Page item
+ */
+public class PagedResponse<T> {
+
+	/** The items of the current page. */
+	private List<T> items;
+
+	/** The page size that was applied. */
+	private int limit;
+
+	/** The cursor to request the next page with, null on the last page. */
+	private String nextCursor;
+
+	/**
+	 * Gets the items.
+	 *
+	 * @return the items
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Sets the items.
+	 *
+	 * @param items the new items
+	 */
+	public void setItems(List<T> items) {
+		this.items = items;
+	}
+
+	/**
+	 * Gets the limit.
+	 *
+	 * @return the limit
+	 */
+	public int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * Sets the limit.
+	 *
+	 * @param limit the new limit
+	 */
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	/**
+	 * Gets the next cursor.
+	 *
+	 * @return the next cursor
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * Sets the next cursor.
+	 *
+	 * @param nextCursor the new next cursor
+	 */
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "PagedResponse [items=" + items + ", limit=" + limit + ", nextCursor=" + nextCursor + "]";
+	}
+
+}
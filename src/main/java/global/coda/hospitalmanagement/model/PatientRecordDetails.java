@@ -1,5 +1,7 @@
 package global.coda.hospitalmanagement.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  *
  * @author Vishal
@@ -7,12 +9,34 @@ package global.coda.hospitalmanagement.model;
  */
 public class PatientRecordDetails {
 
+	/** The patient id, null when the patient is not active. */
+	@JsonIgnore
+	private Integer patientId;
+
 	/** The disease. */
 	private String disease;
 
 	/** The patient name. */
 	private String patientName;
 
+	/**
+	 * Gets the patient id.
+	 *
+	 * @return the patient id
+	 */
+	public Integer getPatientId() {
+		return patientId;
+	}
+
+	/**
+	 * Sets the patient id.
+	 *
+	 * @param patientId the new patient id
+	 */
+	public void setPatientId(Integer patientId) {
+		this.patientId = patientId;
+	}
+
 	/**
 	 * Gets the disease.
 	 *
@@ -56,7 +80,7 @@ public class PatientRecordDetails {
 	 */
 	@Override
 	public String toString() {
-		return "PatientRecordDetails [disease=" + disease + ", patientName=" + patientName + "]";
+		return "PatientRecordDetails [patientId=" + patientId + ", disease=" + disease + ", patientName=" + patientName + "]";
 	}
 
 }
@@ -7,6 +7,12 @@ package global.coda.hospitalmanagement.model;
  */
 public class RecordData {
 
+	/** The doctor id. */
+	private int doctorId;
+
+	/** The patient id. */
+	private Integer patientId;
+
 	/** The doctor name. */
 	private String doctorName;
 
@@ -16,6 +22,42 @@ public class RecordData {
 	/** The patient name. */
 	private String patientName;
 
+	/**
+	 * Gets the doctor id.
+	 *
+	 * @return the doctor id
+	 */
+	public int getDoctorId() {
+		return doctorId;
+	}
+
+	/**
+	 * Sets the doctor id.
+	 *
+	 * @param doctorId the new doctor id
+	 */
+	public void setDoctorId(int doctorId) {
+		this.doctorId = doctorId;
+	}
+
+	/**
+	 * Gets the patient id.
+	 *
+	 * @return the patient id
+	 */
+	public Integer getPatientId() {
+		return patientId;
+	}
+
+	/**
+	 * Sets the patient id.
+	 *
+	 * @param patientId the new patient id
+	 */
+	public void setPatientId(Integer patientId) {
+		this.patientId = patientId;
+	}
+
 	/**
 	 * Gets the doctor name.
 	 *
@@ -77,7 +119,8 @@ public class RecordData {
 	 */
 	@Override
 	public String toString() {
-		return "RecordData [doctorName=" + doctorName + ", disease=" + disease + ", patientName=" + patientName + "]";
+		return "RecordData [doctorId=" + doctorId + ", patientId=" + patientId + ", doctorName=" + doctorName + ", disease=" + disease
+				+ ", patientName=" + patientName + "]";
 	}
 
 }
@@ -0,0 +1,56 @@
+package global.coda.hospitalmanagement.model;
+
+/**
+ * A row of an import that was not written.
+ *
+ * @author Vishal
+ *
+ */
+public class RejectedRow {
+
+	/** The row number, the first row after the header is 1. */
+	private long row;
+
+	/** The reason. */
+	private String message;
+
+	/**
+	 * Instantiates a new rejected row.
+	 *
+	 * @param row     the row
+	 * @param message the message
+	 */
+	public RejectedRow(long row, String message) {
+		this.row = row;
+		this.message = message;
+	}
+
+	/**
+	 * Gets the row.
+	 *
+	 * @return the row
+	 */
+	public long getRow() {
+		return row;
+	}
+
+	/**
+	 * Gets the message.
+	 *
+	 * @return the message
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "RejectedRow [row=" + row + ", message=" + message + "]";
+	}
+
+}
@@ -0,0 +1,147 @@
+package global.coda.hospitalmanagement.model;
+
+/**
+ *
+ * @author Vishal
+ *
+ */
+public class SingleFlightStatistics {
+
+	/** The name. */
+	private String name;
+
+	/** The call count. */
+	private long callCount;
+
+	/** The number of calls that ran. */
+	private long executionCount;
+
+	/** The number of calls that joined a running call. */
+	private long coalescedCount;
+
+	/** The number of running calls. */
+	private long inFlight;
+
+	/** The coalesced rate. */
+	private double coalescedRate;
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets the name.
+	 *
+	 * @param name the new name
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Gets the call count.
+	 *
+	 * @return the call count
+	 */
+	public long getCallCount() {
+		return callCount;
+	}
+
+	/**
+	 * Sets the call count.
+	 *
+	 * @param callCount the new call count
+	 */
+	public void setCallCount(long callCount) {
+		this.callCount = callCount;
+	}
+
+	/**
+	 * Gets the execution count.
+	 *
+	 * @return the execution count
+	 */
+	public long getExecutionCount() {
+		return executionCount;
+	}
+
+	/**
+	 * Sets the execution count.
+	 *
+	 * @param executionCount the new execution count
+	 */
+	public void setExecutionCount(long executionCount) {
+		this.executionCount = executionCount;
+	}
+
+	/**
+	 * Gets the coalesced count.
+	 *
+	 * @return the coalesced count
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount;
+	}
+
+	/**
+	 * Sets the coalesced count.
+	 *
+	 * @param coalescedCount the new coalesced count
+	 */
+	public void setCoalescedCount(long coalescedCount) {
+		this.coalescedCount = coalescedCount;
+	}
+
+	/**
+	 * Gets the in flight.
+	 *
+	 * @return the in flight
+	 */
+	public long getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Sets the in flight.
+	 *
+	 * @param inFlight the new in flight
+	 */
+	public void setInFlight(long inFlight) {
+		this.inFlight = inFlight;
+	}
+
+	/**
+	 * Gets the coalesced rate.
+	 *
+	 * @return the coalesced rate
+	 */
+	public double getCoalescedRate() {
+		return coalescedRate;
+	}
+
+	/**
+	 * Sets the coalesced rate.
+	 *
+	 * @param coalescedRate the new coalesced rate
+	 */
+	public void setCoalescedRate(double coalescedRate) {
+		this.coalescedRate = coalescedRate;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "SingleFlightStatistics [name=" + name + ", callCount=" + callCount + ", executionCount=" + executionCount
+				+ ", coalescedCount=" + coalescedCount + ", inFlight=" + inFlight + ", coalescedRate=" + coalescedRate + "]";
+	}
+
+}
@@ -2,11 +2,17 @@ package global.coda.hospitalmanagement.model;
 
 import java.util.Date;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import global.coda.hospitalmanagement.constant.ProjectionConstant;
+
 /**
  *
  * @author Vishal
  *
  */
+@JsonFilter(ProjectionConstant.FIELD_FILTER)
 public class UserDetails {
 
 	/** The user id. */
@@ -45,6 +51,10 @@ public class UserDetails {
 	/** The updated date. */
 	private Date updatedDate;
 
+	/** The last time the user or its profile row changed, not serialized. */
+	@JsonIgnore
+	private Date lastModified;
+
 	/**
 	 * Gets the id.
 	 *
@@ -261,6 +271,24 @@ public class UserDetails {
 		this.updatedDate = updatedDate;
 	}
 
+	/**
+	 * Gets the last modified.
+	 *
+	 * @return the last modified
+	 */
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * Sets the last modified.
+	 *
+	 * @param lastModified the new last modified
+	 */
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
 	/**
 	 * To string.
 	 *
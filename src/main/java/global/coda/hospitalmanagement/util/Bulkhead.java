@@ -0,0 +1,154 @@
+package global.coda.hospitalmanagement.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.task.TaskDecorator;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A fixed pool of threads with a bounded queue that handler bodies run on, so
+ * one kind of request cannot take the threads of another. When the threads are
+ * busy and the queue is full a task is rejected right away with a
+ * {@link RejectedExecutionException} instead of waiting.
+ *
+ * @author Vishal
+ *
+ */
+public final class Bulkhead {
+
+	/** The name. */
+	private final String name;
+
+	/** The pool, null when tasks run on the calling thread. */
+	private final ThreadPoolExecutor pool;
+
+	/** The executor. */
+	private final Executor executor;
+
+	/**
+	 * Instantiates a new bulkhead.
+	 *
+	 * @param name the name
+	 * @param pool the pool, null to run tasks on the calling thread
+	 */
+	private Bulkhead(String name, ThreadPoolExecutor pool) {
+		this(name, pool, null);
+	}
+
+	/**
+	 * Instantiates a new bulkhead.
+	 *
+	 * @param name      the name
+	 * @param pool      the pool, null to run tasks on the calling thread
+	 * @param decorator the decorator of tasks handed to the pool, may be null
+	 */
+	private Bulkhead(String name, ThreadPoolExecutor pool, TaskDecorator decorator) {
+		this.name = name;
+		this.pool = pool;
+		if (pool == null) {
+			this.executor = Runnable::run;
+		} else {
+			this.executor = decorator == null ? pool : task -> pool.execute(decorator.decorate(task));
+		}
+	}
+
+	/**
+	 * A bulkhead of its own threads.
+	 *
+	 * @param name       the name, used for the thread names
+	 * @param threads    the number of threads
+	 * @param queueDepth the number of tasks that may wait for a thread
+	 * @return the bulkhead
+	 */
+	public static Bulkhead bounded(String name, int threads, int queueDepth) {
+		return new Bulkhead(name, new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueDepth), new ThreadFactoryBuilder().setNameFormat(name + "-%d").build(),
+				new ThreadPoolExecutor.AbortPolicy()));
+	}
+
+	/**
+	 * A bulkhead that runs tasks on the calling thread, for when asynchronous
+	 * execution is turned off.
+	 *
+	 * @param name the name
+	 * @return the bulkhead
+	 */
+	public static Bulkhead inline(String name) {
+		return new Bulkhead(name, null);
+	}
+
+	/**
+	 * The same bulkhead, with tasks decorated on the submitting thread before
+	 * they are handed to the pool, to carry thread bound state across.
+	 *
+	 * @param decorator the decorator
+	 * @return the bulkhead
+	 */
+	public Bulkhead withTaskDecorator(TaskDecorator decorator) {
+		return new Bulkhead(name, pool, decorator);
+	}
+
+	/**
+	 * Run a task on the bulkhead. Exceptions of the task complete the future
+	 * exceptionally as they are, without being wrapped, so stackless exceptions
+	 * stay cheap.
+	 *
+	 * @param <T>  the result type
+	 * @param task the task
+	 * @return the future result
+	 * @throws RejectedExecutionException when the bulkhead is full
+	 */
+	public <T> CompletableFuture<T> submit(Task<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		executor.execute(() -> {
+			try {
+				future.complete(task.call());
+			} catch (Exception | Error error) {
+				future.completeExceptionally(error);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Gets the name.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Stops taking tasks, queued tasks still run.
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * A task run on a bulkhead.
+	 *
+	 * @param <T> the result type
+	 */
+	@FunctionalInterface
+	public interface Task<T> {
+
+		/**
+		 * Run the task.
+		 *
+		 * @return the result
+		 * @throws Exception the exception
+		 */
+		T call() throws Exception;
+	}
+
+}
@@ -0,0 +1,63 @@
+package global.coda.hospitalmanagement.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.constant.PaginationConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+
+/**
+ * Encodes and decodes the opaque continuation tokens handed out by paged
+ * endpoints. The token only wraps the last seen id, so clients must not rely
+ * on its format.
+ *
+ * @author Vishal
+ */
+public final class ContinuationToken {
+
+	/** The prefix that versions the token format. */
+	private static final String PREFIX = "v1:";
+
+	/**
+	 * Instantiates a new continuation token.
+	 */
+	private ContinuationToken() {
+	}
+
+	/**
+	 * Encode the last id of a page.
+	 *
+	 * @param lastId the last id
+	 * @return the token
+	 */
+	public static String encode(int lastId) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decode a token back to the last id, a missing token starts from the
+	 * beginning.
+	 *
+	 * @param token the token
+	 * @return the last id
+	 */
+	public static int decode(String token) {
+		if (token == null || token.isEmpty()) {
+			return PaginationConstant.FIRST_CURSOR;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			if (!value.startsWith(PREFIX)) {
+				throw new IllegalArgumentException(value);
+			}
+			return Math.max(Integer.parseInt(value.substring(PREFIX.length())), PaginationConstant.FIRST_CURSOR);
+		} catch (IllegalArgumentException error) {
+			throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
+					+ ApplicationConstant.INVALID_TOKEN);
+		}
+	}
+
+}
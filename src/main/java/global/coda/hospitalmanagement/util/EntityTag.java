@@ -0,0 +1,46 @@
+package global.coda.hospitalmanagement.util;
+
+import java.util.Date;
+
+import org.springframework.web.context.request.WebRequest;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+
+/**
+ * Conditional GET support. The entity tag is built from the update timestamps,
+ * which the database keeps to the millisecond. It is weak because two updates
+ * within one millisecond still share it.
+ *
+ * @author Vishal
+ *
+ */
+public final class EntityTag {
+
+	/**
+	 * Instantiates a new entity tag.
+	 */
+	private EntityTag() {
+	}
+
+	/**
+	 * Check the If-None-Match and If-Modified-Since headers of the request and
+	 * set the ETag and Last-Modified headers of the response. When this returns
+	 * true the response status is already 304 and the handler should return
+	 * without a body.
+	 *
+	 * @param request      the request
+	 * @param identity     what the version belongs to, an id or a collection size
+	 * @param lastModified the last modified, null if unknown
+	 * @return true, if the client copy is still current
+	 */
+	public static boolean notModified(WebRequest request, Object identity, Date lastModified) {
+		if (lastModified == null) {
+			return false;
+		}
+		long time = lastModified.getTime();
+		String etag = ApplicationConstant.WEAK_ETAG_PREFIX + identity + ApplicationConstant.VERSION_SEPARATOR
+				+ Long.toHexString(time) + ApplicationConstant.QUOTE;
+		return request.checkNotModified(etag, time);
+	}
+
+}
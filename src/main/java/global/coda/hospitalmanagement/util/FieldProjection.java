@@ -0,0 +1,144 @@
+package global.coda.hospitalmanagement.util;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.constant.ProjectionConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+
+/**
+ * A validated sparse fieldset. It carries both the column list for the
+ * projected select and the property names for the matching Jackson filter, so
+ * only the requested fields are read from the database and written to the
+ * client.
+ *
+ * @author Vishal
+ */
+public final class FieldProjection {
+
+	/** The selected fields. */
+	private final Set<String> fields;
+
+	/** The selected columns. */
+	private final String columns;
+
+	/**
+	 * Instantiates a new field projection.
+	 *
+	 * @param fields  the fields
+	 * @param columns the columns
+	 */
+	private FieldProjection(Set<String> fields, String columns) {
+		this.fields = Collections.unmodifiableSet(fields);
+		this.columns = columns;
+	}
+
+	/**
+	 * Parse a comma separated fields parameter against the allowed fields. The id
+	 * is always selected.
+	 *
+	 * @param fieldsParam   the fields parameter, may be null
+	 * @param allowedFields the allowed fields mapped to their columns
+	 * @return the field projection, or null when every field is wanted
+	 */
+	public static FieldProjection parse(String fieldsParam, Map<String, String> allowedFields) {
+		if (fieldsParam == null || fieldsParam.trim().isEmpty()) {
+			return null;
+		}
+		Set<String> fields = new LinkedHashSet<String>();
+		fields.add(ProjectionConstant.ID_FIELD);
+		for (String field : fieldsParam.split(ProjectionConstant.FIELD_SEPARATOR)) {
+			String name = field.trim();
+			if (!name.isEmpty()) {
+				if (!allowedFields.containsKey(name)) {
+					throw new BusinessException(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE
+							+ ApplicationConstant.UNKNOWN_FIELD + name);
+				}
+				fields.add(name);
+			}
+		}
+		StringBuilder columns = new StringBuilder();
+		for (String field : fields) {
+			if (columns.length() > 0) {
+				columns.append(ProjectionConstant.COLUMN_SEPARATOR);
+			}
+			columns.append(allowedFields.get(field));
+		}
+		return new FieldProjection(fields, columns.toString());
+	}
+
+	/**
+	 * Wrap a response body so that only the projected fields are serialized.
+	 *
+	 * @param body       the response body
+	 * @param projection the projection, may be null
+	 * @return the mapping jackson value
+	 */
+	public static MappingJacksonValue serialize(Object body, FieldProjection projection) {
+		MappingJacksonValue value = new MappingJacksonValue(body);
+		if (projection != null) {
+			value.setFilters(new SimpleFilterProvider().addFilter(ProjectionConstant.FIELD_FILTER,
+					SimpleBeanPropertyFilter.filterOutAllExcept(projection.getFields())));
+		}
+		return value;
+	}
+
+	/**
+	 * Gets the fields.
+	 *
+	 * @return the fields
+	 */
+	public Set<String> getFields() {
+		return fields;
+	}
+
+	/**
+	 * Gets the columns.
+	 *
+	 * @return the columns
+	 */
+	public String getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Equals, projections that select the same columns read the same rows.
+	 *
+	 * @param other the other
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof FieldProjection && columns.equals(((FieldProjection) other).columns);
+	}
+
+	/**
+	 * Hash code.
+	 *
+	 * @return the int
+	 */
+	@Override
+	public int hashCode() {
+		return columns.hashCode();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "FieldProjection [fields=" + fields + ", columns=" + columns + "]";
+	}
+
+}
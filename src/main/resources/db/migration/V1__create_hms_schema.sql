@@ -0,0 +1,61 @@
+-- Baseline of the hms schema. Existing databases are baselined at this
+-- version (spring.flyway.baseline-on-migrate), so it only runs on fresh ones.
+
+CREATE TABLE t_role (
+  pk_role_id INT NOT NULL AUTO_INCREMENT,
+  role_name VARCHAR(45) NOT NULL,
+  PRIMARY KEY (pk_role_id)
+);
+
+INSERT INTO t_role (pk_role_id, role_name) VALUES (1, 'ADMIN'), (2, 'GLOBAL_ADMIN'), (3, 'DOCTOR'), (4, 'PATIENT');
+
+CREATE TABLE t_user_details (
+  pk_user_id INT NOT NULL AUTO_INCREMENT,
+  username VARCHAR(45) NOT NULL,
+  password VARCHAR(255) NOT NULL,
+  fk_role_id INT NOT NULL,
+  firstname VARCHAR(45),
+  lastname VARCHAR(45),
+  city VARCHAR(45),
+  state VARCHAR(45),
+  phone_number VARCHAR(15),
+  is_active TINYINT NOT NULL DEFAULT 1,
+  created_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (pk_user_id),
+  CONSTRAINT fk_user_details_role FOREIGN KEY (fk_role_id) REFERENCES t_role (pk_role_id)
+);
+
+CREATE TABLE t_patient (
+  pk_patient_id INT NOT NULL AUTO_INCREMENT,
+  fk_user_id INT NOT NULL,
+  blood_group VARCHAR(5),
+  weight INT,
+  is_active TINYINT NOT NULL DEFAULT 1,
+  created_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (pk_patient_id),
+  CONSTRAINT fk_patient_user FOREIGN KEY (fk_user_id) REFERENCES t_user_details (pk_user_id)
+);
+
+CREATE TABLE t_doctor (
+  pk_doctor_id INT NOT NULL AUTO_INCREMENT,
+  fk_user_id INT NOT NULL,
+  doctor_specialization VARCHAR(45),
+  is_active TINYINT NOT NULL DEFAULT 1,
+  created_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (pk_doctor_id),
+  CONSTRAINT fk_doctor_user FOREIGN KEY (fk_user_id) REFERENCES t_user_details (pk_user_id)
+);
+
+CREATE TABLE t_record (
+  pk_record_id INT NOT NULL AUTO_INCREMENT,
+  fk_doctor_id INT NOT NULL,
+  fk_patient_id INT NOT NULL,
+  disease VARCHAR(100),
+  created_date DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (pk_record_id),
+  CONSTRAINT fk_record_doctor FOREIGN KEY (fk_doctor_id) REFERENCES t_user_details (pk_user_id),
+  CONSTRAINT fk_record_patient FOREIGN KEY (fk_patient_id) REFERENCES t_user_details (pk_user_id)
+);
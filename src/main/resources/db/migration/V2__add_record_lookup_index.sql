@@ -0,0 +1,5 @@
+-- Serves the doctor roster joins in RecordDetailsSqlQueryConstant: the seek on
+-- fk_doctor_id finds one doctor's records and fk_patient_id is read from the
+-- index for the join back to t_user_details.
+
+CREATE INDEX idx_record_doctor_patient ON t_record (fk_doctor_id, fk_patient_id);
@@ -0,0 +1,11 @@
+-- Access paths the mappers rely on. Every patient and doctor read filters
+-- t_user_details on fk_role_id and is_active and seeks or orders by
+-- pk_user_id, then joins t_patient / t_doctor on fk_user_id with is_active.
+
+CREATE INDEX idx_user_details_role_active ON t_user_details (fk_role_id, is_active, pk_user_id);
+
+CREATE UNIQUE INDEX uk_user_details_username ON t_user_details (username);
+
+CREATE INDEX idx_patient_user_active ON t_patient (fk_user_id, is_active);
+
+CREATE INDEX idx_doctor_user_active ON t_doctor (fk_user_id, is_active);
@@ -0,0 +1,9 @@
+-- The entity tags and Last-Modified of the patient and doctor reads are built
+-- from these columns. At second precision two updates within one second kept
+-- the same tag and clients were told their stale copy was current.
+
+ALTER TABLE t_user_details MODIFY updated_date DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+ALTER TABLE t_patient MODIFY updated_date DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
+
+ALTER TABLE t_doctor MODIFY updated_time DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3);
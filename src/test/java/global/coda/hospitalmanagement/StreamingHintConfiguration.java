@@ -0,0 +1,65 @@
+package global.coda.hospitalmanagement;
+
+import java.util.Properties;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Lets the streaming cursors run on H2. They ask MySQL to stream with the
+ * fetch size Integer.MIN_VALUE, which H2 refuses, so the statements of cursors
+ * with that fetch size run without one.
+ *
+ * @author Vishal
+ */
+@TestConfiguration
+public class StreamingHintConfiguration {
+
+	@Bean
+	Interceptor streamingHint() {
+		return new StreamingHint();
+	}
+
+	/**
+	 * Drops the MySQL streaming fetch size of cursor statements.
+	 */
+	@Intercepts(@Signature(type = Executor.class, method = "queryCursor", args = { MappedStatement.class, Object.class, RowBounds.class }))
+	static class StreamingHint implements Interceptor {
+
+		@Override
+		public Object intercept(Invocation invocation) throws Throwable {
+			MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+			if (statement.getFetchSize() != null && statement.getFetchSize() == Integer.MIN_VALUE) {
+				invocation.getArgs()[0] = new MappedStatement.Builder(statement.getConfiguration(), statement.getId(), statement.getSqlSource(),
+						statement.getSqlCommandType()).resource(statement.getResource()).statementType(statement.getStatementType())
+								.resultSetType(statement.getResultSetType()).timeout(statement.getTimeout())
+								.parameterMap(statement.getParameterMap()).resultMaps(statement.getResultMaps())
+								.resultOrdered(statement.isResultOrdered()).cache(statement.getCache())
+								.flushCacheRequired(statement.isFlushCacheRequired()).useCache(statement.isUseCache())
+								.keyGenerator(statement.getKeyGenerator()).databaseId(statement.getDatabaseId()).lang(statement.getLang())
+								.build();
+			}
+			return invocation.proceed();
+		}
+
+		@Override
+		public Object plugin(Object target) {
+			return Plugin.wrap(target, this);
+		}
+
+		@Override
+		public void setProperties(Properties properties) {
+			// nothing to configure
+		}
+
+	}
+
+}
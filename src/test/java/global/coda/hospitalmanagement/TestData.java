@@ -0,0 +1,91 @@
+package global.coda.hospitalmanagement;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+
+/**
+ * Rows for tests, written with plain JDBC. Nothing goes through the
+ * application, so its caches do not see these writes: tests that read a row
+ * they wrote here use ids no other test of the same context reads.
+ *
+ * @author Vishal
+ */
+public final class TestData {
+
+	private TestData() {
+	}
+
+	/**
+	 * Delete every record, patient, doctor and user.
+	 *
+	 * @param jdbcTemplate the jdbc template
+	 */
+	public static void clear(JdbcTemplate jdbcTemplate) {
+		jdbcTemplate.update("delete from t_record");
+		jdbcTemplate.update("delete from t_patient");
+		jdbcTemplate.update("delete from t_doctor");
+		jdbcTemplate.update("delete from t_user_details");
+	}
+
+	/**
+	 * Empty the MyBatis second-level caches, which do not see writes made here.
+	 * Tests that read lists of rows they wrote here call it after writing.
+	 *
+	 * @param sqlSessionFactory the sql session factory
+	 */
+	public static void clearMapperCaches(SqlSessionFactory sqlSessionFactory) {
+		for (Cache cache : sqlSessionFactory.getConfiguration().getCaches()) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Insert an active patient named patient{id}, weighing 70.
+	 *
+	 * @param jdbcTemplate the jdbc template
+	 * @param id           the user id
+	 */
+	public static void patient(JdbcTemplate jdbcTemplate, int id) {
+		user(jdbcTemplate, id, "patient" + id, ApplicationConstant.PATIENT_ROLE_ID);
+		jdbcTemplate.update("insert into t_patient (fk_user_id, blood_group, weight) values (?, 'O+', 70)", id);
+	}
+
+	/**
+	 * Insert an active doctor named doctor{id}.
+	 *
+	 * @param jdbcTemplate the jdbc template
+	 * @param id           the user id
+	 */
+	public static void doctor(JdbcTemplate jdbcTemplate, int id) {
+		user(jdbcTemplate, id, "doctor" + id, ApplicationConstant.DOCTOR_ROLE_ID);
+		jdbcTemplate.update("insert into t_doctor (fk_user_id, doctor_specialization) values (?, 'cardio')", id);
+	}
+
+	/**
+	 * Insert a record of a patient treated by a doctor.
+	 *
+	 * @param jdbcTemplate the jdbc template
+	 * @param doctorId     the doctor id
+	 * @param patientId    the patient id
+	 */
+	public static void record(JdbcTemplate jdbcTemplate, int doctorId, int patientId) {
+		jdbcTemplate.update("insert into t_record (fk_doctor_id, fk_patient_id, disease) values (?, ?, 'flu')", doctorId, patientId);
+	}
+
+	/**
+	 * Insert an active user with the password secret.
+	 *
+	 * @param jdbcTemplate the jdbc template
+	 * @param id           the user id
+	 * @param username     the username, also the first name
+	 * @param roleId       the role id
+	 */
+	private static void user(JdbcTemplate jdbcTemplate, int id, String username, int roleId) {
+		jdbcTemplate.update("insert into t_user_details (pk_user_id, username, password, fk_role_id, firstname) values (?, ?, 'secret', ?, ?)", id, username,
+				roleId, username);
+	}
+
+}
@@ -0,0 +1,117 @@
+package global.coda.hospitalmanagement.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.mapper.DoctorMapper;
+import global.coda.hospitalmanagement.mapper.PatientMapper;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ * Cached results weigh their row count times the row size and are evicted
+ * once the cache is over its bytes. The patient and doctor statements share
+ * one cache, which every insert and update of either mapper empties.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+class BoundedMemoryCacheTests {
+
+	@Autowired
+	private PatientMapper patientMapper;
+
+	@Autowired
+	private DoctorMapper doctorMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+
+	@BeforeEach
+	void seed() {
+		TestData.clear(jdbcTemplate);
+		TestData.patient(jdbcTemplate, 901);
+		TestData.clearMapperCaches(sqlSessionFactory);
+	}
+
+	@Test
+	void resultsWeighTheirRows() {
+		BoundedMemoryCache cache = cache();
+		cache.putObject("five", Arrays.asList(1, 2, 3, 4, 5));
+		cache.putObject("none", Collections.emptyList());
+		cache.putObject("one", "row");
+		cache.putObject("missed", null);
+		assertEquals(700, weightedSize(cache));
+		assertNull(cache.getObject("missed"));
+		cache.putObject("five", null);
+		assertEquals(200, weightedSize(cache));
+	}
+
+	@Test
+	void theCacheStaysWithinItsBytes() {
+		BoundedMemoryCache cache = cache();
+		cache.putObject("six", Arrays.asList(1, 2, 3, 4, 5, 6));
+		cache.putObject("five", Arrays.asList(1, 2, 3, 4, 5));
+		cache.putObject("eleven", Collections.nCopies(11, 1));
+		assertTrue(weightedSize(cache) <= 1000);
+		assertNull(cache.getObject("eleven"));
+		cache.clear();
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	void aPatientUpdateEmptiesTheCache() {
+		assertEquals(70, patientMapper.readAllPatient().get(0).getWeight());
+		jdbcTemplate.update("update t_patient set weight = 80 where fk_user_id = 901");
+		assertEquals(70, patientMapper.readAllPatient().get(0).getWeight());
+		Patient patient = patientMapper.readAllPatient().get(0);
+		patient.setWeight(60);
+		patientMapper.updatePatient(patient);
+		assertEquals(60, patientMapper.readAllPatient().get(0).getWeight());
+	}
+
+	@Test
+	void aDoctorInsertEmptiesTheSharedCache() {
+		assertEquals(1, patientMapper.readAllPatient().size());
+		TestData.patient(jdbcTemplate, 902);
+		assertEquals(1, patientMapper.readAllPatient().size());
+		jdbcTemplate.update("insert into t_user_details (pk_user_id, username, password, fk_role_id) values (903, 'doctor903', 'secret', 3)");
+		Doctor doctor = new Doctor();
+		doctor.setId(903);
+		doctor.setSpecilization("cardio");
+		doctorMapper.createDoctor(doctor);
+		assertEquals(2, patientMapper.readAllPatient().size());
+	}
+
+	private static BoundedMemoryCache cache() {
+		BoundedMemoryCache cache = new BoundedMemoryCache("test");
+		cache.setMaxBytes(1000);
+		cache.setRowBytes(100);
+		return cache;
+	}
+
+	private static long weightedSize(BoundedMemoryCache cache) {
+		Cache<?, ?> entries = (Cache<?, ?>) ReflectionTestUtils.getField(cache, "cache");
+		entries.cleanUp();
+		return entries.policy().eviction().get().weightedSize().getAsLong();
+	}
+
+}
@@ -0,0 +1,109 @@
+package global.coda.hospitalmanagement.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * An entity is loaded once and kept until it is invalidated. An invalidation
+ * inside a transaction is repeated when the transaction completes, so a row
+ * read while it was open is not kept. A missing id is remembered as well, but
+ * only for its own shorter time.
+ *
+ * @author Vishal
+ */
+class EntityCacheTests {
+
+	private final EntityCache<String> cache = new EntityCache<String>("test", 100, 60, 60);
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private final AtomicReference<String> stored = new AtomicReference<String>("first");
+
+	@AfterEach
+	void endTransaction() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void anEntityIsLoadedOnce() {
+		assertEquals("first", cache.get(1, this::load));
+		stored.set("second");
+		assertEquals("first", cache.get(1, this::load));
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getStatistics().getHitCount());
+		cache.invalidate(1);
+		assertEquals("second", cache.get(1, this::load));
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void anInvalidationIsRepeatedAfterTheTransaction() {
+		cache.get(1, this::load);
+		TransactionSynchronizationManager.initSynchronization();
+		cache.invalidate(1);
+		assertEquals("first", cache.get(1, this::load));
+		stored.set("second");
+		assertEquals("first", cache.get(1, this::load));
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals("second", cache.get(1, this::load));
+	}
+
+	@Test
+	void anInvalidationIsRepeatedAfterARollback() {
+		TransactionSynchronizationManager.initSynchronization();
+		cache.invalidateIf("first"::equals);
+		cache.get(1, this::load);
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		cache.get(1, this::load);
+		assertEquals(2, loads.get());
+	}
+
+	@Test
+	void aMissingIdIsLoadedOnce() {
+		stored.set(null);
+		assertNull(cache.get(1, this::load));
+		assertNull(cache.get(1, this::load));
+		assertEquals(1, loads.get());
+		stored.set("created");
+		cache.invalidate(1);
+		assertEquals("created", cache.get(1, this::load));
+	}
+
+	@Test
+	void aMissingIdExpiresBeforeAFoundEntity() throws Exception {
+		EntityCache<String> shortCache = new EntityCache<String>("test", 100, 60, 1);
+		assertEquals("first", shortCache.get(1, this::load));
+		stored.set(null);
+		assertNull(shortCache.get(2, this::load));
+		stored.set("created");
+		TimeUnit.MILLISECONDS.sleep(1100);
+		assertEquals("first", shortCache.get(1, this::load));
+		assertEquals("created", shortCache.get(2, this::load));
+		assertEquals(3, loads.get());
+	}
+
+	private String load(int id) {
+		loads.incrementAndGet();
+		return stored.get();
+	}
+
+	private static void complete(int status) {
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(status);
+		}
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+}
@@ -0,0 +1,125 @@
+package global.coda.hospitalmanagement.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.exception.SystemException;
+
+/**
+ * A key runs once: retries replay its outcome, duplicates wait for it, another
+ * body is refused, and a failed run is forgotten so a retry runs again.
+ *
+ * @author Vishal
+ */
+class IdempotencyStoreTests {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	private final AtomicInteger runs = new AtomicInteger();
+
+	private IdempotencyStore store;
+
+	@BeforeEach
+	void create() {
+		store = new IdempotencyStore();
+		ReflectionTestUtils.setField(store, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(store, "ttlMinutes", 1);
+		ReflectionTestUtils.setField(store, "maximumSize", 100);
+		ReflectionTestUtils.setField(store, "stripes", 4);
+		ReflectionTestUtils.setField(store, "waitSeconds", 5);
+		ReflectionTestUtils.setField(store, "maxKeyLength", 255);
+		store.init();
+	}
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void aRetryReplaysTheOutcome() throws Exception {
+		assertEquals("1", store.execute("test", "key", "body", this::count));
+		assertEquals("1", store.execute("test", "key", "body", this::count));
+		assertEquals("2", store.execute("other", "key", "body", this::count));
+		assertEquals(2, runs.get());
+	}
+
+	@Test
+	void anotherBodyIsRefused() throws Exception {
+		store.execute("test", "key", "body", this::count);
+		BusinessException error = assertThrows(BusinessException.class, () -> store.execute("test", "key", "other", this::count));
+		assertTrue(error.getMessage().contains(ApplicationConstant.IDEMPOTENCY_KEY_REUSED));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void aDuplicateWaitsForTheFirstRequest() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Void> release = new CompletableFuture<Void>();
+		Future<String> first = executor.submit(() -> store.execute("test", "key", "body", () -> {
+			started.countDown();
+			release.join();
+			return count();
+		}));
+		started.await();
+		Future<String> duplicate = executor.submit(() -> store.execute("test", "key", "body", this::count));
+		assertThrows(TimeoutException.class, () -> duplicate.get(50, TimeUnit.MILLISECONDS));
+		release.complete(null);
+		assertEquals("1", first.get(1, TimeUnit.SECONDS));
+		assertEquals("1", duplicate.get(1, TimeUnit.SECONDS));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void aRetryAfterASystemExceptionRunsAgain() throws Exception {
+		assertThrows(SystemException.class, () -> store.execute("test", "key", "body", () -> {
+			count();
+			throw new SystemException("down");
+		}));
+		assertEquals("2", store.execute("test", "key", "body", this::count));
+	}
+
+	@Test
+	void anErrorIsPassedOnAndForgotten() throws Exception {
+		StackOverflowError failure = new StackOverflowError();
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Void> release = new CompletableFuture<Void>();
+		Future<String> first = executor.submit(() -> store.execute("test", "key", "body", () -> {
+			started.countDown();
+			release.join();
+			throw failure;
+		}));
+		started.await();
+		Future<String> duplicate = executor.submit(() -> store.execute("test", "key", "body", this::count));
+		assertThrows(TimeoutException.class, () -> duplicate.get(50, TimeUnit.MILLISECONDS));
+		release.complete(null);
+		assertSame(failure, assertThrows(Exception.class, () -> first.get(1, TimeUnit.SECONDS)).getCause());
+		assertSame(failure, assertThrows(Exception.class, () -> duplicate.get(1, TimeUnit.SECONDS)).getCause());
+		assertEquals("1", store.execute("test", "key", "body", this::count));
+	}
+
+	private String count() {
+		return String.valueOf(runs.incrementAndGet());
+	}
+
+}
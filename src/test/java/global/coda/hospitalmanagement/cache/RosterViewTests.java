@@ -0,0 +1,92 @@
+package global.coda.hospitalmanagement.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.delegate.BatchWriteDelegate;
+import global.coda.hospitalmanagement.delegate.DoctorOperationDelegate;
+import global.coda.hospitalmanagement.delegate.PatientOperationDelegate;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ * Updates of a patient or a doctor reload the rosters they are on, so the
+ * roster shows the user rows as they are now.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+class RosterViewTests {
+
+	@Autowired
+	private DoctorOperationDelegate doctorOperationDelegate;
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seed() throws Exception {
+		jdbcTemplate.update("delete from t_record");
+		jdbcTemplate.update("delete from t_patient");
+		jdbcTemplate.update("delete from t_doctor");
+		jdbcTemplate.update("delete from t_user_details");
+		jdbcTemplate.update("insert into t_user_details (pk_user_id, username, password, fk_role_id) values (1, 'doctor', 'secret', 3)");
+		jdbcTemplate.update("insert into t_doctor (fk_user_id, doctor_specialization) values (1, 'cardio')");
+		jdbcTemplate.update("insert into t_user_details (pk_user_id, username, password, fk_role_id) values (10, 'patient', 'secret', 4)");
+		jdbcTemplate.update("insert into t_patient (fk_user_id, blood_group, weight) values (10, 'O+', 70)");
+		jdbcTemplate.update("insert into t_record (fk_doctor_id, fk_patient_id, disease) values (1, 10, 'flu')");
+		doctorOperationDelegate.updateDoctor(doctor("doctor"));
+	}
+
+	@Test
+	void aPatientUpdateReloadsTheirRosters() throws Exception {
+		assertEquals("patient", doctorOperationDelegate.readRecordById(1).getListOfPatients().get(0).getPatientName());
+		jdbcTemplate.update("update t_user_details set username = 'renamed' where pk_user_id = 10");
+		patientOperationDelegate.updatePatient(patient());
+		assertEquals("renamed", doctorOperationDelegate.readRecordById(1).getListOfPatients().get(0).getPatientName());
+		jdbcTemplate.update("update t_user_details set username = 'bulk' where pk_user_id = 10");
+		batchWriteDelegate.updatePatients(Collections.singletonList(patient()));
+		assertEquals("bulk", doctorOperationDelegate.readRecordById(1).getListOfPatients().get(0).getPatientName());
+	}
+
+	@Test
+	void aDoctorUpdateReloadsTheirRoster() throws Exception {
+		assertEquals("doctor", doctorOperationDelegate.readRecordById(1).getDoctorName());
+		jdbcTemplate.update("update t_user_details set username = 'renamed' where pk_user_id = 1");
+		doctorOperationDelegate.updateDoctor(doctor("renamed"));
+		assertEquals("renamed", doctorOperationDelegate.readRecordById(1).getDoctorName());
+		jdbcTemplate.update("update t_user_details set username = 'bulk' where pk_user_id = 1");
+		batchWriteDelegate.updateDoctors(Collections.singletonList(doctor("bulk")));
+		assertEquals("bulk", doctorOperationDelegate.readRecordById(1).getDoctorName());
+	}
+
+	private static Patient patient() {
+		Patient patient = new Patient();
+		patient.setId(10);
+		patient.setPassword("secret");
+		patient.setWeight(70);
+		return patient;
+	}
+
+	private static Doctor doctor(String username) {
+		Doctor doctor = new Doctor();
+		doctor.setId(1);
+		doctor.setUsername(username);
+		doctor.setPassword("secret");
+		return doctor;
+	}
+
+}
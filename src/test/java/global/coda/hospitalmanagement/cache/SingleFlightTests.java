@@ -0,0 +1,89 @@
+package global.coda.hospitalmanagement.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import global.coda.hospitalmanagement.exception.NotFoundException;
+import global.coda.hospitalmanagement.model.SingleFlightStatistics;
+
+/**
+ * Concurrent calls with the same key share one run, other keys and later calls
+ * run on their own.
+ *
+ * @author Vishal
+ */
+class SingleFlightTests {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void concurrentCallsWithTheSameKeyShareOneRun() throws Exception {
+		SingleFlight singleFlight = new SingleFlight("test", true);
+		AtomicInteger runs = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Void> release = new CompletableFuture<Void>();
+		Future<String> leader = executor.submit(() -> singleFlight.execute(() -> {
+			runs.incrementAndGet();
+			started.countDown();
+			release.join();
+			return "result";
+		}, "id", 1));
+		started.await();
+		Future<String> follower = executor.submit(() -> singleFlight.execute(() -> {
+			runs.incrementAndGet();
+			return "other";
+		}, "id", 1));
+		while (singleFlight.getStatistics().getCoalescedCount() == 0) {
+			Thread.sleep(1);
+		}
+		assertEquals("other", singleFlight.execute(() -> "other", "id", 2));
+		release.complete(null);
+		assertEquals("result", leader.get(1, TimeUnit.SECONDS));
+		assertEquals("result", follower.get(1, TimeUnit.SECONDS));
+		assertEquals(1, runs.get());
+		assertEquals("again", singleFlight.execute(() -> "again", "id", 1));
+		SingleFlightStatistics statistics = singleFlight.getStatistics();
+		assertEquals(4, statistics.getCallCount());
+		assertEquals(3, statistics.getExecutionCount());
+		assertEquals(1, statistics.getCoalescedCount());
+		assertEquals(0, statistics.getInFlight());
+	}
+
+	@Test
+	void followersGetTheExceptionOfTheRun() throws Exception {
+		SingleFlight singleFlight = new SingleFlight("test", true);
+		CountDownLatch started = new CountDownLatch(1);
+		CompletableFuture<Void> release = new CompletableFuture<Void>();
+		Future<Object> leader = executor.submit(() -> singleFlight.execute(() -> {
+			started.countDown();
+			release.join();
+			throw NotFoundException.DOCTOR;
+		}, "id", 1));
+		started.await();
+		Future<Object> follower = executor.submit(() -> singleFlight.execute(() -> "found", "id", 1));
+		while (singleFlight.getStatistics().getCoalescedCount() == 0) {
+			Thread.sleep(1);
+		}
+		release.complete(null);
+		assertSame(NotFoundException.DOCTOR, assertThrows(Exception.class, () -> leader.get(1, TimeUnit.SECONDS)).getCause());
+		assertSame(NotFoundException.DOCTOR, assertThrows(Exception.class, () -> follower.get(1, TimeUnit.SECONDS)).getCause());
+	}
+
+}
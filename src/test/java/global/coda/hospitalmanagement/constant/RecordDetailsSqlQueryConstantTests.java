@@ -0,0 +1,114 @@
+package global.coda.hospitalmanagement.constant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the record queries against the Flyway schema on an embedded database.
+ *
+ * @author Vishal
+ */
+class RecordDetailsSqlQueryConstantTests {
+
+	private static final String USER = "sa";
+
+	private static final int PATIENTS_PER_DOCTOR = 5;
+
+	private static final Pattern RECORD_SCAN = Pattern.compile(
+			"t_record\"\\s+\"record\"\\s*/\\*\\s*([^*]+?)\\s*\\*/.*?scanCount:\\s*(\\d+)", Pattern.DOTALL);
+
+	@Test
+	void readRecordByDoctorIdReturnsOnlyThatDoctorsRoster() throws SQLException {
+		try (Connection connection = migratedDatabase("roster", 10)) {
+			int rows = 0;
+			try (PreparedStatement statement = connection.prepareStatement(byDoctorId())) {
+				statement.setInt(1, 1);
+				try (ResultSet resultSet = statement.executeQuery()) {
+					while (resultSet.next()) {
+						assertEquals("doctor1", resultSet.getString("doctor_name"));
+						rows++;
+					}
+				}
+			}
+			assertEquals(PATIENTS_PER_DOCTOR, rows);
+		}
+	}
+
+	@Test
+	void readRecordByDoctorIdDoesNotScaleWithRecordCount() throws SQLException {
+		long smallScan;
+		long largeScan;
+		try (Connection connection = migratedDatabase("small", 10)) {
+			smallScan = recordScanCount(connection);
+		}
+		try (Connection connection = migratedDatabase("large", 400)) {
+			largeScan = recordScanCount(connection);
+		}
+		assertTrue(smallScan <= PATIENTS_PER_DOCTOR + 1, "scanned " + smallScan + " records");
+		assertEquals(smallScan, largeScan);
+	}
+
+	private static String byDoctorId() {
+		return RecordDetailsSqlQueryConstant.READ_RECORD_BY_DOCTOR_ID.replace("#{id}", "?");
+	}
+
+	private static long recordScanCount(Connection connection) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement("EXPLAIN ANALYZE " + byDoctorId())) {
+			statement.setInt(1, 1);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				String plan = resultSet.getString(1);
+				Matcher matcher = RECORD_SCAN.matcher(plan);
+				assertTrue(matcher.find(), plan);
+				assertFalse(matcher.group(1).contains("tableScan"), plan);
+				return Long.parseLong(matcher.group(2));
+			}
+		}
+	}
+
+	private static Connection migratedDatabase(String name, int doctors) throws SQLException {
+		String url = "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+		Flyway.configure().dataSource(url, USER, "").schemas("hms").load().migrate();
+		Connection connection = DriverManager.getConnection(url, USER, "");
+		connection.setSchema("hms");
+		try (PreparedStatement user = connection.prepareStatement(
+				"insert into t_user_details (pk_user_id, username, password, fk_role_id) values (?, ?, 'secret', ?)");
+				PreparedStatement record = connection.prepareStatement(
+						"insert into t_record (fk_doctor_id, fk_patient_id, disease) values (?, ?, 'fever')")) {
+			int patientId = doctors;
+			for (int doctorId = 1; doctorId <= doctors; doctorId++) {
+				user.setInt(1, doctorId);
+				user.setString(2, "doctor" + doctorId);
+				user.setInt(3, 3);
+				user.executeUpdate();
+				for (int count = 0; count < PATIENTS_PER_DOCTOR; count++) {
+					patientId++;
+					user.setInt(1, patientId);
+					user.setString(2, "patient" + patientId);
+					user.setInt(3, 4);
+					user.executeUpdate();
+					record.setInt(1, doctorId);
+					record.setInt(2, patientId);
+					record.executeUpdate();
+				}
+			}
+		}
+		try (PreparedStatement analyze = connection.prepareStatement("ANALYZE")) {
+			analyze.execute();
+		}
+		return connection;
+	}
+
+}
@@ -0,0 +1,155 @@
+package global.coda.hospitalmanagement.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+
+/**
+ * Routes reads to a replica and writes to the primary, with two embedded
+ * databases: the primary in memory and the replica behind an H2 TCP server that
+ * the last test stops. The caches are on, as they are by default.
+ *
+ * @author Vishal
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS hms\\\\;SET SCHEMA hms",
+		"hms.datasource.replica.health-check-millis=600000" })
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingTests {
+
+	private static final String OPTIONS = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	private static final String USER = "sa";
+
+	private static Server replicaServer;
+
+	private static String replicaUrl;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@BeforeAll
+	static void startReplica() throws SQLException, IOException {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		replicaServer = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists").start();
+		replicaUrl = "jdbc:h2:tcp://localhost:" + port + "/mem:replica" + OPTIONS;
+		Flyway.configure().dataSource(replicaUrl, USER, "").schemas("hms").load().migrate();
+		System.setProperty("hms.datasource.replica.urls", replicaUrl + ";INIT=SET SCHEMA hms");
+	}
+
+	@AfterAll
+	static void stopReplica() {
+		System.clearProperty("hms.datasource.replica.urls");
+		replicaServer.stop();
+	}
+
+	@BeforeEach
+	void seed() throws SQLException {
+		seed(jdbcTemplate, "primary");
+		try (Connection connection = DriverManager.getConnection(replicaUrl, USER, "")) {
+			connection.setSchema("hms");
+			seed(new JdbcTemplate(new SingleConnectionDataSource(connection, true)), "replica");
+		}
+	}
+
+	@Test
+	@Order(1)
+	void readsGoToTheReplica() throws Exception {
+		assertTrue(perform(get("/hms/patient/read?limit=10")).getResponse().getContentAsString().contains("\"firstName\":\"replica\""));
+	}
+
+	@Test
+	@Order(2)
+	void aWriteKeepsItsClientOnThePrimary() throws Exception {
+		MvcResult update = perform(put("/hms/patient/update").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":10,\"firstName\":\"updated\",\"password\":\"secret\",\"weight\":60}"));
+		assertEquals(200, update.getResponse().getStatus());
+		Cookie cookie = update.getResponse().getCookie(ApplicationConstant.READ_PRIMARY_COOKIE);
+		assertNotNull(cookie);
+		assertTrue(perform(get("/hms/patient/read?limit=10").cookie(cookie)).getResponse().getContentAsString().contains("\"firstName\":\"updated\""));
+		assertTrue(perform(get("/hms/patient/read?limit=10")).getResponse().getContentAsString().contains("\"firstName\":\"replica\""));
+	}
+
+	@Test
+	@Order(3)
+	void aWriteKeepsItsClientOffTheReplicaRowsInTheCaches() throws Exception {
+		MvcResult update = perform(put("/hms/patient/update").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":10,\"firstName\":\"updated\",\"password\":\"secret\",\"weight\":60}"));
+		Cookie cookie = update.getResponse().getCookie(ApplicationConstant.READ_PRIMARY_COOKIE);
+		for (String url : new String[] { "/hms/patient/read/10", "/hms/patient/read?limit=10" }) {
+			assertTrue(perform(get(url)).getResponse().getContentAsString().contains("\"firstName\":\"replica\""));
+			assertTrue(perform(get(url).cookie(cookie)).getResponse().getContentAsString().contains("\"firstName\":\"updated\""));
+			assertTrue(perform(get(url)).getResponse().getContentAsString().contains("\"firstName\":\"replica\""));
+		}
+	}
+
+	@Test
+	@Order(4)
+	void readsGoToThePrimaryWhenTheReplicaIsDown() throws Exception {
+		replicaServer.stop();
+		ReplicaRoutingDataSource routing = (ReplicaRoutingDataSource) ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+		routing.checkHealth();
+		assertEquals(0, routing.getHealthyReplicas());
+		assertTrue(perform(get("/hms/patient/read?limit=10")).getResponse().getContentAsString().contains("\"firstName\":\"primary\""));
+	}
+
+	private MvcResult perform(RequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+	}
+
+	private static void seed(JdbcTemplate jdbcTemplate, String name) {
+		jdbcTemplate.update("delete from t_record");
+		jdbcTemplate.update("delete from t_patient");
+		jdbcTemplate.update("delete from t_doctor");
+		jdbcTemplate.update("delete from t_user_details");
+		jdbcTemplate.update("insert into t_user_details (pk_user_id, username, password, fk_role_id, firstname) values (10, 'patient10', 'secret', 4, ?)", name);
+		jdbcTemplate.update("insert into t_patient (fk_user_id, blood_group, weight) values (10, 'O+', 70)");
+	}
+
+}
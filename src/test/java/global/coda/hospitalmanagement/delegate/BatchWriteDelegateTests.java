@@ -0,0 +1,226 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.ItemResult;
+import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.model.PatientRecordDetails;
+
+/**
+ * Bulk writes commit chunk by chunk and report every item at its index. A
+ * chunk with a taken username is retried one by one, so only that item fails.
+ * Deletes and updates touch active users of their role only, report the others
+ * as not found, and are seen by the caches and rosters once committed.
+ *
+ * @author Vishal
+ */
+@SpringBootTest(properties = { "hms.bulk.chunk-size=3", "hms.bulk.max-items=5" })
+class BatchWriteDelegateTests {
+
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private DoctorOperationDelegate doctorOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clear() {
+		TestData.clear(jdbcTemplate);
+	}
+
+	@Test
+	void patientsAcrossChunksAreCreatedWithTheirIds() throws Exception {
+		List<ItemResult> results = batchWriteDelegate.createPatients(
+				Arrays.asList(patient("chunk-a"), patient("chunk-b"), patient("chunk-c"), patient("chunk-d")));
+		assertEquals(4, results.size());
+		for (int index = 0; index < results.size(); index++) {
+			assertCreated(results.get(index), index, "chunk-" + (char) ('a' + index));
+		}
+		assertEquals(4, (int) jdbcTemplate.queryForObject("select count(*) from t_patient", Integer.class));
+	}
+
+	@Test
+	void aTakenUsernameInAChunkFailsOnlyItself() throws Exception {
+		TestData.patient(jdbcTemplate, 10);
+		List<ItemResult> results = batchWriteDelegate.createPatients(
+				Arrays.asList(patient("taken-a"), patient("patient10"), patient("taken-c"), patient("taken-d"), patient("TAKEN-A")));
+		assertCreated(results.get(0), 0, "taken-a");
+		assertRejected(results.get(1), 1, ApplicationConstant.NAME_EXIST);
+		assertCreated(results.get(2), 2, "taken-c");
+		assertCreated(results.get(3), 3, "taken-d");
+		assertRejected(results.get(4), 4, ApplicationConstant.NAME_EXIST);
+		assertEquals(4, (int) jdbcTemplate.queryForObject("select count(*) from t_patient", Integer.class));
+	}
+
+	@Test
+	void aMissingUsernameIsRejected() throws Exception {
+		List<ItemResult> results = batchWriteDelegate.createPatients(Arrays.asList(patient(" "), patient("named")));
+		assertRejected(results.get(0), 0, ApplicationConstant.USERNAME_REQUIRED);
+		assertCreated(results.get(1), 1, "named");
+	}
+
+	@Test
+	void moreThanTheMaximumItemsIsRefused() {
+		List<Patient> patients = new ArrayList<Patient>();
+		for (int index = 0; index < 6; index++) {
+			patients.add(patient("many-" + index));
+		}
+		BusinessException error = assertThrows(BusinessException.class, () -> batchWriteDelegate.createPatients(patients));
+		assertTrue(error.getMessage().contains(ApplicationConstant.BULK_SIZE_INVALID + 5));
+		assertEquals(0, (int) jdbcTemplate.queryForObject("select count(*) from t_user_details", Integer.class));
+		assertThrows(BusinessException.class, () -> batchWriteDelegate.createPatients(new ArrayList<Patient>()));
+	}
+
+	@Test
+	void onlyActivePatientsAreDeleted() throws Exception {
+		TestData.doctor(jdbcTemplate, 1);
+		TestData.patient(jdbcTemplate, 20);
+		TestData.patient(jdbcTemplate, 21);
+		TestData.patient(jdbcTemplate, 22);
+		TestData.record(jdbcTemplate, 1, 20);
+		TestData.record(jdbcTemplate, 1, 21);
+		jdbcTemplate.update("update t_user_details set is_active = 0 where pk_user_id = 22");
+		assertEquals(2, doctorOperationDelegate.readRecordById(1).getListOfPatients().size());
+		assertEquals(70, patientOperationDelegate.readPatientById(20).getWeight());
+		List<ItemResult> results = batchWriteDelegate.deletePatients(Arrays.asList(20, 99, 22, 1, 21));
+		assertModified(results.get(0), 0, 20, ApplicationConstant.USER_DELETED);
+		assertNotFound(results.get(1), 1, 99, ApplicationConstant.PATIENT_NOT_FOUND);
+		assertNotFound(results.get(2), 2, 22, ApplicationConstant.PATIENT_NOT_FOUND);
+		assertNotFound(results.get(3), 3, 1, ApplicationConstant.PATIENT_NOT_FOUND);
+		assertModified(results.get(4), 4, 21, ApplicationConstant.USER_DELETED);
+		assertEquals(0, (int) jdbcTemplate.queryForObject("select count(*) from t_user_details where is_active = 1 and fk_role_id = 4", Integer.class));
+		assertEquals(0, (int) jdbcTemplate.queryForObject("select count(*) from t_patient where is_active = 1 and fk_user_id in (20, 21)", Integer.class));
+		assertEquals(1, (int) jdbcTemplate.queryForObject("select count(*) from t_user_details where pk_user_id = 1 and is_active = 1", Integer.class));
+		assertThrows(BusinessException.class, () -> patientOperationDelegate.readPatientById(20));
+		for (PatientRecordDetails record : doctorOperationDelegate.readRecordById(1).getListOfPatients()) {
+			assertNull(record.getPatientId());
+			assertNull(record.getPatientName());
+		}
+	}
+
+	@Test
+	void updatedPatientsAreSeenOnceCommitted() throws Exception {
+		TestData.patient(jdbcTemplate, 30);
+		TestData.patient(jdbcTemplate, 31);
+		TestData.doctor(jdbcTemplate, 2);
+		jdbcTemplate.update("update t_user_details set is_active = 0 where pk_user_id = 31");
+		assertEquals(70, patientOperationDelegate.readPatientById(30).getWeight());
+		List<ItemResult> results = batchWriteDelegate.updatePatients(Arrays.asList(patient(30, 60), patient(31, 60), patient(2, 60), patient(98, 60)));
+		assertModified(results.get(0), 0, 30, ApplicationConstant.UPDATED);
+		assertNotFound(results.get(1), 1, 31, ApplicationConstant.PATIENT_NOT_FOUND);
+		assertNotFound(results.get(2), 2, 2, ApplicationConstant.PATIENT_NOT_FOUND);
+		assertNotFound(results.get(3), 3, 98, ApplicationConstant.PATIENT_NOT_FOUND);
+		assertEquals(60, patientOperationDelegate.readPatientById(30).getWeight());
+		assertEquals(70, (int) jdbcTemplate.queryForObject("select weight from t_patient where fk_user_id = 31", Integer.class));
+		assertEquals(0, (int) jdbcTemplate.queryForObject("select count(*) from t_patient where fk_user_id = 2", Integer.class));
+	}
+
+	@Test
+	void updatedDoctorsAreSeenOnceCommitted() throws Exception {
+		TestData.doctor(jdbcTemplate, 3);
+		TestData.patient(jdbcTemplate, 40);
+		TestData.record(jdbcTemplate, 3, 40);
+		assertEquals("doctor3", doctorOperationDelegate.readDoctorById(3).getFirstName());
+		assertEquals("doctor3", doctorOperationDelegate.readRecordById(3).getDoctorName());
+		jdbcTemplate.update("update t_user_details set username = 'renamed' where pk_user_id = 3");
+		List<ItemResult> results = batchWriteDelegate.updateDoctors(Arrays.asList(doctor(3), doctor(40), null));
+		assertModified(results.get(0), 0, 3, ApplicationConstant.UPDATED);
+		assertNotFound(results.get(1), 1, 40, ApplicationConstant.DOCTOR_NOT_FOUND);
+		assertRejected(results.get(2), 2, ApplicationConstant.ID_REQUIRED);
+		assertEquals("updated", doctorOperationDelegate.readDoctorById(3).getFirstName());
+		assertEquals("renamed", doctorOperationDelegate.readRecordById(3).getDoctorName());
+		assertEquals("patient40", jdbcTemplate.queryForObject("select firstname from t_user_details where pk_user_id = 40", String.class));
+	}
+
+	@Test
+	void aRepeatedIdIsRejected() throws Exception {
+		TestData.patient(jdbcTemplate, 50);
+		List<ItemResult> results = batchWriteDelegate.deletePatients(Arrays.asList(50, 50));
+		assertModified(results.get(0), 0, 50, ApplicationConstant.USER_DELETED);
+		assertRejected(results.get(1), 1, ApplicationConstant.ID_REPEATED);
+		assertThrows(BusinessException.class, () -> batchWriteDelegate.deletePatients(Collections.<Integer>emptyList()));
+	}
+
+	private void assertCreated(ItemResult result, int index, String username) {
+		assertEquals(index, result.getIndex());
+		assertEquals(HttpStatusConstant.OK, result.getStatus());
+		assertEquals(username, jdbcTemplate.queryForObject("select username from t_user_details where pk_user_id = ?", String.class, result.getId()));
+		assertEquals(1, (int) jdbcTemplate.queryForObject("select count(*) from t_patient where fk_user_id = ?", Integer.class, result.getId()));
+	}
+
+	private static void assertModified(ItemResult result, int index, int id, String message) {
+		assertEquals(index, result.getIndex());
+		assertEquals(id, (int) result.getId());
+		assertEquals(HttpStatusConstant.OK, result.getStatus());
+		assertEquals(message, result.getMessage());
+	}
+
+	private static void assertNotFound(ItemResult result, int index, int id, String message) {
+		assertEquals(index, result.getIndex());
+		assertEquals(id, (int) result.getId());
+		assertEquals(HttpStatusConstant.FILE_NOT_FOUND, result.getStatus());
+		assertEquals(message, result.getMessage());
+	}
+
+	private static void assertRejected(ItemResult result, int index, String message) {
+		assertEquals(index, result.getIndex());
+		assertNull(result.getId());
+		assertEquals(HttpStatusConstant.BAD_REQUEST, result.getStatus());
+		assertEquals(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + message, result.getMessage());
+	}
+
+	private static Patient patient(String username) {
+		Patient patient = new Patient();
+		patient.setUsername(username);
+		patient.setPassword("secret");
+		patient.setFirstName(username);
+		patient.setBloodGroup("O+");
+		patient.setWeight(70);
+		return patient;
+	}
+
+	private static Patient patient(int id, int weight) {
+		Patient patient = new Patient();
+		patient.setId(id);
+		patient.setPassword("secret");
+		patient.setFirstName("updated");
+		patient.setBloodGroup("O+");
+		patient.setWeight(weight);
+		return patient;
+	}
+
+	private static Doctor doctor(int id) {
+		Doctor doctor = new Doctor();
+		doctor.setId(id);
+		doctor.setPassword("secret");
+		doctor.setFirstName("updated");
+		doctor.setSpecilization("cardio");
+		return doctor;
+	}
+
+}
@@ -0,0 +1,98 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.constant.PaginationConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.PagedResponse;
+
+/**
+ * Doctor pages are carried by an opaque token of the last id: following the
+ * tokens reads every active doctor once, without passwords, and a token that
+ * was not handed out is refused.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+class DoctorPageTests {
+
+	@Autowired
+	private DoctorOperationDelegate doctorOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+
+	@BeforeEach
+	void seed() {
+		TestData.clear(jdbcTemplate);
+		for (int id = 201; id <= 204; id++) {
+			TestData.doctor(jdbcTemplate, id);
+		}
+		TestData.patient(jdbcTemplate, 205);
+		TestData.doctor(jdbcTemplate, 206);
+		jdbcTemplate.update("update t_user_details set is_active = 0 where pk_user_id = 202");
+		TestData.clearMapperCaches(sqlSessionFactory);
+	}
+
+	@Test
+	void pagesFollowTheToken() throws Exception {
+		PagedResponse<Doctor> first = doctorOperationDelegate.readDoctorPage(null, 2, null);
+		assertEquals(Arrays.asList(201, 203), ids(first));
+		assertNotEquals("203", first.getNextCursor());
+		PagedResponse<Doctor> second = doctorOperationDelegate.readDoctorPage(first.getNextCursor(), 2, null);
+		assertEquals(Arrays.asList(204, 206), ids(second));
+		assertNull(second.getNextCursor());
+		for (Doctor doctor : first.getItems()) {
+			assertNull(doctor.getPassword());
+		}
+	}
+
+	@Test
+	void thePageSizeIsBounded() throws Exception {
+		assertEquals(PaginationConstant.DEFAULT_PAGE_SIZE, doctorOperationDelegate.readDoctorPage("", -5, null).getLimit());
+		PagedResponse<Doctor> page = doctorOperationDelegate.readDoctorPage(null, PaginationConstant.MAX_PAGE_SIZE + 1, null);
+		assertEquals(PaginationConstant.MAX_PAGE_SIZE, page.getLimit());
+		assertEquals(Arrays.asList(201, 203, 204, 206), ids(page));
+	}
+
+	@Test
+	void aTokenThatWasNotHandedOutIsRefused() {
+		String unversioned = Base64.getUrlEncoder().encodeToString("203".getBytes(StandardCharsets.UTF_8));
+		for (String token : Arrays.asList("203", "not a token", unversioned)) {
+			BusinessException error = assertThrows(BusinessException.class, () -> doctorOperationDelegate.readDoctorPage(token, 2, null));
+			assertEquals(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.INVALID_TOKEN, error.getMessage());
+		}
+	}
+
+	private static List<Integer> ids(PagedResponse<Doctor> page) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Doctor doctor : page.getItems()) {
+			ids.add(doctor.getId());
+		}
+		return ids;
+	}
+
+}
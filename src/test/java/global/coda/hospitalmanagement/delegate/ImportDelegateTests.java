@@ -0,0 +1,171 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.model.ImportJob;
+import global.coda.hospitalmanagement.model.ItemResult;
+import global.coda.hospitalmanagement.model.Patient;
+import global.coda.hospitalmanagement.model.RejectedRow;
+
+/**
+ * An import reports invalid rows by their row number and writes the others
+ * block by block. One import more than allowed is refused, and an import
+ * whose writer fails still ends and gives its slot back.
+ *
+ * @author Vishal
+ */
+@SpringBootTest(properties = { "hms.import.block-size=2", "hms.import.workers=1", "hms.import.validation-queue-capacity=1",
+		"hms.import.write-queue-capacity=1", "hms.import.max-concurrent-jobs=1" })
+class ImportDelegateTests {
+
+	private static final long TIMEOUT_MILLIS = 10000;
+
+	private static final String HEADER = "username,password,weight\n";
+
+	@Autowired
+	private ImportDelegate importDelegate;
+
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clear() {
+		TestData.clear(jdbcTemplate);
+	}
+
+	@AfterEach
+	void restore() {
+		ReflectionTestUtils.setField(importDelegate, "batchWriteDelegate", batchWriteDelegate);
+	}
+
+	@Test
+	void aFileWithoutAUsernameColumnFails() throws Exception {
+		ImportJob job = awaitFinished(importDelegate.importPatients(csv("name,password\nnew,secret\n")));
+		assertEquals(ImportJob.State.FAILED, job.getState());
+		assertEquals(ApplicationConstant.MISSING_USERNAME_COLUMN, job.getError());
+		assertEquals(0, job.getRowsRead());
+	}
+
+	@Test
+	void invalidRowsAreRejectedByTheirRowNumber() throws Exception {
+		TestData.patient(jdbcTemplate, 10);
+		ImportJob job = awaitFinished(importDelegate.importPatients(
+				csv(HEADER + "first,secret,70\n,secret,70\nthird,,70\nfourth,secret,heavy\nfifth,secret\npatient10,secret,70\nseventh,secret,\n")));
+		assertEquals(ImportJob.State.COMPLETED, job.getState());
+		assertEquals(7, job.getRowsRead());
+		assertEquals(2, job.getRowsCreated());
+		assertEquals(5, job.getRowsRejected());
+		List<RejectedRow> rejected = job.getRejectedRows();
+		rejected.sort((left, right) -> Long.compare(left.getRow(), right.getRow()));
+		assertRejected(rejected.get(0), 2, ApplicationConstant.USERNAME_REQUIRED);
+		assertRejected(rejected.get(1), 3, ApplicationConstant.PASSWORD_REQUIRED);
+		assertRejected(rejected.get(2), 4, ApplicationConstant.WEIGHT_INVALID);
+		assertRejected(rejected.get(3), 5, ApplicationConstant.COLUMN_COUNT_INVALID);
+		assertRejected(rejected.get(4), 6, ApplicationConstant.NAME_EXIST);
+		assertEquals(Arrays.asList("first", "seventh"),
+				jdbcTemplate.queryForList("select username from t_user_details where pk_user_id <> 10 order by username", String.class));
+	}
+
+	@Test
+	void anImportMoreThanAllowedIsRefused() throws Exception {
+		CompletableFuture<Void> release = new CompletableFuture<Void>();
+		ReflectionTestUtils.setField(importDelegate, "batchWriteDelegate", new BatchWriteDelegate() {
+
+			@Override
+			public List<ItemResult> createPatients(List<Patient> patients) {
+				release.join();
+				return batchWriteDelegate.createPatients(patients);
+			}
+		});
+		ImportJob job = importDelegate.importPatients(csv(HEADER + "held,secret,70\n"));
+		try {
+			BusinessException error = assertThrows(BusinessException.class, () -> importDelegate.importPatients(csv(HEADER + "refused,secret,70\n")));
+			assertTrue(error.getMessage().contains(ApplicationConstant.TOO_MANY_IMPORTS));
+		} finally {
+			release.complete(null);
+		}
+		assertEquals(1, awaitFinished(job).getRowsCreated());
+	}
+
+	@Test
+	void aFailedWriterStillEndsTheImport() throws Exception {
+		CompletableFuture<Void> fail = new CompletableFuture<Void>();
+		ReflectionTestUtils.setField(importDelegate, "batchWriteDelegate", new BatchWriteDelegate() {
+
+			@Override
+			public List<ItemResult> createPatients(List<Patient> patients) {
+				fail.join();
+				throw new IllegalStateException("database down");
+			}
+		});
+		StringBuilder file = new StringBuilder(HEADER);
+		for (int row = 0; row < 20; row++) {
+			file.append("failed").append(row).append(",secret,70\n");
+		}
+		ImportJob job = importDelegate.importPatients(csv(file.toString()));
+		try {
+			// the writer holds the first block until the queues are full and the reader stops
+			long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+			long rowsRead = -1;
+			while (job.getRowsRead() < 6 || job.getRowsRead() != rowsRead) {
+				assertTrue(System.currentTimeMillis() < deadline, "import " + job + " did not fill its queues");
+				rowsRead = job.getRowsRead();
+				TimeUnit.MILLISECONDS.sleep(50);
+			}
+		} finally {
+			fail.complete(null);
+		}
+		awaitFinished(job);
+		assertEquals(ImportJob.State.FAILED, job.getState());
+		assertEquals("database down", job.getError());
+		assertEquals(0, job.getRowsCreated());
+		restore();
+		assertEquals(1, awaitFinished(importDelegate.importPatients(csv(HEADER + "after,secret,70\n"))).getRowsCreated());
+	}
+
+	private ImportJob awaitFinished(ImportJob job) throws Exception {
+		Semaphore running = (Semaphore) ReflectionTestUtils.getField(importDelegate, "running");
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (job.getFinishedAt() == null || running.availablePermits() == 0) {
+			assertTrue(System.currentTimeMillis() < deadline, "import " + job + " did not end");
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+		assertNotNull(importDelegate.readJob(job.getId()));
+		return job;
+	}
+
+	private static void assertRejected(RejectedRow row, long number, String message) {
+		assertEquals(number, row.getRow());
+		assertTrue(row.getMessage().endsWith(message), row.getMessage());
+	}
+
+	private static MockMultipartFile csv(String content) {
+		return new MockMultipartFile("file", "patients.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
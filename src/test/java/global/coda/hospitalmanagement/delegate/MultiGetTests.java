@@ -0,0 +1,84 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+import global.coda.hospitalmanagement.model.BatchResult;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ * A multi-get returns the active users of its type in request order and lists
+ * every other id as missing. Repeated ids count once against the batch size.
+ *
+ * @author Vishal
+ */
+@SpringBootTest(properties = "hms.read.max-batch-size=5")
+class MultiGetTests {
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private DoctorOperationDelegate doctorOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+
+	@BeforeEach
+	void seed() {
+		TestData.clear(jdbcTemplate);
+		TestData.patient(jdbcTemplate, 801);
+		TestData.patient(jdbcTemplate, 802);
+		TestData.patient(jdbcTemplate, 803);
+		TestData.doctor(jdbcTemplate, 804);
+		jdbcTemplate.update("update t_user_details set is_active = 0 where pk_user_id = 802");
+		TestData.clearMapperCaches(sqlSessionFactory);
+	}
+
+	@Test
+	void foundAndMissingPatientsAreSplit() throws Exception {
+		BatchResult<Patient> result = patientOperationDelegate.readPatientByIds(Arrays.asList(803, 899, 801, 802, 803, 804));
+		assertEquals(Arrays.asList(803, 801), new ArrayList<Integer>(result.getItems().keySet()));
+		assertEquals("patient801", result.getItems().get(801).getUsername());
+		assertEquals(Arrays.asList(899, 802, 804), result.getMissingIds());
+	}
+
+	@Test
+	void foundAndMissingDoctorsAreSplit() throws Exception {
+		BatchResult<Doctor> result = doctorOperationDelegate.readDoctorByIds(Arrays.asList(801, 804, 804));
+		assertEquals(Collections.singleton(804), result.getItems().keySet());
+		assertEquals("cardio", result.getItems().get(804).getSpecilization());
+		assertEquals(Collections.singletonList(801), result.getMissingIds());
+	}
+
+	@Test
+	void theBatchSizeIsCapped() throws Exception {
+		BatchResult<Patient> repeated = patientOperationDelegate.readPatientByIds(Arrays.asList(801, 802, 803, 804, 805, 801, 802));
+		assertEquals(5, repeated.getItems().size() + repeated.getMissingIds().size());
+		BusinessException tooMany = assertThrows(BusinessException.class,
+				() -> patientOperationDelegate.readPatientByIds(Arrays.asList(801, 802, 803, 804, 805, 806)));
+		assertEquals(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.BATCH_SIZE_INVALID + 5, tooMany.getMessage());
+		assertThrows(BusinessException.class, () -> doctorOperationDelegate.readDoctorByIds(Arrays.asList(801, 802, 803, 804, 805, 806)));
+		assertThrows(BusinessException.class, () -> doctorOperationDelegate.readDoctorByIds(Collections.<Integer>emptyList()));
+	}
+
+}
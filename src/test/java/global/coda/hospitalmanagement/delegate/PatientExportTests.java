@@ -0,0 +1,72 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import global.coda.hospitalmanagement.StreamingHintConfiguration;
+import global.coda.hospitalmanagement.TestData;
+
+/**
+ * The export writes one JSON object per active patient and line, in id order,
+ * and leaves the output stream open.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+@Import(StreamingHintConfiguration.class)
+class PatientExportTests {
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void clear() {
+		TestData.clear(jdbcTemplate);
+	}
+
+	@Test
+	void everyActivePatientIsOneLine() throws Exception {
+		TestData.patient(jdbcTemplate, 303);
+		TestData.patient(jdbcTemplate, 301);
+		TestData.patient(jdbcTemplate, 302);
+		TestData.doctor(jdbcTemplate, 304);
+		jdbcTemplate.update("update t_user_details set is_active = 0 where pk_user_id = 302");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(2, patientOperationDelegate.exportPatients(output));
+		output.write('!');
+		String[] lines = output.toString(StandardCharsets.UTF_8.name()).split("\n");
+		assertEquals(3, lines.length);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertEquals(301, first.get("id").asInt());
+		assertEquals("patient301", first.get("username").asText());
+		assertEquals(70, first.get("weight").asInt());
+		assertEquals(303, objectMapper.readTree(lines[1]).get("id").asInt());
+		assertEquals("!", lines[2]);
+	}
+
+	@Test
+	void noPatientsIsAnEmptyExport() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(0, patientOperationDelegate.exportPatients(output));
+		assertEquals(0, output.size());
+	}
+
+}
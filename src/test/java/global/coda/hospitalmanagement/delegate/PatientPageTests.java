@@ -0,0 +1,90 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.PaginationConstant;
+import global.coda.hospitalmanagement.model.PagedResponse;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ * Patient pages follow the user id: every active patient is on exactly one
+ * page, the next cursor is the last id of a full page and is missing on the
+ * last page, and the page size stays within its bounds.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+class PatientPageTests {
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+
+	@BeforeEach
+	void seed() {
+		TestData.clear(jdbcTemplate);
+		for (int id = 101; id <= 105; id++) {
+			TestData.patient(jdbcTemplate, id);
+		}
+		TestData.doctor(jdbcTemplate, 106);
+		TestData.patient(jdbcTemplate, 107);
+		jdbcTemplate.update("update t_user_details set is_active = 0 where pk_user_id = 103");
+		TestData.clearMapperCaches(sqlSessionFactory);
+	}
+
+	@Test
+	void pagesFollowTheNextCursor() throws Exception {
+		PagedResponse<Patient> first = patientOperationDelegate.readPatientPage(0, 2, null);
+		assertEquals(Arrays.asList(101, 102), ids(first));
+		assertEquals("102", first.getNextCursor());
+		PagedResponse<Patient> second = patientOperationDelegate.readPatientPage(Integer.parseInt(first.getNextCursor()), 2, null);
+		assertEquals(Arrays.asList(104, 105), ids(second));
+		assertEquals("105", second.getNextCursor());
+		PagedResponse<Patient> last = patientOperationDelegate.readPatientPage(Integer.parseInt(second.getNextCursor()), 2, null);
+		assertEquals(Arrays.asList(107), ids(last));
+		assertNull(last.getNextCursor());
+	}
+
+	@Test
+	void aPageThatEndsOnTheLastPatientHasNoNextCursor() throws Exception {
+		PagedResponse<Patient> page = patientOperationDelegate.readPatientPage(102, 3, null);
+		assertEquals(Arrays.asList(104, 105, 107), ids(page));
+		assertNull(page.getNextCursor());
+		assertEquals(0, patientOperationDelegate.readPatientPage(107, 3, null).getItems().size());
+	}
+
+	@Test
+	void thePageSizeIsBounded() throws Exception {
+		assertEquals(PaginationConstant.DEFAULT_PAGE_SIZE, patientOperationDelegate.readPatientPage(-1, 0, null).getLimit());
+		PagedResponse<Patient> page = patientOperationDelegate.readPatientPage(-1, PaginationConstant.MAX_PAGE_SIZE + 1, null);
+		assertEquals(PaginationConstant.MAX_PAGE_SIZE, page.getLimit());
+		assertEquals(Arrays.asList(101, 102, 104, 105, 107), ids(page));
+	}
+
+	private static List<Integer> ids(PagedResponse<Patient> page) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (Patient patient : page.getItems()) {
+			ids.add(patient.getId());
+		}
+		return ids;
+	}
+
+}
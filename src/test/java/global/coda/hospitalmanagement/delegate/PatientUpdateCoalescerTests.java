@@ -0,0 +1,288 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.cache.SingleFlight;
+import global.coda.hospitalmanagement.model.CoalescingStatistics;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ * Coalesced patient updates are seen by reads before they are written, written
+ * before reads of many patients, also when such a read is already running, and
+ * written on shutdown. Failed updates are retried a bounded number of times and
+ * updates of deleted patients are dropped.
+ *
+ * @author Vishal
+ */
+@SpringBootTest(properties = { "hms.patient.update-coalescing.enabled=true", "hms.patient.update-coalescing.window-millis=600000" })
+class PatientUpdateCoalescerTests {
+
+	private static final int UPDATES = 2000;
+
+	private static final long PAUSE_NANOS = 200000;
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private PatientUpdateCoalescer updateCoalescer;
+
+	@Autowired
+	private BatchWriteDelegate batchWriteDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SingleFlight patientReads;
+
+	@Autowired
+	private HeldListRead heldListRead;
+
+	@BeforeEach
+	void seed() {
+		TestData.clear(jdbcTemplate);
+		TestData.patient(jdbcTemplate, 10);
+	}
+
+	@AfterEach
+	void flush() throws Exception {
+		updateCoalescer.flush();
+	}
+
+	@Test
+	void aReadByIdSeesThePendingUpdate() throws Exception {
+		patientOperationDelegate.updatePatient(patient(60));
+		assertEquals(60, patientOperationDelegate.readPatientById(10).getWeight());
+		assertEquals("pending", patientOperationDelegate.readPatientById(10).getFirstName());
+		assertEquals(70, storedWeight());
+	}
+
+	@Test
+	void aReadOfManyPatientsWritesThePendingUpdates() throws Exception {
+		patientOperationDelegate.updatePatient(patient(60));
+		assertEquals(60, patientOperationDelegate.readAllPatient(null).get(0).getWeight());
+		assertEquals(60, storedWeight());
+	}
+
+	@Test
+	void anUpdateSubmittedDuringAListReadIsInTheNextListRead() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			heldListRead.armed.set(true);
+			Future<List<Patient>> running = executor.submit(() -> patientOperationDelegate.readAllPatient(null));
+			heldListRead.read.await();
+			patientOperationDelegate.updatePatient(patient(60));
+			long coalesced = patientReads.getStatistics().getCoalescedCount();
+			Future<List<Patient>> next = executor.submit(() -> patientOperationDelegate.readAllPatient(null));
+			while (!next.isDone() && patientReads.getStatistics().getCoalescedCount() == coalesced) {
+				Thread.sleep(1);
+			}
+			heldListRead.release.complete(null);
+			assertEquals(70, running.get(1, TimeUnit.SECONDS).get(0).getWeight());
+			assertEquals(60, next.get(1, TimeUnit.SECONDS).get(0).getWeight());
+		} finally {
+			heldListRead.release.complete(null);
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void aFailedUpdateIsRetried() throws Exception {
+		PatientUpdateCoalescer coalescer = coalescer(600000);
+		try {
+			coalescer.submit(patient(20, 60));
+			coalescer.flush();
+			assertNotNull(coalescer.pending(20));
+			TestData.patient(jdbcTemplate, 20);
+			coalescer.flush();
+			assertNull(coalescer.pending(20));
+			assertEquals(60, storedWeight(20));
+			CoalescingStatistics statistics = coalescer.getStatistics();
+			assertEquals(1, statistics.getFailedFlushCount());
+			assertEquals(1, statistics.getRetriedCount());
+			assertEquals(0, statistics.getDroppedCount());
+		} finally {
+			coalescer.destroy();
+		}
+	}
+
+	@Test
+	void aFailingUpdateIsGivenUpAfterItsLastAttempt() throws Exception {
+		PatientUpdateCoalescer coalescer = coalescer(600000);
+		try {
+			coalescer.submit(patient(20, 60));
+			coalescer.flush();
+			coalescer.flush();
+			coalescer.flush();
+			assertNull(coalescer.pending(20));
+			CoalescingStatistics statistics = coalescer.getStatistics();
+			assertEquals(3, statistics.getFailedFlushCount());
+			assertEquals(2, statistics.getRetriedCount());
+			assertEquals(1, statistics.getDroppedCount());
+			assertEquals(0, statistics.getPendingCount());
+		} finally {
+			coalescer.destroy();
+		}
+	}
+
+	@Test
+	void deletingAPatientDropsItsPendingUpdate() throws Exception {
+		patientOperationDelegate.updatePatient(patient(60));
+		assertEquals(1, updateCoalescer.getStatistics().getPendingCount());
+		patientOperationDelegate.deletePatient(patient(60));
+		assertNull(updateCoalescer.pending(10));
+		assertEquals(0, updateCoalescer.getStatistics().getPendingCount());
+	}
+
+	@Test
+	void shutdownWritesThePendingUpdates() throws Exception {
+		PatientUpdateCoalescer coalescer = coalescer(600000);
+		coalescer.submit(patient(60));
+		coalescer.destroy();
+		assertEquals(60, storedWeight());
+	}
+
+	@Test
+	void anUpdateIsPendingOrWrittenWhileItIsFlushed() throws Exception {
+		PatientUpdateCoalescer coalescer = coalescer(1);
+		AtomicInteger submitted = new AtomicInteger(70);
+		Thread writer = new Thread(() -> {
+			for (int weight = 71; weight < 71 + UPDATES; weight++) {
+				coalescer.submit(patient(weight));
+				submitted.set(weight);
+				LockSupport.parkNanos(PAUSE_NANOS);
+			}
+		});
+		writer.start();
+		try {
+			while (writer.isAlive()) {
+				int expected = submitted.get();
+				Patient pending = coalescer.pending(10);
+				Patient stored = new Patient();
+				stored.setId(10);
+				stored.setWeight(storedWeight());
+				int seen = coalescer.overlay(stored, pending).getWeight();
+				assertTrue(seen >= expected, "read " + seen + " after " + expected + " was submitted");
+			}
+		} finally {
+			writer.join();
+			coalescer.destroy();
+		}
+		assertEquals(70 + UPDATES, storedWeight());
+	}
+
+	private PatientUpdateCoalescer coalescer(long windowMillis) {
+		PatientUpdateCoalescer coalescer = new PatientUpdateCoalescer();
+		ReflectionTestUtils.setField(coalescer, "batchWriteDelegate", batchWriteDelegate);
+		ReflectionTestUtils.setField(coalescer, "enabled", true);
+		ReflectionTestUtils.setField(coalescer, "windowMillis", windowMillis);
+		ReflectionTestUtils.setField(coalescer, "stripeCount", 4);
+		ReflectionTestUtils.setField(coalescer, "chunkSize", 100);
+		ReflectionTestUtils.setField(coalescer, "maxAttempts", 3);
+		coalescer.init();
+		return coalescer;
+	}
+
+	private int storedWeight() {
+		return storedWeight(10);
+	}
+
+	private int storedWeight(int id) {
+		return jdbcTemplate.queryForObject("select weight from t_patient where fk_user_id = ?", Integer.class, id);
+	}
+
+	private static Patient patient(int weight) {
+		return patient(10, weight);
+	}
+
+	private static Patient patient(int id, int weight) {
+		Patient patient = new Patient();
+		patient.setId(id);
+		patient.setFirstName("pending");
+		patient.setPassword("secret");
+		patient.setWeight(weight);
+		return patient;
+	}
+
+	@TestConfiguration
+	static class HeldListReadConfiguration {
+
+		@Bean
+		HeldListRead heldListRead() {
+			return new HeldListRead();
+		}
+
+	}
+
+	/**
+	 * Holds the first list read after it is armed, once its rows are read.
+	 */
+	@Intercepts(@Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }))
+	static class HeldListRead implements Interceptor {
+
+		private final AtomicBoolean armed = new AtomicBoolean();
+
+		private final CountDownLatch read = new CountDownLatch(1);
+
+		private final CompletableFuture<Void> release = new CompletableFuture<Void>();
+
+		@Override
+		public Object intercept(Invocation invocation) throws Throwable {
+			Object result = invocation.proceed();
+			if (((MappedStatement) invocation.getArgs()[0]).getId().endsWith(".readAllPatient") && armed.compareAndSet(true, false)) {
+				read.countDown();
+				release.join();
+			}
+			return result;
+		}
+
+		@Override
+		public Object plugin(Object target) {
+			return Plugin.wrap(target, this);
+		}
+
+		@Override
+		public void setProperties(Properties properties) {
+			// nothing to configure
+		}
+
+	}
+
+}
@@ -0,0 +1,98 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import global.coda.hospitalmanagement.StreamingHintConfiguration;
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+
+/**
+ * The streamed rosters group the records of each active doctor into one
+ * roster, in doctor id order, including doctors without records.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+@Import(StreamingHintConfiguration.class)
+class RosterExportTests {
+
+	@Autowired
+	private DoctorOperationDelegate doctorOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void clear() {
+		TestData.clear(jdbcTemplate);
+	}
+
+	@Test
+	void recordsAreGroupedByDoctor() throws Exception {
+		for (int id = 401; id <= 404; id++) {
+			TestData.doctor(jdbcTemplate, id);
+		}
+		TestData.patient(jdbcTemplate, 411);
+		TestData.patient(jdbcTemplate, 412);
+		TestData.record(jdbcTemplate, 402, 411);
+		TestData.record(jdbcTemplate, 401, 412);
+		TestData.record(jdbcTemplate, 402, 412);
+		TestData.record(jdbcTemplate, 404, 411);
+		jdbcTemplate.update("update t_user_details set is_active = 0 where pk_user_id = 404");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		assertEquals(3, doctorOperationDelegate.writeAllRecord(output));
+		JsonNode body = objectMapper.readTree(output.toByteArray());
+		assertEquals(200, body.get(ApplicationConstant.STATUS).asInt());
+		JsonNode rosters = body.get(ApplicationConstant.MESSAGE);
+		assertEquals(3, rosters.size());
+		assertRoster(rosters.get(0), 401, 412);
+		assertRoster(rosters.get(1), 402, 411, 412);
+		assertEquals(403, rosters.get(2).get("doctorId").asInt());
+		assertEquals(1, rosters.get(2).get("listOfPatients").size());
+		assertTrue(rosters.get(2).get("listOfPatients").get(0).get("patientName").isNull());
+	}
+
+	@Test
+	void noDoctorsIsNotFound() {
+		TestData.patient(jdbcTemplate, 411);
+		BusinessException error = assertThrows(BusinessException.class, () -> doctorOperationDelegate.writeAllRecord(new ByteArrayOutputStream()));
+		assertTrue(error.getMessage().endsWith(ApplicationConstant.RECORD_NOT_FOUND));
+	}
+
+	private static void assertRoster(JsonNode roster, int doctorId, int... patientIds) {
+		assertEquals(doctorId, roster.get("doctorId").asInt());
+		assertEquals("doctor" + doctorId, roster.get("doctorName").asText());
+		Set<String> expected = new HashSet<String>();
+		for (int patientId : patientIds) {
+			expected.add("patient" + patientId);
+		}
+		Set<String> names = new HashSet<String>();
+		for (JsonNode patient : roster.get("listOfPatients")) {
+			names.add(patient.get("patientName").asText());
+			assertEquals("flu", patient.get("disease").asText());
+		}
+		assertEquals(patientIds.length, roster.get("listOfPatients").size());
+		assertEquals(expected, names);
+	}
+
+}
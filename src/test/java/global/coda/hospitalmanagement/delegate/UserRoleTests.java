@@ -0,0 +1,55 @@
+package global.coda.hospitalmanagement.delegate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.model.Doctor;
+import global.coda.hospitalmanagement.model.Patient;
+
+/**
+ * New users are stored with the role of what was created, not always with the
+ * patient role.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+class UserRoleTests {
+
+	@Autowired
+	private DoctorOperationDelegate doctorOperationDelegate;
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void aCreatedDoctorHasTheDoctorRole() throws Exception {
+		Doctor doctor = new Doctor();
+		doctor.setUsername("role-doctor-" + System.nanoTime());
+		doctor.setPassword("secret");
+		assertTrue(doctorOperationDelegate.addDoctor(doctor));
+		assertEquals(ApplicationConstant.DOCTOR_ROLE_ID, roleOf(doctor.getUsername()));
+	}
+
+	@Test
+	void aCreatedPatientHasThePatientRole() throws Exception {
+		Patient patient = new Patient();
+		patient.setUsername("role-patient-" + System.nanoTime());
+		patient.setPassword("secret");
+		assertTrue(patientOperationDelegate.addPatient(patient));
+		assertEquals(ApplicationConstant.PATIENT_ROLE_ID, roleOf(patient.getUsername()));
+	}
+
+	private int roleOf(String username) {
+		return jdbcTemplate.queryForObject("select fk_role_id from t_user_details where username = ?", Integer.class, username);
+	}
+
+}
@@ -0,0 +1,47 @@
+package global.coda.hospitalmanagement.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.delegate.PatientOperationDelegate;
+
+/**
+ * A missing id is reported with the shared exception, which carries no stack
+ * trace, also when the miss is served from the cache.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+class NotFoundExceptionTests {
+
+	@Autowired
+	private PatientOperationDelegate patientOperationDelegate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void aMissingPatientThrowsTheSharedException() {
+		TestData.clear(jdbcTemplate);
+		assertSame(NotFoundException.PATIENT, assertThrows(BusinessException.class, () -> patientOperationDelegate.readPatientById(951)));
+		assertSame(NotFoundException.PATIENT, assertThrows(BusinessException.class, () -> patientOperationDelegate.readPatientById(951)));
+	}
+
+	@Test
+	void theSharedExceptionsCarryNoStackTrace() {
+		assertEquals(0, NotFoundException.PATIENT.getStackTrace().length);
+		assertEquals(0, NotFoundException.DOCTOR.getStackTrace().length);
+		assertEquals(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.PATIENT_NOT_FOUND,
+				NotFoundException.PATIENT.getMessage());
+	}
+
+}
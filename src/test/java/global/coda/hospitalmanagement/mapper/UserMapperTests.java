@@ -0,0 +1,33 @@
+package global.coda.hospitalmanagement.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The username check sees users written by anyone, not a count cached before
+ * they were written.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+class UserMapperTests {
+
+	@Autowired
+	private UserMapper userMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void theUsernameCountSeesUsersWrittenElsewhere() {
+		String username = "elsewhere-" + System.nanoTime();
+		assertEquals(0, userMapper.countUserName(username));
+		jdbcTemplate.update("insert into t_user_details (username, password, fk_role_id) values (?, 'secret', 4)", username);
+		assertEquals(1, userMapper.countUserName(username));
+	}
+
+}
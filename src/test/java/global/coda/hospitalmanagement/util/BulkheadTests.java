@@ -0,0 +1,103 @@
+package global.coda.hospitalmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.exception.NotFoundException;
+
+/**
+ * A full bulkhead rejects at once and leaves the other bulkhead serving. Tasks
+ * fail with their own exception, and an inline bulkhead runs them on the
+ * calling thread.
+ *
+ * @author Vishal
+ */
+@SpringBootTest(properties = { "hms.bulkhead.report.threads=1", "hms.bulkhead.report.queue-depth=1" })
+@AutoConfigureMockMvc
+class BulkheadTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	@Qualifier("reportBulkhead")
+	private Bulkhead reportBulkhead;
+
+	@Test
+	void aFullReportBulkheadLeavesPointReadsServed() throws Exception {
+		TestData.clear(jdbcTemplate);
+		TestData.patient(jdbcTemplate, 10);
+		CompletableFuture<Void> release = new CompletableFuture<Void>();
+		CompletableFuture<Void> running = reportBulkhead.submit(release::get);
+		CompletableFuture<Void> queued = reportBulkhead.submit(release::get);
+		try {
+			assertEquals(200, perform(get("/hms/patient/read/10")).getResponse().getStatus());
+			assertEquals(503, perform(get("/hms/patient/read?limit=10")).getResponse().getStatus());
+		} finally {
+			release.complete(null);
+		}
+		CompletableFuture.allOf(running, queued).get(1, TimeUnit.SECONDS);
+		assertEquals(200, perform(get("/hms/patient/read?limit=10")).getResponse().getStatus());
+	}
+
+	@Test
+	void aFailedTaskKeepsItsException() throws Exception {
+		Bulkhead bulkhead = Bulkhead.bounded("test", 1, 1);
+		try {
+			CompletableFuture<Object> future = bulkhead.submit(() -> {
+				throw NotFoundException.PATIENT;
+			});
+			assertSame(NotFoundException.PATIENT, future.handle((value, error) -> error).get(1, TimeUnit.SECONDS));
+		} finally {
+			bulkhead.shutdown();
+		}
+	}
+
+	@Test
+	void aFullBulkheadRejectsAtOnce() throws Exception {
+		Bulkhead bulkhead = Bulkhead.bounded("test", 1, 1);
+		CompletableFuture<Void> release = new CompletableFuture<Void>();
+		try {
+			bulkhead.submit(release::get);
+			bulkhead.submit(release::get);
+			assertThrows(RejectedExecutionException.class, () -> bulkhead.submit(() -> null));
+		} finally {
+			release.complete(null);
+			bulkhead.shutdown();
+		}
+	}
+
+	@Test
+	void anInlineBulkheadRunsOnTheCallingThread() throws Exception {
+		Thread caller = Thread.currentThread();
+		CompletableFuture<Thread> future = Bulkhead.inline("test").submit(Thread::currentThread);
+		assertSame(caller, future.getNow(null));
+	}
+
+	private MvcResult perform(RequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+	}
+
+}
@@ -0,0 +1,73 @@
+package global.coda.hospitalmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+/**
+ * Every update changes the entity tag, also when two updates fall within the
+ * same second.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class EntityTagTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seed() {
+		jdbcTemplate.update("delete from t_record");
+		jdbcTemplate.update("delete from t_patient");
+		jdbcTemplate.update("delete from t_doctor");
+		jdbcTemplate.update("delete from t_user_details");
+		jdbcTemplate.update("insert into t_user_details (pk_user_id, username, password, fk_role_id, firstname) values (10, 'patient', 'secret', 4, 'first')");
+		jdbcTemplate.update("insert into t_patient (fk_user_id, blood_group, weight) values (10, 'O+', 70)");
+	}
+
+	@Test
+	void updatesWithinOneSecondChangeTheEntityTag() throws Exception {
+		String etag = perform(get("/hms/patient/read/10")).getResponse().getHeader(HttpHeaders.ETAG);
+		update("second");
+		MvcResult second = perform(get("/hms/patient/read/10").header(HttpHeaders.IF_NONE_MATCH, etag));
+		assertEquals(200, second.getResponse().getStatus());
+		String secondEtag = second.getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, secondEtag);
+		update("third");
+		MvcResult third = perform(get("/hms/patient/read/10").header(HttpHeaders.IF_NONE_MATCH, secondEtag));
+		assertEquals(200, third.getResponse().getStatus());
+		assertEquals(304, perform(get("/hms/patient/read/10").header(HttpHeaders.IF_NONE_MATCH, third.getResponse().getHeader(HttpHeaders.ETAG)))
+				.getResponse().getStatus());
+	}
+
+	private void update(String firstName) throws Exception {
+		Thread.sleep(2);
+		assertEquals(200, perform(put("/hms/patient/update").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":10,\"firstName\":\"" + firstName + "\",\"password\":\"secret\",\"weight\":70}")).getResponse().getStatus());
+	}
+
+	private MvcResult perform(RequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+	}
+
+}
@@ -0,0 +1,100 @@
+package global.coda.hospitalmanagement.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import global.coda.hospitalmanagement.TestData;
+import global.coda.hospitalmanagement.constant.ApplicationConstant;
+import global.coda.hospitalmanagement.constant.HttpStatusConstant;
+import global.coda.hospitalmanagement.constant.ProjectionConstant;
+import global.coda.hospitalmanagement.exception.BusinessException;
+
+/**
+ * A fields parameter selects the id and the listed fields of the allow-list,
+ * both as columns and in the response. A field outside the allow-list is
+ * refused with a bad request status.
+ *
+ * @author Vishal
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class FieldProjectionTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void theListedFieldsAndTheIdAreSelected() {
+		FieldProjection projection = FieldProjection.parse(" weight,,firstName ", ProjectionConstant.PATIENT_FIELDS);
+		assertEquals(Arrays.asList("id", "weight", "firstName"), Arrays.asList(projection.getFields().toArray()));
+		assertEquals("user.pk_user_id, patient.weight, user.firstname", projection.getColumns());
+		assertEquals(projection, FieldProjection.parse("id,weight,firstName", ProjectionConstant.PATIENT_FIELDS));
+		assertNull(FieldProjection.parse(" ", ProjectionConstant.PATIENT_FIELDS));
+		assertNull(FieldProjection.parse(null, ProjectionConstant.PATIENT_FIELDS));
+	}
+
+	@Test
+	void aFieldOutsideTheAllowListIsRefused() {
+		BusinessException error = assertThrows(BusinessException.class, () -> FieldProjection.parse("weight,password", ProjectionConstant.PATIENT_FIELDS));
+		assertEquals(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.UNKNOWN_FIELD + "password", error.getMessage());
+		assertThrows(BusinessException.class, () -> FieldProjection.parse("bloodGroup", ProjectionConstant.DOCTOR_FIELDS));
+	}
+
+	@Test
+	void onlyTheSelectedFieldsAreWritten() throws Exception {
+		TestData.clear(jdbcTemplate);
+		TestData.patient(jdbcTemplate, 701);
+		MvcResult result = perform(get("/hms/patient/read/701").param(ProjectionConstant.FIELDS, "weight"));
+		assertEquals(200, result.getResponse().getStatus());
+		JsonNode patient = objectMapper.readTree(result.getResponse().getContentAsString()).get("message");
+		Iterator<String> names = patient.fieldNames();
+		assertEquals("id", names.next());
+		assertEquals("weight", names.next());
+		assertFalse(names.hasNext());
+		assertEquals(70, patient.get("weight").asInt());
+	}
+
+	@Test
+	void anUnknownFieldIsABadRequest() throws Exception {
+		assertBadRequest(get("/hms/patient/read").param(ProjectionConstant.FIELDS, "password"), "password");
+		assertBadRequest(get("/hms/patient/read/701").param(ProjectionConstant.FIELDS, "weight,nope"), "nope");
+		assertBadRequest(get("/hms/doctor/read").param("limit", "5").param(ProjectionConstant.FIELDS, "bloodGroup"), "bloodGroup");
+	}
+
+	private void assertBadRequest(RequestBuilder request, String field) throws Exception {
+		JsonNode body = objectMapper.readTree(perform(request).getResponse().getContentAsString());
+		assertEquals(HttpStatusConstant.BAD_REQUEST, body.get("status").asInt());
+		assertEquals(HttpStatusConstant.BAD_REQUEST + ApplicationConstant.SPACE + ApplicationConstant.UNKNOWN_FIELD + field, body.get("message").asText());
+	}
+
+	private MvcResult perform(RequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+	}
+
+}